@@ -1,18 +1,47 @@
 package com.inventory.products.controllers;
 
+import com.inventory.products.dto.BulkOperationResult;
+import com.inventory.products.dto.BulkUpdateResult;
+import com.inventory.products.dto.CacheRegionStatistics;
+import com.inventory.products.dto.ProductFileFormat;
+import com.inventory.products.dto.ImportJob;
+import com.inventory.products.dto.InventoryMetricsHistoryPoint;
 import com.inventory.products.dto.InventoryMetricsReport;
+import com.inventory.products.dto.PriceAdjustment;
+import com.inventory.products.dto.ProductChanges;
+import com.inventory.products.dto.ProductCursorPage;
+import com.inventory.products.dto.ProductFilter;
+import com.inventory.products.dto.ProductSearchResult;
+import com.inventory.products.dto.ProductSummary;
+import com.inventory.products.dto.StockAdjustment;
+import com.inventory.products.dto.Suggestion;
 import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.model.InventoryMetricsPoint.Resolution;
+import com.inventory.products.model.InventoryMovement;
 import com.inventory.products.model.Product;
 import com.inventory.products.service.ProductService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -36,6 +65,42 @@ public class ProductController {
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkOperationResult> upsertProducts(@RequestBody List<ProductInfo> productInfos) {
+        log.info("Received request to create or update {} products", productInfos.size());
+        BulkOperationResult result = productService.upsertProducts(productInfos);
+        log.info("Bulk write finished with {} succeeded and {} failed", result.getSucceeded(), result.getFailed());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<ImportJob> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) {
+        log.info("Received request to import products from {}", contentType);
+        ImportJob job = productService.importProducts(body, ProductFileFormat.fromMediaType(contentType));
+        log.info("Import {} finished with status {}: {} created, {} updated, {} failed",
+                job.getId(), job.getStatus(), job.getCreated(), job.getUpdated(), job.getFailed());
+        return new ResponseEntity<>(job, HttpStatus.OK);
+    }
+
+    @GetMapping("/import")
+    public ResponseEntity<List<ImportJob>> getImportJobs() {
+        log.info("Received request to list import jobs");
+        List<ImportJob> jobs = productService.getImportJobs();
+        log.info("Returning {} import jobs", jobs.size());
+        return new ResponseEntity<>(jobs, HttpStatus.OK);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable String jobId) {
+        log.info("Received request to get import job with ID: {}", jobId);
+        ImportJob job = productService.getImportJob(jobId);
+        log.info("Returning import job: {}", job.getId());
+        return new ResponseEntity<>(job, HttpStatus.OK);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable String id, @RequestBody ProductInfo productInfo) {
         log.info("Received request to update product with ID: {} and info: {}", id, productInfo);
@@ -54,29 +119,144 @@ public class ProductController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable String id) {
+    public ResponseEntity<ProductSummary> getProductById(@PathVariable String id) {
         log.info("Received request to get product by ID: {}", id);
-        Product product = productService.getProductById(id);
+        ProductSummary product = productService.getProductById(id);
         log.info("Returning product: {}", product);
         return new ResponseEntity<>(product, HttpStatus.OK);
     }
 
+    // With slice=true the response only tells whether a next page exists, which saves the count query
     @GetMapping
-    public ResponseEntity<Page<Product>> getAllProducts(
+    public ResponseEntity<Slice<ProductSummary>> getAllProducts(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) List<String> categories,
             @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer expiringWithinDays,
+            @RequestParam(defaultValue = "false") boolean slice,
             @PageableDefault(size = 10, sort = "name") Pageable pageable
     ) {
-        log.info("Received request to get products with filters - name: {}, categories: {}, inStock: {}, page: {}, sort: {}",
-                name, categories, inStock, pageable.getPageNumber(), pageable.getSort());
+        log.info("Received request to get products with filters - name: {}, categories: {}, inStock: {}, price: {}-{}, expiring within days: {}, page: {}, sort: {}, slice: {}",
+                name, categories, inStock, minPrice, maxPrice, expiringWithinDays, pageable.getPageNumber(), pageable.getSort(), slice);
 
-        Page<Product> products = productService.getProductsByCriteria(name, categories, inStock, pageable);
+        ProductFilter filter = filterOf(name, categories, inStock, minPrice, maxPrice, expiringWithinDays);
+        if (slice) {
+            Slice<ProductSummary> products = productService.getProductSliceByCriteria(filter, pageable);
+            log.info("Returning {} products, has next: {}", products.getNumberOfElements(), products.hasNext());
+            return new ResponseEntity<>(products, HttpStatus.OK);
+        }
+        Page<ProductSummary> products = productService.getProductsByCriteria(filter, pageable);
         log.info("Returning {} products", products.getTotalElements());
         return new ResponseEntity<>(products, HttpStatus.OK);
 
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResult> searchProducts(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) List<String> categories,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer expiringWithinDays,
+            @PageableDefault(size = 10, sort = "name") Pageable pageable
+    ) {
+        log.info("Received request to search products with facets - name: {}, categories: {}, inStock: {}, price: {}-{}, expiring within days: {}, page: {}, sort: {}",
+                name, categories, inStock, minPrice, maxPrice, expiringWithinDays, pageable.getPageNumber(), pageable.getSort());
+
+        ProductFilter filter = filterOf(name, categories, inStock, minPrice, maxPrice, expiringWithinDays);
+        ProductSearchResult result = productService.searchProducts(filter, pageable);
+        log.info("Returning {} products and {} category facets", result.getPage().totalElements(),
+                result.getFacets().getCategories().size());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<ProductCursorPage> scrollProducts(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) List<String> categories,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer expiringWithinDays,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @SortDefault(sort = "name") Sort sort
+    ) {
+        log.info("Received request to scroll products with filters - name: {}, categories: {}, inStock: {}, price: {}-{}, expiring within days: {}, size: {}, sort: {}",
+                name, categories, inStock, minPrice, maxPrice, expiringWithinDays, size, sort);
+
+        ProductFilter filter = filterOf(name, categories, inStock, minPrice, maxPrice, expiringWithinDays);
+        Sort.Order order = sort.stream().findFirst().orElseThrow();
+        ProductCursorPage products = productService.getProductsAfterCursor(filter, order, cursor, size);
+        log.info("Returning {} products, has next: {}", products.getContent().size(), products.isHasNext());
+        return new ResponseEntity<>(products, HttpStatus.OK);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggestNames(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        log.info("Received request to suggest names for prefix: {}, limit: {}", prefix, limit);
+        List<Suggestion> suggestions = productService.suggestNames(prefix, limit);
+        log.info("Returning {} suggestions", suggestions.size());
+        return new ResponseEntity<>(suggestions, HttpStatus.OK);
+    }
+
+    @GetMapping("/top/stock-value")
+    public ResponseEntity<List<ProductSummary>> getMostValuableProducts(@RequestParam(defaultValue = "20") int limit) {
+        log.info("Received request to get the {} products with the highest stock value", limit);
+        List<ProductSummary> products = productService.getMostValuableProducts(limit);
+        log.info("Returning {} products", products.size());
+        return new ResponseEntity<>(products, HttpStatus.OK);
+    }
+
+    @GetMapping("/top/lowest-stock")
+    public ResponseEntity<List<ProductSummary>> getLowestStockProducts(@RequestParam(defaultValue = "20") int limit) {
+        log.info("Received request to get the {} products with the lowest stock", limit);
+        List<ProductSummary> products = productService.getLowestStockProducts(limit);
+        log.info("Returning {} products", products.size());
+        return new ResponseEntity<>(products, HttpStatus.OK);
+    }
+
+    @GetMapping("/top/expiring")
+    public ResponseEntity<List<ProductSummary>> getSoonestExpiringProducts(@RequestParam(defaultValue = "20") int limit) {
+        log.info("Received request to get the {} products expiring soonest", limit);
+        List<ProductSummary> products = productService.getSoonestExpiringProducts(limit);
+        log.info("Returning {} products", products.size());
+        return new ResponseEntity<>(products, HttpStatus.OK);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) List<String> categories,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer expiringWithinDays,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        log.info("Received request to export products as {} with filters - name: {}, categories: {}, inStock: {}, price: {}-{}, expiring within days: {}",
+                format, name, categories, inStock, minPrice, maxPrice, expiringWithinDays);
+
+        ProductFileFormat fileFormat = ProductFileFormat.fromName(format);
+        ProductFilter filter = filterOf(name, categories, inStock, minPrice, maxPrice, expiringWithinDays);
+        StreamingResponseBody body = output -> {
+            long exported = productService.exportProducts(filter, fileFormat, output);
+            log.info("Exported {} products", exported);
+        };
+        return ResponseEntity.ok()
+                .contentType(fileFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("products." + fileFormat.name().toLowerCase())
+                        .build().toString())
+                .body(body);
+    }
+
     @PutMapping("/{id}/outofstock")
     public ResponseEntity<Void> markProductOutOfStock(@PathVariable String id) {
         log.info("Received request to mark product with ID: {} as out of stock", id);
@@ -93,11 +273,155 @@ public class ProductController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    // Marks every product with one of the given ids, or matching the same filters as GET /products
+    @PutMapping("/instock")
+    public ResponseEntity<BulkUpdateResult> markProductsInStock(
+            @RequestParam(required = false) List<String> ids,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) List<String> categories,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer expiringWithinDays
+    ) {
+        log.info("Received request to mark products in stock - ids: {}, name: {}, categories: {}, inStock: {}, price: {}-{}, expiring within days: {}",
+                ids, name, categories, inStock, minPrice, maxPrice, expiringWithinDays);
+        ProductFilter filter = filterOf(name, categories, inStock, minPrice, maxPrice, expiringWithinDays)
+                .toBuilder().ids(ids).build();
+        BulkUpdateResult result = productService.setProductsInStock(filter);
+        log.info("Marked {} products in stock", result.getUpdated());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @PutMapping("/outofstock")
+    public ResponseEntity<BulkUpdateResult> markProductsOutOfStock(
+            @RequestParam(required = false) List<String> ids,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) List<String> categories,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer expiringWithinDays
+    ) {
+        log.info("Received request to mark products out of stock - ids: {}, name: {}, categories: {}, inStock: {}, price: {}-{}, expiring within days: {}",
+                ids, name, categories, inStock, minPrice, maxPrice, expiringWithinDays);
+        ProductFilter filter = filterOf(name, categories, inStock, minPrice, maxPrice, expiringWithinDays)
+                .toBuilder().ids(ids).build();
+        BulkUpdateResult result = productService.setProductsOutOfStock(filter);
+        log.info("Marked {} products out of stock", result.getUpdated());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @PostMapping("/price/adjust")
+    public ResponseEntity<BulkUpdateResult> adjustPrices(
+            @RequestParam(required = false) List<String> ids,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) List<String> categories,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer expiringWithinDays,
+            @RequestBody PriceAdjustment adjustment
+    ) {
+        log.info("Received request to adjust prices by {} - ids: {}, name: {}, categories: {}, inStock: {}, price: {}-{}, expiring within days: {}",
+                adjustment, ids, name, categories, inStock, minPrice, maxPrice, expiringWithinDays);
+        ProductFilter filter = filterOf(name, categories, inStock, minPrice, maxPrice, expiringWithinDays)
+                .toBuilder().ids(ids).build();
+        BulkUpdateResult result = productService.adjustPrices(filter, adjustment);
+        log.info("Adjusted the price of {} products", result.getUpdated());
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    @PostMapping("/{id}/stock/adjust")
+    public ResponseEntity<Product> adjustStock(@PathVariable String id, @RequestBody StockAdjustment adjustment) {
+        log.info("Received request to adjust stock of product with ID: {} by {}", id, adjustment.getDelta());
+        Product product = productService.adjustStock(id, adjustment.getDelta());
+        log.info("Product with ID: {} now has {} in stock", id, product.getInStock());
+        return new ResponseEntity<>(product, HttpStatus.OK);
+    }
+
+    // Newest first; deleted products keep their history
+    @GetMapping("/{id}/movements")
+    public ResponseEntity<List<InventoryMovement>> getStockMovements(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        log.info("Received request to get up to {} stock movements of product with ID: {}", limit, id);
+        List<InventoryMovement> movements = productService.getStockMovements(id, limit);
+        log.info("Returning {} stock movements of product with ID: {}", movements.size(), id);
+        return new ResponseEntity<>(movements, HttpStatus.OK);
+    }
+
+    // Committed product changes as they happen, each with what it did to the inventory metrics
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges() {
+        log.info("Received request to stream product changes");
+        return productService.subscribeToChanges();
+    }
+
+    // Upserts and delete tombstones since a change sequence number, for clients catching up their cached products
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChanges> getProductChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        log.info("Received request to get up to {} product changes since {}", limit, since);
+        ProductChanges changes = productService.getChangesSince(since, limit);
+        log.info("Returning {} upserts and {} deletes up to change {}", changes.getUpserts().size(),
+                changes.getDeletedIds().size(), changes.getNextSince());
+        return new ResponseEntity<>(changes, HttpStatus.OK);
+    }
+
+    // Without asOf the report describes the current inventory, with it the inventory at the end of that day
     @GetMapping("/metrics")
-    public ResponseEntity<InventoryMetricsReport> getInventoryMetricsReport() {
-        log.info("Received request to get inventory metrics report");
-        InventoryMetricsReport report = productService.getInventoryReport();
+    public ResponseEntity<InventoryMetricsReport> getInventoryMetricsReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf
+    ) {
+        log.info("Received request to get inventory metrics report - as of: {}", asOf);
+        InventoryMetricsReport report = asOf == null
+                ? productService.getInventoryReport()
+                : productService.getInventoryReport(asOf);
         log.info("Returning inventory metrics report");
         return new ResponseEntity<>(report, HttpStatus.OK);
     }
+
+    // Defaults to the last 24 hours; without a category the series covers the whole inventory
+    @GetMapping("/metrics/history")
+    public ResponseEntity<List<InventoryMetricsHistoryPoint>> getInventoryMetricsHistory(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Resolution resolution,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        LocalDateTime end = to == null ? LocalDateTime.now() : to;
+        LocalDateTime start = from == null ? end.minusDays(1) : from;
+        log.info("Received request to get inventory metrics history - category: {}, resolution: {}, from: {}, to: {}",
+                category, resolution, start, end);
+        List<InventoryMetricsHistoryPoint> history = productService.getInventoryHistory(category, resolution, start, end);
+        log.info("Returning {} inventory metrics history points", history.size());
+        return new ResponseEntity<>(history, HttpStatus.OK);
+    }
+
+    @GetMapping("/metrics/cache")
+    public ResponseEntity<List<CacheRegionStatistics>> getCacheStatistics() {
+        log.info("Received request to get cache statistics");
+        List<CacheRegionStatistics> statistics = productService.getCacheStatistics();
+        log.info("Returning statistics for {} cache regions", statistics.size());
+        return new ResponseEntity<>(statistics, HttpStatus.OK);
+    }
+
+    // Expiring within N days means expiring between today and N days from now, both included
+    private static ProductFilter filterOf(String name, List<String> categories, Boolean inStock,
+                                          BigDecimal minPrice, BigDecimal maxPrice, Integer expiringWithinDays) {
+        LocalDate today = LocalDate.now();
+        return ProductFilter.builder()
+                .name(name)
+                .categoryNames(categories)
+                .available(inStock)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .expiringFrom(expiringWithinDays == null ? null : today)
+                .expiringUntil(expiringWithinDays == null ? null : today.plusDays(expiringWithinDays))
+                .build();
+    }
 }
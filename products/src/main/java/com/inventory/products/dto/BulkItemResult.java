@@ -0,0 +1,23 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResult {
+    public enum Status {
+        CREATED,
+        UPDATED,
+        FAILED
+    }
+
+    private int index;
+    private String id;
+    private Status status;
+    private String message;
+}
@@ -0,0 +1,19 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Change a product write made to the units and value in stock of one category
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryStockDelta {
+    private String categoryName;
+    private long unitsInStock;
+    private BigDecimal valueInStock;
+}
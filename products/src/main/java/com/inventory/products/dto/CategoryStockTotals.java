@@ -0,0 +1,20 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryStockTotals {
+    private String categoryName;
+    private Long totalUnitsInStock;
+    private BigDecimal totalValueInStock;
+    private BigDecimal sumOfUnitPrices;
+    private Long productsInStock;
+}
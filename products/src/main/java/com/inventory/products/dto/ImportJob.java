@@ -0,0 +1,33 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJob {
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private String id;
+    private ProductFileFormat format;
+    private Status status;
+    private long rowsRead;
+    private long created;
+    private long updated;
+    private long failed;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String failureMessage;
+    private List<ImportRowError> errors;
+}
@@ -0,0 +1,21 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Average metrics over the bucket starting at time
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMetricsHistoryPoint {
+    private LocalDateTime time;
+    private long totalProductsInStock;
+    private BigDecimal totalValueInStock;
+    private BigDecimal averagePriceInStock;
+}
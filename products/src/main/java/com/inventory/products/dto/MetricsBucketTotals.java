@@ -0,0 +1,24 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Sums of the metrics points of one bucket, as selected by InventoryMetricsPointRepository
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsBucketTotals {
+    private String categoryName;
+    private LocalDateTime bucketStart;
+    private Long samples;
+    private Long unitsInStock;
+    private BigDecimal valueInStock;
+    private Long productsInStock;
+    private BigDecimal sumOfUnitPrices;
+}
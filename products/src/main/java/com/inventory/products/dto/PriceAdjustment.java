@@ -0,0 +1,18 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Either a percentage (4 for +4%) or an amount added to the unit price, not both
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceAdjustment {
+    private BigDecimal percent;
+    private BigDecimal amount;
+}
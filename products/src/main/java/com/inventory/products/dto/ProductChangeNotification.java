@@ -0,0 +1,22 @@
+package com.inventory.products.dto;
+
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeNotification {
+    private ProductChangedEvent.ChangeType type;
+    private String productId;
+    // The product after the change, null when it was deleted
+    private Product product;
+    private List<CategoryStockDelta> metricsDelta;
+}
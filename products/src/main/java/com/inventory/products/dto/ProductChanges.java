@@ -0,0 +1,23 @@
+package com.inventory.products.dto;
+
+import com.inventory.products.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChanges {
+    private List<Product> upserts;
+    private List<String> deletedIds;
+    // Sequence number to ask for changes since next time
+    private long nextSince;
+    private boolean hasMore;
+    // The changes asked for were compacted away: drop the cached products, these changes start from scratch
+    private boolean resync;
+}
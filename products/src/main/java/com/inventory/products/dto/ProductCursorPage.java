@@ -0,0 +1,19 @@
+package com.inventory.products.dto;
+
+import com.inventory.products.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCursorPage {
+    private List<Product> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
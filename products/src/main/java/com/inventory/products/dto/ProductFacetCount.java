@@ -0,0 +1,17 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Number of products in one category and stock state, as aggregated by the facet query
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetCount {
+    private String categoryName;
+    private Boolean inStock;
+    private Long count;
+}
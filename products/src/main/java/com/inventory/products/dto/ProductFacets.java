@@ -0,0 +1,22 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Counts behind each filter choice. Each facet applies the name filter and the other facet's
+ * selection but not its own, so it shows what checking another box would add.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+    private List<CategoryFacet> categories;
+    private long inStock;
+    private long outOfStock;
+}
@@ -0,0 +1,26 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+    private String name;
+    private List<String> categoryNames;
+    private Boolean available;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private LocalDate expiringFrom;
+    private LocalDate expiringUntil;
+    private Collection<String> ids;
+}
@@ -0,0 +1,18 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductKeyset {
+    private String sortProperty;
+    private Sort.Direction direction;
+    private Object lastValue;
+    private String lastId;
+}
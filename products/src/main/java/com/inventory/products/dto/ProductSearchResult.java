@@ -0,0 +1,19 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.web.PagedModel;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResult {
+    private List<ProductSummary> content;
+    private PagedModel.PageMetadata page;
+    private ProductFacets facets;
+}
@@ -0,0 +1,33 @@
+package com.inventory.products.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.inventory.products.model.Category;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read model for product listings and lookups, selected column by column in JPQL so reads never
+ * load or manage Product entities. It serializes like a Product, with the category nested.
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class ProductSummary {
+    String id;
+    String name;
+    @JsonIgnore
+    String categoryName;
+    BigDecimal unitPrice;
+    LocalDate expirationDate;
+    int inStock;
+    LocalDate createdAt;
+    LocalDate updatedAt;
+
+    public Category getCategory() {
+        return categoryName == null ? null : Category.builder().categoryName(categoryName).build();
+    }
+}
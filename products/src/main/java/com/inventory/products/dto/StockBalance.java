@@ -0,0 +1,19 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBalance {
+    private String productId;
+    private String categoryName;
+    private int inStock;
+    private BigDecimal unitPrice;
+}
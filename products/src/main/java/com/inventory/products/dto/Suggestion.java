@@ -0,0 +1,21 @@
+package com.inventory.products.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+    public enum Type {
+        PRODUCT,
+        CATEGORY
+    }
+
+    private Type type;
+    private String id;
+    private String name;
+}
@@ -0,0 +1,6 @@
+package com.inventory.products.event;
+
+import com.inventory.products.model.Category;
+
+public record CategoryCreatedEvent(Category category) {
+}
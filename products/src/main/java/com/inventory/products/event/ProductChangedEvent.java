@@ -0,0 +1,24 @@
+package com.inventory.products.event;
+
+import com.inventory.products.model.Product;
+
+public record ProductChangedEvent(ChangeType type, Product before, Product after) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static ProductChangedEvent created(Product product) {
+        return new ProductChangedEvent(ChangeType.CREATED, null, product);
+    }
+
+    public static ProductChangedEvent updated(Product before, Product after) {
+        return new ProductChangedEvent(ChangeType.UPDATED, before, after);
+    }
+
+    public static ProductChangedEvent deleted(Product product) {
+        return new ProductChangedEvent(ChangeType.DELETED, product, null);
+    }
+}
@@ -0,0 +1,143 @@
+package com.inventory.products.index;
+
+import com.inventory.products.dto.Suggestion;
+import com.inventory.products.event.CategoryCreatedEvent;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Category;
+import com.inventory.products.repository.CategoryRepository;
+import com.inventory.products.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Sorted index of lower-cased product and category names used for typeahead. Keys are
+ * {@code name + '\0' + type + id} so equal names don't collide, and a prefix lookup is a
+ * range scan over the skip list that stops after the requested number of entries.
+ */
+@Slf4j
+@Component
+public class NamePrefixIndex {
+    private static final char SEPARATOR = '\0';
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    // Writers apply changes under it; readers go straight to the current entries, whose maps are concurrent
+    private final Object writeLock = new Object();
+    private volatile Entries entries = new Entries();
+    // Changes seen while the index is being loaded, replayed onto the loaded entries before they are swapped in
+    private List<Consumer<Entries>> changesDuringLoad;
+
+    @Autowired
+    public NamePrefixIndex(ProductRepository productRepository, CategoryRepository categoryRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * Loads the entries into fresh maps while the current ones keep serving suggestions and
+     * changes. A change handled during the load may or may not be in what was read, so it is
+     * recorded and replayed onto the fresh entries before they replace the current ones; replaying
+     * a change the load already saw leaves the same entries.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        synchronized (writeLock) {
+            changesDuringLoad = new ArrayList<>();
+        }
+
+        Entries loaded = new Entries();
+        try {
+            categoryRepository.findAll().forEach(loaded::addCategory);
+            productRepository.findAllNames().forEach(product -> loaded.addProduct(product.getId(), product.getName()));
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                changesDuringLoad = null;
+            }
+            throw e;
+        }
+
+        synchronized (writeLock) {
+            changesDuringLoad.forEach(change -> change.accept(loaded));
+            changesDuringLoad = null;
+            entries = loaded;
+        }
+        log.info("Name prefix index built with {} entries", loaded.suggestionsByKey.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.after() != null) {
+            String id = event.after().getId();
+            String name = event.after().getName();
+            apply(generation -> generation.addProduct(id, name));
+        } else {
+            String id = event.before().getId();
+            apply(generation -> generation.removeProduct(id));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryCreated(CategoryCreatedEvent event) {
+        apply(generation -> generation.addCategory(event.category()));
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalizedPrefix = ProductNameIndex.normalize(prefix);
+        List<Suggestion> suggestions = new ArrayList<>(limit);
+        for (Map.Entry<String, Suggestion> entry : entries.suggestionsByKey.tailMap(normalizedPrefix).entrySet()) {
+            if (suggestions.size() == limit || !entry.getKey().startsWith(normalizedPrefix)) {
+                break;
+            }
+            suggestions.add(entry.getValue());
+        }
+        return suggestions;
+    }
+
+    private void apply(Consumer<Entries> change) {
+        synchronized (writeLock) {
+            change.accept(entries);
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+        }
+    }
+
+    // One generation of the index; writes go through the write lock
+    private static final class Entries {
+        private final ConcurrentSkipListMap<String, Suggestion> suggestionsByKey = new ConcurrentSkipListMap<>();
+        private final Map<String, String> keysByProductId = new ConcurrentHashMap<>();
+
+        private void addProduct(String id, String name) {
+            if (id == null || name == null) {
+                return;
+            }
+            String key = ProductNameIndex.normalize(name) + SEPARATOR + Suggestion.Type.PRODUCT + id;
+            String previousKey = keysByProductId.put(id, key);
+            if (previousKey != null && !previousKey.equals(key)) {
+                suggestionsByKey.remove(previousKey);
+            }
+            suggestionsByKey.put(key, new Suggestion(Suggestion.Type.PRODUCT, id, name));
+        }
+
+        private void removeProduct(String id) {
+            String previousKey = keysByProductId.remove(id);
+            if (previousKey != null) {
+                suggestionsByKey.remove(previousKey);
+            }
+        }
+
+        private void addCategory(Category category) {
+            String key = ProductNameIndex.normalize(category.getCategoryName()) + SEPARATOR + Suggestion.Type.CATEGORY;
+            suggestionsByKey.put(key, new Suggestion(Suggestion.Type.CATEGORY, null, category.getCategoryName()));
+        }
+    }
+}
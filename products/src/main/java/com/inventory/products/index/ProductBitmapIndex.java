@@ -0,0 +1,266 @@
+package com.inventory.products.index;
+
+import com.inventory.products.dto.ProductFacetCount;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of the products in each category and of the products in stock. Each product
+ * gets a dense ordinal, reused after deletes, so a category OR plus an availability AND is a
+ * handful of bitmap operations that yield the candidate ids for the database query.
+ */
+@Slf4j
+@Component
+public class ProductBitmapIndex {
+    private final ProductRepository productRepository;
+    private final int maxCandidates;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Bitmaps bitmaps = new Bitmaps();
+    // Changes seen while the index is being loaded, replayed onto the loaded bitmaps before they are swapped in
+    private List<ProductChangedEvent> changesDuringLoad;
+    private volatile boolean initialized;
+
+    @Autowired
+    public ProductBitmapIndex(
+            ProductRepository productRepository,
+            @Value("${inventory.search.bitmap-index.max-candidates:5000}") int maxCandidates
+    ){
+        this.productRepository = productRepository;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Loads the bitmaps into fresh structures while the current ones keep serving reads and
+     * changes. A change handled during the load may or may not be in what was read, so it is
+     * recorded and replayed onto the fresh bitmaps under the write lock before they replace the
+     * current ones; replaying a change the load already saw leaves the same state.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        lock.writeLock().lock();
+        try {
+            changesDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Bitmaps loaded = new Bitmaps();
+        try {
+            productRepository.findAllStockStates()
+                    .forEach(product -> loaded.add(product.getId(), product.getCategoryName(), product.getInStock()));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            changesDuringLoad.forEach(loaded::apply);
+            changesDuringLoad = null;
+            bitmaps = loaded;
+            initialized = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product bitmap index built for {} products in {} categories",
+                loaded.allProducts.getCardinality(), loaded.productsByCategory.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            bitmaps.apply(event);
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the products in any of {@code categoryNames} and with the requested
+     * availability, restricted to {@code withinIds} when given, or an empty optional when the index
+     * can't answer (no category or availability filter, index still loading or too many matches to
+     * be worth narrowing the database query).
+     */
+    public Optional<Set<String>> findCandidates(Collection<String> categoryNames, Boolean available,
+                                                Collection<String> withinIds) {
+        if (!initialized || (categoryNames == null && available == null)) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches;
+            if (categoryNames == null) {
+                matches = bitmaps.allProducts.clone();
+            } else {
+                matches = new RoaringBitmap();
+                for (String categoryName : categoryNames) {
+                    RoaringBitmap categoryProducts = bitmaps.productsByCategory.get(categoryName);
+                    if (categoryProducts != null) {
+                        matches.or(categoryProducts);
+                    }
+                }
+            }
+            if (available != null) {
+                if (available) {
+                    matches.and(bitmaps.productsInStock);
+                } else {
+                    matches.andNot(bitmaps.productsInStock);
+                }
+            }
+            if (withinIds != null) {
+                matches.and(bitmaps.ordinalsOf(withinIds));
+            }
+            if (matches.getCardinality() > maxCandidates) {
+                return Optional.empty();
+            }
+            Set<String> candidates = new HashSet<>();
+            matches.forEach((int ordinal) -> candidates.add(bitmaps.idsByOrdinal.get(ordinal)));
+            return Optional.of(candidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Counts each (category, in stock) combination, restricted to withinIds when given
+    public Optional<List<ProductFacetCount>> findFacetCounts(Collection<String> withinIds) {
+        if (!initialized) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap within = withinIds == null ? null : bitmaps.ordinalsOf(withinIds);
+            List<ProductFacetCount> facetCounts = new ArrayList<>();
+            bitmaps.productsByCategory.forEach((categoryName, categoryProducts) -> {
+                RoaringBitmap products = within == null ? categoryProducts : RoaringBitmap.and(categoryProducts, within);
+                long inStock = RoaringBitmap.andCardinality(products, bitmaps.productsInStock);
+                long outOfStock = products.getLongCardinality() - inStock;
+                if (inStock > 0) {
+                    facetCounts.add(new ProductFacetCount(categoryName, true, inStock));
+                }
+                if (outOfStock > 0) {
+                    facetCounts.add(new ProductFacetCount(categoryName, false, outOfStock));
+                }
+            });
+            return Optional.of(facetCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // One generation of the index; every access goes through the lock
+    private static final class Bitmaps {
+        private final Map<String, Integer> ordinalsById = new HashMap<>();
+        private final List<String> idsByOrdinal = new ArrayList<>();
+        private final List<String> categoriesByOrdinal = new ArrayList<>();
+        private final RoaringBitmap freeOrdinals = new RoaringBitmap();
+        private final RoaringBitmap allProducts = new RoaringBitmap();
+        private final RoaringBitmap productsInStock = new RoaringBitmap();
+        private final Map<String, RoaringBitmap> productsByCategory = new HashMap<>();
+
+        private void apply(ProductChangedEvent event) {
+            Product product = event.after();
+            if (product != null) {
+                add(product.getId(), product.getCategory() == null ? null : product.getCategory().getCategoryName(),
+                        product.getInStock());
+            } else {
+                remove(event.before().getId());
+            }
+        }
+
+        private void add(String id, String categoryName, int inStock) {
+            if (id == null) {
+                return;
+            }
+            Integer ordinal = ordinalsById.get(id);
+            if (ordinal == null) {
+                ordinal = nextOrdinal();
+                ordinalsById.put(id, ordinal);
+                idsByOrdinal.set(ordinal, id);
+            }
+            String previousCategory = categoriesByOrdinal.get(ordinal);
+            if (previousCategory != null && !previousCategory.equals(categoryName)) {
+                removeFromCategory(previousCategory, ordinal);
+            }
+            if (categoryName != null) {
+                productsByCategory.computeIfAbsent(categoryName, key -> new RoaringBitmap()).add(ordinal);
+            }
+            categoriesByOrdinal.set(ordinal, categoryName);
+            allProducts.add(ordinal);
+            if (inStock > 0) {
+                productsInStock.add(ordinal);
+            } else {
+                productsInStock.remove(ordinal);
+            }
+        }
+
+        private void remove(String id) {
+            Integer ordinal = ordinalsById.remove(id);
+            if (ordinal == null) {
+                return;
+            }
+            String categoryName = categoriesByOrdinal.get(ordinal);
+            if (categoryName != null) {
+                removeFromCategory(categoryName, ordinal);
+            }
+            idsByOrdinal.set(ordinal, null);
+            categoriesByOrdinal.set(ordinal, null);
+            allProducts.remove(ordinal);
+            productsInStock.remove(ordinal);
+            freeOrdinals.add(ordinal);
+        }
+
+        private int nextOrdinal() {
+            if (!freeOrdinals.isEmpty()) {
+                int ordinal = freeOrdinals.first();
+                freeOrdinals.remove(ordinal);
+                return ordinal;
+            }
+            idsByOrdinal.add(null);
+            categoriesByOrdinal.add(null);
+            return idsByOrdinal.size() - 1;
+        }
+
+        private void removeFromCategory(String categoryName, int ordinal) {
+            RoaringBitmap categoryProducts = productsByCategory.get(categoryName);
+            if (categoryProducts != null) {
+                categoryProducts.remove(ordinal);
+                if (categoryProducts.isEmpty()) {
+                    productsByCategory.remove(categoryName);
+                }
+            }
+        }
+
+        private RoaringBitmap ordinalsOf(Collection<String> ids) {
+            RoaringBitmap ordinals = new RoaringBitmap();
+            for (String id : ids) {
+                Integer ordinal = ordinalsById.get(id);
+                if (ordinal != null) {
+                    ordinals.add(ordinal);
+                }
+            }
+            return ordinals;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.inventory.products.index;
+
+import com.inventory.products.dto.ProductName;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Trigram index over lower-cased product names. A substring query of three or more
+ * characters is answered by intersecting the posting sets of its trigrams and checking
+ * the surviving names, which replaces the full scan behind {@code LIKE '%name%'}.
+ */
+@Slf4j
+@Component
+public class ProductNameIndex {
+    private static final int GRAM_SIZE = 3;
+
+    private final ProductRepository productRepository;
+    private final int maxCandidates;
+    // Writers apply changes under it; readers go straight to the current trigrams, whose maps are concurrent
+    private final Object writeLock = new Object();
+    private volatile Trigrams trigrams = new Trigrams();
+    // Changes seen while the index is being loaded, replayed onto the loaded trigrams before they are swapped in
+    private List<Consumer<Trigrams>> changesDuringLoad;
+    private volatile boolean initialized;
+
+    @Autowired
+    public ProductNameIndex(
+            ProductRepository productRepository,
+            @Value("${inventory.search.name-index.max-candidates:5000}") int maxCandidates
+    ){
+        this.productRepository = productRepository;
+        this.maxCandidates = maxCandidates;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild(productRepository::findAllNames);
+        log.info("Product name index built for {} products", trigrams.namesById.size());
+    }
+
+    /**
+     * Loads the names into fresh maps while the current ones keep serving lookups and changes. A
+     * change handled during the load may or may not be in what was read, so it is recorded and
+     * replayed onto the fresh maps before they replace the current ones; replaying a change the
+     * load already saw leaves the same index.
+     */
+    public void rebuild(Supplier<? extends Collection<ProductName>> loadProductNames) {
+        synchronized (writeLock) {
+            changesDuringLoad = new ArrayList<>();
+        }
+
+        Trigrams loaded = new Trigrams();
+        try {
+            loadProductNames.get().forEach(product -> loaded.add(product.getId(), product.getName()));
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                changesDuringLoad = null;
+            }
+            throw e;
+        }
+
+        synchronized (writeLock) {
+            changesDuringLoad.forEach(change -> change.accept(loaded));
+            changesDuringLoad = null;
+            trigrams = loaded;
+            initialized = true;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.after() != null) {
+            add(event.after().getId(), event.after().getName());
+        } else {
+            remove(event.before().getId());
+        }
+    }
+
+    /**
+     * Returns the ids of the products whose name contains {@code nameFilter}, ignoring case,
+     * or an empty optional when the index can't answer (short filter, index still loading or
+     * too many matches to be worth narrowing the database query).
+     */
+    public Optional<Set<String>> findCandidates(String nameFilter) {
+        if (!initialized || nameFilter == null) {
+            return Optional.empty();
+        }
+        String query = normalize(nameFilter);
+        if (query.length() < GRAM_SIZE) {
+            return Optional.empty();
+        }
+
+        Trigrams current = trigrams;
+        List<Set<String>> postings = new ArrayList<>();
+        for (String trigram : trigramsOf(query)) {
+            Set<String> ids = current.idsByTrigram.get(trigram);
+            if (ids == null) {
+                return Optional.of(Set.of());
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        Set<String> candidates = new HashSet<>();
+        for (String id : postings.getFirst()) {
+            String name = current.namesById.get(id);
+            if (name != null && name.contains(query)) {
+                candidates.add(id);
+                if (candidates.size() > maxCandidates) {
+                    return Optional.empty();
+                }
+            }
+        }
+        return Optional.of(candidates);
+    }
+
+    public void add(String id, String name) {
+        apply(generation -> generation.add(id, name));
+    }
+
+    public void remove(String id) {
+        apply(generation -> generation.remove(id));
+    }
+
+    private void apply(Consumer<Trigrams> change) {
+        synchronized (writeLock) {
+            change.accept(trigrams);
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+        }
+    }
+
+    static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> trigramsOf(String normalizedName) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= normalizedName.length(); i++) {
+            trigrams.add(normalizedName.substring(i, i + GRAM_SIZE));
+        }
+        return trigrams;
+    }
+
+    // One generation of the index; writes go through the write lock
+    private static final class Trigrams {
+        private final Map<String, Set<String>> idsByTrigram = new ConcurrentHashMap<>();
+        private final Map<String, String> namesById = new ConcurrentHashMap<>();
+
+        private void add(String id, String name) {
+            if (id == null || name == null) {
+                return;
+            }
+            String normalizedName = normalize(name);
+            String previousName = namesById.put(id, normalizedName);
+            if (previousName != null && !previousName.equals(normalizedName)) {
+                trigramsOf(previousName).forEach(trigram -> removePosting(trigram, id));
+            }
+            trigramsOf(normalizedName).forEach(trigram ->
+                    idsByTrigram.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(id));
+        }
+
+        private void remove(String id) {
+            String previousName = namesById.remove(id);
+            if (previousName != null) {
+                trigramsOf(previousName).forEach(trigram -> removePosting(trigram, id));
+            }
+        }
+
+        private void removePosting(String trigram, String id) {
+            idsByTrigram.computeIfPresent(trigram, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
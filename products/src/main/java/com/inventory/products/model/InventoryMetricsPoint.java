@@ -0,0 +1,76 @@
+package com.inventory.products.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Inventory metrics of one category, or of the whole inventory when the category is null, over
+ * one time bucket. The values are sums over the bucket's samples rather than averages, so buckets
+ * merge exactly when rolled up.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMetricsPoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_metrics_point_seq")
+    @SequenceGenerator(name = "inventory_metrics_point_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    private Resolution resolution;
+    private LocalDateTime bucketStart;
+    private String categoryName;
+    private int samples;
+    private long unitsInStock;
+
+    @Column(precision = 38, scale = 2)
+    private BigDecimal valueInStock;
+    private long productsInStock;
+
+    @Column(precision = 38, scale = 2)
+    private BigDecimal sumOfUnitPrices;
+
+    public enum Resolution {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Resolution(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public LocalDateTime bucketOf(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        public LocalDateTime nextBucket(LocalDateTime bucketStart) {
+            return bucketStart.plus(1, unit);
+        }
+
+        public long bucketsBetween(LocalDateTime from, LocalDateTime to) {
+            return unit.between(bucketOf(from), to) + 1;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.inventory.products.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the inventory ledger: the stock, price and category a product was left with by a
+ * change, and how many units the change added or removed. Entries are only ever appended.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_movement_seq")
+    @SequenceGenerator(name = "inventory_movement_seq", allocationSize = 50)
+    private Long id;
+    private String productId;
+    private String categoryName;
+
+    // Stored as text, as declared in the migration, rather than as a database enum
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    private Type type;
+    private int quantityDelta;
+    private int inStock;
+
+    @Column(precision = 38, scale = 2)
+    private BigDecimal unitPrice;
+    private LocalDateTime occurredAt;
+
+    public enum Type {
+        // Stock a product already had when the ledger was started
+        OPENING_BALANCE,
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
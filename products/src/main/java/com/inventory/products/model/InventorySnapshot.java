@@ -0,0 +1,32 @@
+package com.inventory.products.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The balances of every product after applying the ledger up to and including lastMovementId. The
+ * movements left for the tail all occurred at or after tailFrom.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_snapshot_seq")
+    @SequenceGenerator(name = "inventory_snapshot_seq", allocationSize = 50)
+    private Long id;
+    private LocalDateTime takenAt;
+    private long lastMovementId;
+    private LocalDateTime tailFrom;
+}
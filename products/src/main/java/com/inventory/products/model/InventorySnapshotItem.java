@@ -0,0 +1,33 @@
+package com.inventory.products.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySnapshotItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_snapshot_item_seq")
+    @SequenceGenerator(name = "inventory_snapshot_item_seq", allocationSize = 50)
+    private Long id;
+    private Long snapshotId;
+    private String productId;
+    private String categoryName;
+    private int inStock;
+
+    @Column(precision = 38, scale = 2)
+    private BigDecimal unitPrice;
+}
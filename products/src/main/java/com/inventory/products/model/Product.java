@@ -1,20 +1,31 @@
 package com.inventory.products.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Locale;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
@@ -26,9 +37,42 @@ public class Product {
     @JoinColumn(name = "category_name")
     private Category category;
 
+    @Column(precision = 38, scale = 2)
     private BigDecimal unitPrice;
     private LocalDate expirationDate;
     private int inStock;
     private LocalDate createdAt;
     private LocalDate updatedAt;
+
+    // Lowercased name behind the unique index, so names are unique regardless of case.
+    // Indexes are declared in the Flyway migrations under db/migration.
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private String nameKey;
+
+    // Unit price times units in stock, computed by the database behind the top stock value index. Writes
+    // compute it the same way, so a product just saved, or read back from the second-level cache, has it too
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @Column(precision = 38, scale = 2, insertable = false, updatable = false)
+    private BigDecimal stockValue;
+
+    // Every way of creating a product goes through persist, so they all stamp the creation date here
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDate.now();
+        }
+        deriveColumns();
+    }
+
+    @PreUpdate
+    void deriveColumns() {
+        nameKey = nameKeyOf(name);
+        stockValue = unitPrice == null ? null : unitPrice.multiply(BigDecimal.valueOf(inStock));
+    }
+
+    public static String nameKeyOf(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,32 @@
+package com.inventory.products.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One write of a product in the change sequence, numbered by its id. A deleted change is the
+ * product's tombstone; otherwise clients fetch the product as it is now.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_change_seq")
+    @SequenceGenerator(name = "product_change_seq", allocationSize = 50)
+    private Long id;
+    private String productId;
+    private boolean deleted;
+    private LocalDateTime changedAt;
+}
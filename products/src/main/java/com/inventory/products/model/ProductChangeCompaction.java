@@ -0,0 +1,28 @@
+package com.inventory.products.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Tombstones up to and including purgedThroughId were dropped, so older sequence numbers can't be caught up from
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeCompaction {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_change_compaction_seq")
+    @SequenceGenerator(name = "product_change_compaction_seq", allocationSize = 50)
+    private Long id;
+    private LocalDateTime compactedAt;
+    private long purgedThroughId;
+}
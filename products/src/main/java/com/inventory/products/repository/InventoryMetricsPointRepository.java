@@ -0,0 +1,46 @@
+package com.inventory.products.repository;
+
+import com.inventory.products.dto.MetricsBucketTotals;
+import com.inventory.products.model.InventoryMetricsPoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryMetricsPointRepository extends JpaRepository<InventoryMetricsPoint, Long> {
+    // A null category selects the overall series
+    @Query("SELECT new com.inventory.products.dto.MetricsBucketTotals(MIN(p.categoryName), p.bucketStart, " +
+            "SUM(p.samples), SUM(p.unitsInStock), SUM(p.valueInStock), SUM(p.productsInStock), SUM(p.sumOfUnitPrices)) " +
+            "FROM InventoryMetricsPoint p WHERE p.resolution = :resolution " +
+            "AND ((:categoryName IS NULL AND p.categoryName IS NULL) OR p.categoryName = :categoryName) " +
+            "AND p.bucketStart >= :from AND p.bucketStart < :to " +
+            "GROUP BY p.bucketStart ORDER BY p.bucketStart")
+    List<MetricsBucketTotals> findSeries(@Param("resolution") InventoryMetricsPoint.Resolution resolution,
+                                         @Param("categoryName") String categoryName,
+                                         @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.inventory.products.dto.MetricsBucketTotals(p.categoryName, MIN(p.bucketStart), " +
+            "SUM(p.samples), SUM(p.unitsInStock), SUM(p.valueInStock), SUM(p.productsInStock), SUM(p.sumOfUnitPrices)) " +
+            "FROM InventoryMetricsPoint p WHERE p.resolution = :resolution " +
+            "AND p.bucketStart >= :from AND p.bucketStart < :to GROUP BY p.categoryName")
+    List<MetricsBucketTotals> sumByCategory(@Param("resolution") InventoryMetricsPoint.Resolution resolution,
+                                            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT MAX(p.bucketStart) FROM InventoryMetricsPoint p WHERE p.resolution = :resolution")
+    LocalDateTime findLastBucketStart(@Param("resolution") InventoryMetricsPoint.Resolution resolution);
+
+    @Query("SELECT MIN(p.bucketStart) FROM InventoryMetricsPoint p WHERE p.resolution = :resolution " +
+            "AND p.bucketStart >= :from AND p.bucketStart < :to")
+    LocalDateTime findFirstBucketStart(@Param("resolution") InventoryMetricsPoint.Resolution resolution,
+                                       @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM InventoryMetricsPoint p WHERE p.resolution = :resolution AND p.bucketStart < :before")
+    int deleteOlderThan(@Param("resolution") InventoryMetricsPoint.Resolution resolution,
+                        @Param("before") LocalDateTime before);
+}
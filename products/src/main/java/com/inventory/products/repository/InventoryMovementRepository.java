@@ -0,0 +1,35 @@
+package com.inventory.products.repository;
+
+import com.inventory.products.model.InventoryMovement;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+    List<InventoryMovement> findByProductIdOrderByIdDesc(String productId, Limit limit);
+
+    @Query("SELECT MAX(m.id) FROM InventoryMovement m WHERE m.occurredAt <= :occurredAt AND m.id <= :upToId")
+    Long findLastIdAt(@Param("occurredAt") LocalDateTime occurredAt, @Param("upToId") long upToId);
+
+    @Query("SELECT MAX(m.id) FROM InventoryMovement m")
+    Long findLastId();
+
+    @Query("SELECT MIN(m.occurredAt) FROM InventoryMovement m")
+    LocalDateTime findFirstOccurredAt();
+
+    @Query("SELECT m FROM InventoryMovement m WHERE m.id > :afterId AND m.id <= :upToId ORDER BY m.id")
+    List<InventoryMovement> findBetween(@Param("afterId") long afterId, @Param("upToId") long upToId);
+
+    @Query("SELECT m FROM InventoryMovement m WHERE m.id > :afterId AND m.occurredAt >= :from " +
+            "AND m.occurredAt < :until ORDER BY m.id")
+    List<InventoryMovement> findOccurredBetween(@Param("afterId") long afterId, @Param("from") LocalDateTime from,
+                                                @Param("until") LocalDateTime until);
+
+    long countByIdGreaterThan(long id);
+}
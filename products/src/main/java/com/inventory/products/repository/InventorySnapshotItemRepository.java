@@ -0,0 +1,23 @@
+package com.inventory.products.repository;
+
+import com.inventory.products.dto.StockBalance;
+import com.inventory.products.model.InventorySnapshotItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventorySnapshotItemRepository extends JpaRepository<InventorySnapshotItem, Long> {
+    @Query("SELECT new com.inventory.products.dto.StockBalance(i.productId, i.categoryName, i.inStock, i.unitPrice) " +
+            "FROM InventorySnapshotItem i WHERE i.snapshotId = :snapshotId")
+    List<StockBalance> findBalancesBySnapshotId(@Param("snapshotId") Long snapshotId);
+
+    @Modifying
+    @Query("DELETE FROM InventorySnapshotItem i WHERE i.snapshotId IN :snapshotIds")
+    int deleteBySnapshotIdIn(@Param("snapshotIds") Collection<Long> snapshotIds);
+}
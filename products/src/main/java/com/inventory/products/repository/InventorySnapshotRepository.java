@@ -0,0 +1,18 @@
+package com.inventory.products.repository;
+
+import com.inventory.products.model.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+    Optional<InventorySnapshot> findFirstByOrderByLastMovementIdDesc();
+
+    Optional<InventorySnapshot> findFirstByTakenAtBeforeOrderByTakenAtDesc(LocalDateTime takenAt);
+
+    List<InventorySnapshot> findAllByOrderByTakenAtDesc();
+}
@@ -0,0 +1,12 @@
+package com.inventory.products.repository;
+
+import com.inventory.products.model.ProductChangeCompaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProductChangeCompactionRepository extends JpaRepository<ProductChangeCompaction, Long> {
+    Optional<ProductChangeCompaction> findFirstByOrderByPurgedThroughIdDesc();
+}
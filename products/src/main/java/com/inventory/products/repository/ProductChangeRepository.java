@@ -0,0 +1,36 @@
+package com.inventory.products.repository;
+
+import com.inventory.products.model.ProductChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+    // Only each product's latest change, so a product written many times is sent once
+    @Query("SELECT c FROM ProductChange c WHERE c.id > :afterId AND c.id <= :upToId " +
+            "AND NOT EXISTS (SELECT n.id FROM ProductChange n WHERE n.productId = c.productId AND n.id > c.id) " +
+            "ORDER BY c.id")
+    List<ProductChange> findLatestAfter(@Param("afterId") long afterId, @Param("upToId") long upToId, Limit limit);
+
+    @Query("SELECT MAX(c.id) FROM ProductChange c")
+    Long findLastId();
+
+    @Modifying
+    @Query("DELETE FROM ProductChange c " +
+            "WHERE EXISTS (SELECT n.id FROM ProductChange n WHERE n.productId = c.productId AND n.id > c.id)")
+    int deleteSuperseded();
+
+    @Query("SELECT MAX(c.id) FROM ProductChange c WHERE c.deleted = true AND c.changedAt < :changedBefore")
+    Long findLastTombstoneIdBefore(@Param("changedBefore") LocalDateTime changedBefore);
+
+    @Modifying
+    @Query("DELETE FROM ProductChange c WHERE c.deleted = true AND c.id <= :upToId")
+    int deleteTombstonesUpTo(@Param("upToId") long upToId);
+}
@@ -1,25 +1,91 @@
 package com.inventory.products.repository;
 
+import com.inventory.products.dto.CategoryStockTotals;
+import com.inventory.products.dto.ProductName;
+import com.inventory.products.dto.ProductStockState;
+import com.inventory.products.dto.ProductSummary;
 import com.inventory.products.model.Product;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, String> {
-    Boolean existsByName(String name);
-
-    @Query("SELECT p FROM Product p WHERE " +
-            "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
-            "(:categoryNames IS NULL OR p.category.categoryName IN :categoryNames) AND " +
-            "(:available IS NULL OR (:available = true AND p.inStock > 0) OR (:available = false AND p.inStock = 0))")
-    Page<Product> findByCriteria(@Param("name") String name,
-                                 @Param("categoryNames") List<String> categoryNames,
-                                 @Param("available") Boolean available,
-                                 Pageable pageable);
+public interface ProductRepository extends JpaRepository<Product, String>, ProductRepositoryCustom {
+    // Names are unique regardless of case, so lookups go through the indexed lowercase name
+    default Boolean existsByName(String name) {
+        return existsByNameKey(Product.nameKeyOf(name));
+    }
+
+    default List<ProductName> findNamesIn(Collection<String> names) {
+        return findNamesByKeyIn(names.stream().map(Product::nameKeyOf).collect(Collectors.toSet()));
+    }
+
+    Boolean existsByNameKey(String nameKey);
+
+    @Query("SELECT new com.inventory.products.dto.ProductName(p.id, p.name) FROM Product p WHERE p.nameKey IN :nameKeys")
+    List<ProductName> findNamesByKeyIn(@Param("nameKeys") Collection<String> nameKeys);
+
+    // Cached in the query cache, which drops it whenever the product table changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.inventory.products.dto.ProductSummary(p.id, p.name, p.category.categoryName, p.unitPrice, " +
+            "p.expirationDate, p.inStock, p.createdAt, p.updatedAt) FROM Product p WHERE p.id = :id")
+    Optional<ProductSummary> findSummaryById(@Param("id") String id);
+
+    // Top-N reads follow the stock value, stock and expiration indexes and stop after the limit
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.inventory.products.dto.ProductSummary(p.id, p.name, p.category.categoryName, p.unitPrice, " +
+            "p.expirationDate, p.inStock, p.createdAt, p.updatedAt) FROM Product p " +
+            "WHERE p.stockValue > 0 ORDER BY p.stockValue DESC, p.id")
+    List<ProductSummary> findTopByStockValue(Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.inventory.products.dto.ProductSummary(p.id, p.name, p.category.categoryName, p.unitPrice, " +
+            "p.expirationDate, p.inStock, p.createdAt, p.updatedAt) FROM Product p ORDER BY p.inStock, p.id")
+    List<ProductSummary> findLowestStock(Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.inventory.products.dto.ProductSummary(p.id, p.name, p.category.categoryName, p.unitPrice, " +
+            "p.expirationDate, p.inStock, p.createdAt, p.updatedAt) FROM Product p " +
+            "WHERE p.expirationDate >= :from AND p.inStock > 0 ORDER BY p.expirationDate NULLS LAST, p.id")
+    List<ProductSummary> findSoonestExpiring(@Param("from") LocalDate from, Limit limit);
+
+    // Applies the delta in the database so concurrent adjustments can't overwrite each other
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.inStock = p.inStock + :delta, p.updatedAt = :updatedAt " +
+            "WHERE p.id = :id AND p.inStock + :delta >= 0")
+    int adjustStock(@Param("id") String id, @Param("delta") int delta, @Param("updatedAt") LocalDate updatedAt);
+
+    // Rounds like BigDecimal.setScale(2, RoundingMode.HALF_UP), so the prices in the change events match the rows
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.unitPrice = ROUND(p.unitPrice * :factor + :amount, 2), p.updatedAt = :updatedAt " +
+            "WHERE p.id IN :ids")
+    int adjustPrices(@Param("ids") Collection<String> ids, @Param("factor") BigDecimal factor,
+                     @Param("amount") BigDecimal amount, @Param("updatedAt") LocalDate updatedAt);
+
+    // Reads the row as committed, skipping the second-level cache that bulk updates like adjustStock bypass
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"))
+    Optional<Product> findFreshById(String id);
+
+    @Query("SELECT new com.inventory.products.dto.ProductName(p.id, p.name) FROM Product p")
+    List<ProductName> findAllNames();
+
+    @Query("SELECT new com.inventory.products.dto.ProductStockState(p.id, p.category.categoryName, p.inStock) FROM Product p")
+    List<ProductStockState> findAllStockStates();
+
+    @Query("SELECT new com.inventory.products.dto.CategoryStockTotals(p.category.categoryName, SUM(p.inStock), " +
+            "SUM(p.unitPrice * p.inStock), SUM(p.unitPrice), COUNT(p)) " +
+            "FROM Product p WHERE p.inStock > 0 GROUP BY p.category.categoryName")
+    List<CategoryStockTotals> findInStockTotalsByCategory();
 }
@@ -0,0 +1,58 @@
+package com.inventory.products.repository;
+
+import com.inventory.products.dto.ProductFacetCount;
+import com.inventory.products.dto.ProductFilter;
+import com.inventory.products.dto.ProductKeyset;
+import com.inventory.products.dto.ProductSummary;
+import com.inventory.products.model.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface ProductRepositoryCustom {
+    // Sort properties findByFilterAfter can page through; products missing one sort after all others ascending
+    Set<String> KEYSET_SORT_PROPERTIES = Set.of("name", "unitPrice", "expirationDate");
+
+    Slice<ProductSummary> findSliceByFilter(ProductFilter filter, Pageable pageable);
+
+    long countByFilter(ProductFilter filter);
+
+    List<ProductFacetCount> findFacetCounts(ProductFilter filter);
+
+    List<Product> findByFilterAfter(ProductFilter filter, ProductKeyset keyset, int limit);
+
+    Stream<Product> streamByFilter(ProductFilter filter, int fetchSize);
+
+    void insertAndFlush(Collection<Product> newProducts);
+
+    List<ProductSummary> lockStockChanges(ProductFilter filter, int inStock);
+
+    int updateStockByFilter(ProductFilter filter, int inStock, LocalDate updatedAt);
+
+    List<ProductSummary> lockPricedProducts(ProductFilter filter);
+
+    // The keyset that continues after the last product of a page sorted by the given order
+    static ProductKeyset keysetAfter(Product last, Sort.Order order) {
+        return ProductKeyset.builder()
+                .sortProperty(order.getProperty())
+                .direction(order.getDirection())
+                .lastValue(sortValueOf(last, order.getProperty()))
+                .lastId(last.getId())
+                .build();
+    }
+
+    private static Object sortValueOf(Product product, String sortProperty) {
+        return switch (sortProperty) {
+            case "name" -> product.getName();
+            case "unitPrice" -> product.getUnitPrice();
+            case "expirationDate" -> product.getExpirationDate();
+            default -> throw new IllegalArgumentException("Unsupported sort property for cursor pagination: " + sortProperty);
+        };
+    }
+}
@@ -0,0 +1,272 @@
+package com.inventory.products.repository;
+
+import com.inventory.products.dto.ProductFacetCount;
+import com.inventory.products.dto.ProductFilter;
+import com.inventory.products.dto.ProductKeyset;
+import com.inventory.products.dto.ProductSummary;
+import com.inventory.products.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasText;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+    private static final int MAX_CACHEABLE_IDS = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Only the filters that are set become predicates, so the database can pick the index that matches them
+    // instead of scanning through "parameter IS NULL OR ..." conditions. Rows are selected straight into
+    // summaries; the category name is read from the foreign key, without joining the category table.
+    // One row past the page tells whether another page follows, without counting. Results go to the
+    // query cache, which drops them whenever the product table changes. Filters narrowed to a few index
+    // candidates are cached too, but a long candidate list would make every cache key as large as itself.
+    @Override
+    public Slice<ProductSummary> findSliceByFilter(ProductFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> query = cb.createQuery(ProductSummary.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(summaryOf(cb, product))
+                .where(filterPredicates(filter, cb, product).toArray(Predicate[]::new))
+                .orderBy(ordersOf(pageable.getSort(), cb, product));
+
+        TypedQuery<ProductSummary> typedQuery = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_CACHEABLE, filter.getIds() == null || filter.getIds().size() <= MAX_CACHEABLE_IDS);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+        }
+        List<ProductSummary> rows = typedQuery
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public long countByFilter(ProductFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(cb.count(product))
+                .where(filterPredicates(filter, cb, product).toArray(Predicate[]::new));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Counts every (category, in stock) combination in one grouped pass, from which all facets are derived
+    @Override
+    public List<ProductFacetCount> findFacetCounts(ProductFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductFacetCount> query = cb.createQuery(ProductFacetCount.class);
+        Root<Product> product = query.from(Product.class);
+        Path<String> categoryName = product.get("category").get("categoryName");
+        Expression<Boolean> inStock = cb.<Boolean>selectCase()
+                .when(cb.greaterThan(product.get("inStock"), 0), true)
+                .otherwise(false);
+
+        query.select(cb.construct(ProductFacetCount.class, categoryName, inStock, cb.count(product)))
+                .where(filterPredicates(filter, cb, product).toArray(Predicate[]::new))
+                .groupBy(categoryName, inStock);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private static CompoundSelection<ProductSummary> summaryOf(CriteriaBuilder cb, Root<Product> product) {
+        return cb.construct(ProductSummary.class,
+                product.get("id"),
+                product.get("name"),
+                product.get("category").get("categoryName"),
+                product.get("unitPrice"),
+                product.get("expirationDate"),
+                product.get("inStock"),
+                product.get("createdAt"),
+                product.get("updatedAt"));
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Product> findByFilterAfter(ProductFilter filter, ProductKeyset keyset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+
+        List<Predicate> predicates = filterPredicates(filter, cb, product);
+        Path<Comparable> sortKey = product.get(keyset.getSortProperty());
+        Path<String> id = product.get("id");
+        boolean ascending = keyset.getDirection().isAscending();
+
+        if (keyset.getLastId() != null) {
+            predicates.add(after(cb, sortKey, (Comparable) keyset.getLastValue(), id, keyset.getLastId(), ascending));
+        }
+
+        query.select(product)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(orderOf(cb, sortKey, ascending), ascending ? cb.asc(id) : cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Reads through a forward-only cursor, fetching the category in the same row and detaching each
+    // product once it's handed out so a long stream doesn't grow the persistence context.
+    @Override
+    public Stream<Product> streamByFilter(ProductFilter filter, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+        product.fetch("category", JoinType.LEFT);
+
+        query.select(product)
+                .where(filterPredicates(filter, cb, product).toArray(Predicate[]::new))
+                .orderBy(cb.asc(product.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    // Persists without the SELECT that save() issues for assigned ids, then flushes pending
+    // inserts and updates as JDBC batches and detaches everything so chunks don't accumulate.
+    @Override
+    public void insertAndFlush(Collection<Product> newProducts) {
+        newProducts.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Reads the products the stock update is about to change and locks them until commit, so the
+    // change events built from these rows describe exactly what the update does
+    @Override
+    public List<ProductSummary> lockStockChanges(ProductFilter filter, int inStock) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> query = cb.createQuery(ProductSummary.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(summaryOf(cb, product))
+                .where(stockChangePredicates(filter, inStock, cb, product).toArray(Predicate[]::new));
+
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    // One UPDATE for every matching product; rows already at the target stock keep their updatedAt
+    @Override
+    public int updateStockByFilter(ProductFilter filter, int inStock, LocalDate updatedAt) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Product> update = cb.createCriteriaUpdate(Product.class);
+        Root<Product> product = update.from(Product.class);
+        update.set(product.<Integer>get("inStock"), inStock)
+                .set(product.<LocalDate>get("updatedAt"), updatedAt)
+                .where(stockChangePredicates(filter, inStock, cb, product).toArray(Predicate[]::new));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    // Same locking read as for stock changes, over the products that have a price to adjust
+    @Override
+    public List<ProductSummary> lockPricedProducts(ProductFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> query = cb.createQuery(ProductSummary.class);
+        Root<Product> product = query.from(Product.class);
+        List<Predicate> predicates = filterPredicates(filter, cb, product);
+        predicates.add(cb.isNotNull(product.get("unitPrice")));
+        query.select(summaryOf(cb, product))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(product.get("id")));
+
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    private static List<Predicate> stockChangePredicates(ProductFilter filter, int inStock, CriteriaBuilder cb,
+                                                         Root<Product> product) {
+        List<Predicate> predicates = filterPredicates(filter, cb, product);
+        predicates.add(cb.notEqual(product.get("inStock"), inStock));
+        return predicates;
+    }
+
+    // Rows past (lastValue, lastId) in the order of orderOf, where a missing value sorts after every other one
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Predicate after(CriteriaBuilder cb, Path<Comparable> sortKey, Comparable lastValue,
+                                   Path<String> id, String lastId, boolean ascending) {
+        if (lastValue == null) {
+            return ascending
+                    ? cb.and(cb.isNull(sortKey), cb.greaterThan(id, lastId))
+                    : cb.or(cb.isNotNull(sortKey), cb.and(cb.isNull(sortKey), cb.lessThan(id, lastId)));
+        }
+        return ascending
+                ? cb.or(cb.greaterThan(sortKey, lastValue), cb.and(cb.equal(sortKey, lastValue), cb.greaterThan(id, lastId)),
+                        cb.isNull(sortKey))
+                : cb.or(cb.lessThan(sortKey, lastValue), cb.and(cb.equal(sortKey, lastValue), cb.lessThan(id, lastId)));
+    }
+
+    // Nulls last ascending and first descending, the order the sort column indexes store them in
+    private static Order orderOf(CriteriaBuilder cb, Expression<?> sortKey, boolean ascending) {
+        HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+        return ascending ? hcb.asc(sortKey, false) : hcb.desc(sortKey, true);
+    }
+
+    private static List<Order> ordersOf(Sort sort, CriteriaBuilder cb, Root<Product> product) {
+        return sort.stream()
+                .map(order -> KEYSET_SORT_PROPERTIES.contains(order.getProperty())
+                        ? orderOf(cb, product.get(order.getProperty()), order.isAscending())
+                        : QueryUtils.toOrders(Sort.by(order), product, cb).getFirst())
+                .toList();
+    }
+
+    static List<Predicate> filterPredicates(ProductFilter filter, CriteriaBuilder cb, Root<Product> product) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getIds() != null) {
+            // Sorted, so the same candidates always bind the same parameters and hit the same query cache entry
+            predicates.add(filter.getIds().isEmpty() ? cb.disjunction() : product.get("id").in(new TreeSet<>(filter.getIds())));
+        }
+        if (hasText(filter.getName())) {
+            predicates.add(cb.like(cb.lower(product.get("name")), "%" + filter.getName().toLowerCase() + "%"));
+        }
+        if (filter.getCategoryNames() != null) {
+            predicates.add(product.get("category").get("categoryName").in(filter.getCategoryNames()));
+        }
+        if (filter.getAvailable() != null) {
+            predicates.add(filter.getAvailable()
+                    ? cb.greaterThan(product.get("inStock"), 0)
+                    : cb.equal(product.get("inStock"), 0));
+        }
+        // Bounds are inclusive; products without an expiration date never fall in an expiration window
+        if (filter.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.get("unitPrice"), filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(product.get("unitPrice"), filter.getMaxPrice()));
+        }
+        if (filter.getExpiringFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.get("expirationDate"), filter.getExpiringFrom()));
+        }
+        if (filter.getExpiringUntil() != null) {
+            predicates.add(cb.lessThanOrEqualTo(product.get("expirationDate"), filter.getExpiringUntil()));
+        }
+        return predicates;
+    }
+}
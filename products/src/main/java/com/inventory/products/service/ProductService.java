@@ -1,11 +1,33 @@
 package com.inventory.products.service;
 
+import com.inventory.products.dto.BulkOperationResult;
+import com.inventory.products.dto.BulkUpdateResult;
+import com.inventory.products.dto.CacheRegionStatistics;
+import com.inventory.products.dto.ProductFileFormat;
+import com.inventory.products.dto.ImportJob;
+import com.inventory.products.dto.InventoryMetricsHistoryPoint;
 import com.inventory.products.dto.InventoryMetricsReport;
+import com.inventory.products.dto.PriceAdjustment;
+import com.inventory.products.dto.ProductChanges;
+import com.inventory.products.dto.ProductCursorPage;
+import com.inventory.products.dto.ProductFilter;
+import com.inventory.products.dto.ProductSearchResult;
+import com.inventory.products.dto.ProductSummary;
+import com.inventory.products.model.InventoryMetricsPoint.Resolution;
+import com.inventory.products.model.InventoryMovement;
 import com.inventory.products.model.Product;
 import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.dto.Suggestion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ProductService {
@@ -13,15 +35,60 @@ public interface ProductService {
 
     Product updateProduct(ProductInfo productInfo);
 
-    Product getProductById(String productId);
+    BulkOperationResult upsertProducts(List<ProductInfo> productInfos);
+
+    ImportJob importProducts(InputStream input, ProductFileFormat format);
+
+    ImportJob getImportJob(String jobId);
+
+    List<ImportJob> getImportJobs();
+
+    long exportProducts(ProductFilter filter, ProductFileFormat format, OutputStream output);
+
+    ProductSummary getProductById(String productId);
 
     void deleteProductById(String productId);
 
-    Page<Product> getProductsByCriteria(String name, List<String> categoryFilter, Boolean availability, Pageable pageable);
+    Page<ProductSummary> getProductsByCriteria(ProductFilter filter, Pageable pageable);
+
+    Slice<ProductSummary> getProductSliceByCriteria(ProductFilter filter, Pageable pageable);
+
+    ProductSearchResult searchProducts(ProductFilter filter, Pageable pageable);
+
+    ProductCursorPage getProductsAfterCursor(ProductFilter filter, Sort.Order order, String cursor, int size);
+
+    List<Suggestion> suggestNames(String prefix, int limit);
+
+    List<ProductSummary> getMostValuableProducts(int limit);
+
+    List<ProductSummary> getLowestStockProducts(int limit);
+
+    List<ProductSummary> getSoonestExpiringProducts(int limit);
 
     void setProductInStock(String productId);
 
     void setProductOutOfStock(String productId);
 
+    BulkUpdateResult setProductsInStock(ProductFilter filter);
+
+    BulkUpdateResult setProductsOutOfStock(ProductFilter filter);
+
+    BulkUpdateResult adjustPrices(ProductFilter filter, PriceAdjustment adjustment);
+
+    Product adjustStock(String productId, int delta);
+
+    List<InventoryMovement> getStockMovements(String productId, int limit);
+
     InventoryMetricsReport getInventoryReport();
+
+    InventoryMetricsReport getInventoryReport(LocalDate asOf);
+
+    List<InventoryMetricsHistoryPoint> getInventoryHistory(String categoryName, Resolution resolution,
+                                                           LocalDateTime from, LocalDateTime to);
+
+    SseEmitter subscribeToChanges();
+
+    ProductChanges getChangesSince(long since, int limit);
+
+    List<CacheRegionStatistics> getCacheStatistics();
 }
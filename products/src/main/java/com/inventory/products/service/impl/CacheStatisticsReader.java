@@ -0,0 +1,58 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.CacheRegionStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reads the counters of this application's second-level and query cache regions from the
+ * statistics MBeans that the JCache provider registers for each cache.
+ */
+@Component
+public class CacheStatisticsReader {
+    private static final String STATISTICS_MBEANS = "javax.cache:type=CacheStatistics,*";
+
+    private final CacheManager cacheManager;
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    @Autowired
+    public CacheStatisticsReader(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public List<CacheRegionStatistics> read() {
+        String cacheManagerName = cacheManager.getURI().toString();
+        List<CacheRegionStatistics> statistics = new ArrayList<>();
+        try {
+            for (ObjectName name : mBeanServer.queryNames(new ObjectName(STATISTICS_MBEANS), null)) {
+                if (!cacheManagerName.equals(name.getKeyProperty("CacheManager"))) {
+                    continue;
+                }
+                statistics.add(CacheRegionStatistics.builder()
+                        .region(name.getKeyProperty("Cache"))
+                        .hits(counter(name, "CacheHits"))
+                        .misses(counter(name, "CacheMisses"))
+                        .puts(counter(name, "CachePuts"))
+                        .evictions(counter(name, "CacheEvictions"))
+                        .build());
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not read cache statistics", e);
+        }
+        statistics.sort(Comparator.comparing(CacheRegionStatistics::getRegion));
+        return statistics;
+    }
+
+    private long counter(ObjectName name, String attribute) throws JMException {
+        return ((Number) mBeanServer.getAttribute(name, attribute)).longValue();
+    }
+}
@@ -0,0 +1,68 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.model.Category;
+import com.inventory.products.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps every category in memory. Categories are few and only change through
+ * {@link CategoryServiceImpl#createCategory}, which invalidates the cache, so it's loaded again
+ * with one query after each change and serves every other lookup without touching the database.
+ */
+@Component
+public class CategoryCache {
+    private final CategoryRepository categoryRepository;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile SortedMap<String, Category> categoriesByName;
+
+    @Autowired
+    public CategoryCache(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    public List<Category> getAll() {
+        return categories().values().stream()
+                .map(CategoryCache::copyOf)
+                .toList();
+    }
+
+    public Optional<Category> find(String categoryName) {
+        return Optional.ofNullable(categories().get(categoryName)).map(CategoryCache::copyOf);
+    }
+
+    public void invalidate() {
+        synchronized (generation) {
+            generation.incrementAndGet();
+            categoriesByName = null;
+        }
+    }
+
+    private SortedMap<String, Category> categories() {
+        SortedMap<String, Category> categories = categoriesByName;
+        if (categories != null) {
+            return categories;
+        }
+        // A load that overlaps an invalidation may have read stale rows, so it's only kept
+        // when no invalidation happened meanwhile
+        long loadedGeneration = generation.get();
+        SortedMap<String, Category> loaded = new TreeMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            loaded.put(category.getCategoryName(), copyOf(category));
+        }
+        loaded = Collections.unmodifiableSortedMap(loaded);
+        synchronized (generation) {
+            if (generation.get() == loadedGeneration) {
+                categoriesByName = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    private static Category copyOf(Category category) {
+        return Category.builder().categoryName(category.getCategoryName()).build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.inventory.products.service.impl;
 
+import com.inventory.products.event.CategoryCreatedEvent;
 import com.inventory.products.exception.EntityAlreadyExistsException;
 import com.inventory.products.exception.EntityInvalidArguments;
 import com.inventory.products.exception.EntityNotFoundException;
@@ -7,10 +8,10 @@ import com.inventory.products.model.Category;
 import com.inventory.products.repository.CategoryRepository;
 import com.inventory.products.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Optional;
 
 import static org.springframework.util.StringUtils.hasText;
 
@@ -18,10 +19,15 @@ import static org.springframework.util.StringUtils.hasText;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public CategoryServiceImpl(CategoryRepository categoryRepository) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, CategoryCache categoryCache,
+                               ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
+        this.categoryCache = categoryCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -36,17 +42,25 @@ public class CategoryServiceImpl implements CategoryService {
         if (categoryRepository.existsByCategoryName(category.getCategoryName())) {
             throw new EntityAlreadyExistsException("Category already exist: " + category.getCategoryName());
         }
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        categoryCache.invalidate();
+        eventPublisher.publishEvent(new CategoryCreatedEvent(savedCategory));
+        return savedCategory;
     }
 
     @Override
     public List<Category> getAllCategories(){
-        return categoryRepository.findAll();
+        return categoryCache.getAll();
     }
 
     @Override
     public Category getCategoryByName(String categoryName){
-        Optional<Category> foundCategory =  categoryRepository.findByCategoryName(categoryName);
-        return foundCategory.orElseThrow(() -> new EntityNotFoundException("Category with name " + categoryName + " doesn't exist"));
+        return categoryCache.find(categoryName).orElseThrow(() -> new EntityNotFoundException("Category with name " + categoryName + " doesn't exist"));
+    }
+
+    // A reference to associate products with an existing category without loading it. It's only
+    // usable inside the transaction that requested it, so it's never handed out to callers.
+    public Category getCategoryReference(String categoryName) {
+        return categoryRepository.getReferenceById(categoryName);
     }
 }
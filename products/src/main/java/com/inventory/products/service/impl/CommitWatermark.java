@@ -0,0 +1,107 @@
+package com.inventory.products.service.impl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Tracks the sequence ids this application hands out until their transactions complete. Ids are
+ * handed out in order but committed in any order, so a reader that stops at {@link #committedUpTo}
+ * never steps over an id whose row may still appear.
+ */
+final class CommitWatermark {
+    // Recording holds the read lock from handing out an id until it is tracked, so the watermark never sees it half way
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, OpenId> openIds = new ConcurrentSkipListMap<>();
+
+    /**
+     * Saves an entity whose id comes from the sequence and keeps that id open until the
+     * surrounding transaction commits or rolls back. Without a transaction the save has already
+     * committed when it returns. Anything {@code save} stamps with the clock is no older than the
+     * id's {@link Boundary#openSince}.
+     */
+    <T> T record(Supplier<T> save, ToLongFunction<T> idOf) {
+        lock.readLock().lock();
+        try {
+            LocalDateTime openedAt = LocalDateTime.now();
+            T saved = save.get();
+            long id = idOf.applyAsLong(saved);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                OpenIds open = openIdsOfCurrentTransaction();
+                open.ids.add(id);
+                openIds.put(id, new OpenId(open, openedAt));
+            }
+            return saved;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The highest id up to which every recorded id has committed or rolled back. Ids the caller's
+     * own transaction holds open don't count, since it reads its own writes. With none open every
+     * row the caller can see has committed, so {@code lastCommittedId} reads the highest one.
+     */
+    Boundary committedUpTo(LongSupplier lastCommittedId) {
+        List<TransactionSynchronization> ownSynchronizations = TransactionSynchronizationManager.isSynchronizationActive()
+                ? TransactionSynchronizationManager.getSynchronizations()
+                : List.of();
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, OpenId> open : openIds.entrySet()) {
+                if (!ownSynchronizations.contains(open.getValue().transaction())) {
+                    return new Boundary(open.getKey() - 1, open.getValue().openedAt());
+                }
+            }
+            return new Boundary(lastCommittedId.getAsLong(), LocalDateTime.now());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private OpenIds openIdsOfCurrentTransaction() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof OpenIds open && open.watermark == this) {
+                return open;
+            }
+        }
+        OpenIds open = new OpenIds(this);
+        TransactionSynchronizationManager.registerSynchronization(open);
+        return open;
+    }
+
+    /**
+     * Where a reader stops: every id up to {@code lastId} is settled, and the ids above it were
+     * handed out no earlier than {@code openSince}, or are still to come.
+     */
+    record Boundary(long lastId, LocalDateTime openSince) {
+    }
+
+    private record OpenId(OpenIds transaction, LocalDateTime openedAt) {
+    }
+
+    // The ids one transaction holds open, released whichever way it completes
+    private static final class OpenIds implements TransactionSynchronization {
+        private final CommitWatermark watermark;
+        private final List<Long> ids = new ArrayList<>();
+
+        private OpenIds(CommitWatermark watermark) {
+            this.watermark = watermark;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            ids.forEach(watermark.openIds::remove);
+        }
+    }
+}
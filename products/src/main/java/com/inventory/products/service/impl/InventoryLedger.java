@@ -0,0 +1,266 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.StockBalance;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.InventoryMovement;
+import com.inventory.products.model.InventorySnapshot;
+import com.inventory.products.model.InventorySnapshotItem;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.InventoryMovementRepository;
+import com.inventory.products.repository.InventorySnapshotItemRepository;
+import com.inventory.products.repository.InventorySnapshotRepository;
+import com.inventory.products.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+/**
+ * Append-only ledger of inventory movements. Each product change is recorded in the transaction
+ * that writes the product, so the entries are flushed with it in one JDBC batch. Snapshots
+ * compact the ledger into one balance per product, so current stock is rebuilt from the latest
+ * snapshot plus the movements after it.
+ */
+@Slf4j
+@Component
+public class InventoryLedger {
+    // Before any movement; the tail of snapshots taken before their tails were tracked starts here
+    private static final LocalDateTime LEDGER_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final InventoryMovementRepository movementRepository;
+    private final InventorySnapshotRepository snapshotRepository;
+    private final InventorySnapshotItemRepository snapshotItemRepository;
+    private final ProductRepository productRepository;
+    private final int snapshotTailSize;
+    private final int dailySnapshotRetentionDays;
+    private final CommitWatermark committedMovements = new CommitWatermark();
+
+    @Autowired
+    public InventoryLedger(
+            InventoryMovementRepository movementRepository,
+            InventorySnapshotRepository snapshotRepository,
+            InventorySnapshotItemRepository snapshotItemRepository,
+            ProductRepository productRepository,
+            @Value("${inventory.ledger.snapshot-tail-size:10000}") int snapshotTailSize,
+            @Value("${inventory.ledger.daily-snapshot-retention-days:35}") int dailySnapshotRetentionDays
+    ){
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.snapshotItemRepository = snapshotItemRepository;
+        this.productRepository = productRepository;
+        this.snapshotTailSize = snapshotTailSize;
+        this.dailySnapshotRetentionDays = dailySnapshotRetentionDays;
+    }
+
+    // Products written before the ledger existed start it with their current stock
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (movementRepository.count() > 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<InventoryMovement> openingBalances = productRepository.findAll().stream()
+                .map(product -> movementOf(InventoryMovement.Type.OPENING_BALANCE, product, product.getInStock(),
+                        product.getInStock(), now))
+                .toList();
+        movementRepository.saveAll(openingBalances);
+        log.info("Inventory ledger opened with the balances of {} products", openingBalances.size());
+    }
+
+    // Runs in the publisher's transaction, if any, so an entry is only kept when its change commits
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        InventoryMovement movement = movementOf(event, null);
+        if (movement != null) {
+            // Stamped once the watermark holds its id open, so a snapshot's tail never starts after it
+            committedMovements.record(() -> {
+                movement.setOccurredAt(LocalDateTime.now());
+                return movementRepository.save(movement);
+            }, InventoryMovement::getId);
+        }
+    }
+
+    public List<InventoryMovement> getMovements(String productId, Limit limit) {
+        return movementRepository.findByProductIdOrderByIdDesc(productId, limit);
+    }
+
+    // When the first movement, usually an opening balance, was recorded; empty until then
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> startedAt() {
+        return Optional.ofNullable(movementRepository.findFirstOccurredAt());
+    }
+
+    // Takes a snapshot once a day, or sooner when the movements since the last one pile up
+    @Scheduled(fixedDelayString = "${inventory.ledger.snapshot-check-interval-ms:3600000}",
+            initialDelayString = "${inventory.ledger.snapshot-check-interval-ms:3600000}")
+    @Transactional
+    public void snapshotIfDue() {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<InventorySnapshot> latest = snapshotRepository.findFirstByOrderByLastMovementIdDesc();
+        boolean due = latest
+                .map(snapshot -> snapshot.getTakenAt().toLocalDate().isBefore(now.toLocalDate())
+                        || movementRepository.countByIdGreaterThan(snapshot.getLastMovementId()) >= snapshotTailSize)
+                .orElse(true);
+        if (due) {
+            takeSnapshot(now);
+        }
+    }
+
+    /**
+     * Folds the movements since the latest snapshot into a new one. A movement whose transaction is
+     * still open may hold a lower id than one already committed, so the snapshot stops below the
+     * oldest open movement; it and the ones after stay in the tail, which starts no earlier than
+     * that movement occurred. Older snapshots are thinned out by {@link #pruneSnapshots}.
+     */
+    @Transactional
+    public Optional<InventorySnapshot> takeSnapshot(LocalDateTime now) {
+        CommitWatermark.Boundary committed = committedMovements.committedUpTo(
+                () -> Objects.requireNonNullElse(movementRepository.findLastId(), 0L));
+        Long lastMovementId = movementRepository.findLastIdAt(now, committed.lastId());
+        Optional<InventorySnapshot> latest = snapshotRepository.findFirstByOrderByLastMovementIdDesc();
+        if (lastMovementId == null || latest.map(snapshot -> snapshot.getLastMovementId() >= lastMovementId).orElse(false)) {
+            return Optional.empty();
+        }
+        Map<String, StockBalance> balances = balancesOf(latest, lastMovementId);
+        InventorySnapshot snapshot = snapshotRepository.save(InventorySnapshot.builder()
+                .takenAt(now)
+                .lastMovementId(lastMovementId)
+                .tailFrom(committed.openSince().isBefore(now) ? committed.openSince() : now)
+                .build());
+        snapshotItemRepository.saveAll(balances.values().stream()
+                .map(balance -> InventorySnapshotItem.builder()
+                        .snapshotId(snapshot.getId())
+                        .productId(balance.getProductId())
+                        .categoryName(balance.getCategoryName())
+                        .inStock(balance.getInStock())
+                        .unitPrice(balance.getUnitPrice())
+                        .build())
+                .toList());
+        log.info("Inventory snapshot {} taken with {} balances up to movement {}",
+                snapshot.getId(), balances.size(), lastMovementId);
+        pruneSnapshots(now.toLocalDate());
+        return Optional.of(snapshot);
+    }
+
+    /**
+     * Keeps the last snapshot of each day for the retention period and the last one of each month
+     * after that, so a point-in-time report reads at most a day or so of movements on top of one.
+     */
+    private void pruneSnapshots(LocalDate today) {
+        LocalDate keepDailyFrom = today.minusDays(dailySnapshotRetentionDays);
+        Set<Temporal> keptPeriods = new HashSet<>();
+        List<Long> prunedIds = new ArrayList<>();
+        for (InventorySnapshot snapshot : snapshotRepository.findAllByOrderByTakenAtDesc()) {
+            LocalDate day = snapshot.getTakenAt().toLocalDate();
+            Temporal period = day.isBefore(keepDailyFrom) ? YearMonth.from(day) : day;
+            if (!keptPeriods.add(period)) {
+                prunedIds.add(snapshot.getId());
+            }
+        }
+        if (!prunedIds.isEmpty()) {
+            snapshotItemRepository.deleteBySnapshotIdIn(prunedIds);
+            snapshotRepository.deleteAllByIdInBatch(prunedIds);
+        }
+    }
+
+    // Current balance of every product: the latest snapshot plus the movements after it
+    @Transactional(readOnly = true)
+    public Map<String, StockBalance> rebuildBalances() {
+        return balancesOf(snapshotRepository.findFirstByOrderByLastMovementIdDesc(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Balance of every product at {@code until}: the last snapshot taken before then, plus the
+     * movements of its tail that occurred before then. Snapshots are kept daily, so the tail is
+     * read through the occurred_at index from where it starts, about a day's worth however far
+     * back {@code until} is.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, StockBalance> balancesAt(LocalDateTime until) {
+        Optional<InventorySnapshot> snapshot = snapshotRepository.findFirstByTakenAtBeforeOrderByTakenAtDesc(until);
+        LocalDateTime tailFrom = snapshot.map(InventorySnapshot::getTailFrom).orElse(LEDGER_EPOCH);
+        return balancesOf(snapshot,
+                afterMovementId -> movementRepository.findOccurredBetween(afterMovementId, tailFrom, until));
+    }
+
+    private Map<String, StockBalance> balancesOf(Optional<InventorySnapshot> snapshot, long upToMovementId) {
+        return balancesOf(snapshot, afterMovementId -> movementRepository.findBetween(afterMovementId, upToMovementId));
+    }
+
+    private Map<String, StockBalance> balancesOf(Optional<InventorySnapshot> snapshot,
+                                                 LongFunction<List<InventoryMovement>> movementsAfter) {
+        Map<String, StockBalance> balances = new HashMap<>();
+        snapshot.ifPresent(s -> snapshotItemRepository.findBalancesBySnapshotId(s.getId())
+                .forEach(balance -> balances.put(balance.getProductId(), balance)));
+        long afterMovementId = snapshot.map(InventorySnapshot::getLastMovementId).orElse(0L);
+        movementsAfter.apply(afterMovementId).forEach(movement -> apply(balances, movement));
+        return balances;
+    }
+
+    static void apply(Map<String, StockBalance> balances, InventoryMovement movement) {
+        if (movement.getType() == InventoryMovement.Type.DELETED) {
+            balances.remove(movement.getProductId());
+        } else {
+            balances.put(movement.getProductId(), new StockBalance(movement.getProductId(), movement.getCategoryName(),
+                    movement.getInStock(), movement.getUnitPrice()));
+        }
+    }
+
+    // Changes that leave stock, price and category alone, such as a rename, aren't movements
+    static InventoryMovement movementOf(ProductChangedEvent event, LocalDateTime occurredAt) {
+        Product before = event.before();
+        Product after = event.after();
+        if (before != null && after != null && before.getInStock() == after.getInStock()
+                && samePrice(before.getUnitPrice(), after.getUnitPrice())
+                && Objects.equals(categoryNameOf(before), categoryNameOf(after))) {
+            return null;
+        }
+        int previousStock = before == null ? 0 : before.getInStock();
+        InventoryMovement.Type type = InventoryMovement.Type.valueOf(event.type().name());
+        return after == null
+                ? movementOf(type, before, 0, -previousStock, occurredAt)
+                : movementOf(type, after, after.getInStock(), after.getInStock() - previousStock, occurredAt);
+    }
+
+    private static InventoryMovement movementOf(InventoryMovement.Type type, Product product, int inStock,
+                                                int quantityDelta, LocalDateTime occurredAt) {
+        return InventoryMovement.builder()
+                .productId(product.getId())
+                .categoryName(categoryNameOf(product))
+                .type(type)
+                .quantityDelta(quantityDelta)
+                .inStock(inStock)
+                .unitPrice(product.getUnitPrice())
+                .occurredAt(occurredAt)
+                .build();
+    }
+
+    private static String categoryNameOf(Product product) {
+        return product.getCategory() == null ? null : product.getCategory().getCategoryName();
+    }
+
+    private static boolean samePrice(BigDecimal first, BigDecimal second) {
+        return first == null ? second == null : second != null && first.compareTo(second) == 0;
+    }
+}
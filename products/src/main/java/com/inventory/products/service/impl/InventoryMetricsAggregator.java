@@ -0,0 +1,173 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.CategoryStockTotals;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Product;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.function.Supplier;
+
+@Component
+public class InventoryMetricsAggregator {
+
+    private static final int PRICE_SCALE = 2;
+
+    private final Map<String, CategoryStockTotals> totalsByCategory = new HashMap<>();
+    // Changes published in a transaction that hasn't completed yet, which a reload may or may not read
+    private final Set<ProductChangedEvent> changesInFlight = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Categories changed while the totals are being reloaded, whose loaded totals can't be told apart from the running ones
+    private Set<String> categoriesChangedDuringLoad;
+    private volatile boolean initialized;
+
+    // Runs in the publisher's transaction, if any, so a reload knows the change is yet to be applied
+    @EventListener
+    public void onProductChanging(ProductChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        synchronized (totalsByCategory) {
+            changesInFlight.add(event);
+            recordChangeDuringLoad(event);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (totalsByCategory) {
+                    changesInFlight.remove(event);
+                }
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (totalsByCategory) {
+            apply(event.before(), -1);
+            apply(event.after(), 1);
+            recordChangeDuringLoad(event);
+        }
+    }
+
+    public List<CategoryStockTotals> snapshot() {
+        synchronized (totalsByCategory) {
+            return totalsByCategory.values().stream()
+                    .map(totals -> totals.toBuilder().build())
+                    .toList();
+        }
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * Loads the persisted totals while the running ones keep serving reads and changes, then
+     * replaces the running totals of every category whose changes were all settled during the load,
+     * returning those that had drifted. The totals are deltas, so a change that committed around
+     * the load can't be replayed without maybe counting it twice: the categories it touches, or
+     * one still in flight when the load started, keep their running totals until a later reload.
+     * Until one reload finds nothing in flight the running totals aren't trusted at all.
+     */
+    public List<String> reconcile(Supplier<List<CategoryStockTotals>> loadPersistedTotals) {
+        synchronized (totalsByCategory) {
+            categoriesChangedDuringLoad = new HashSet<>();
+            changesInFlight.forEach(this::recordChangeDuringLoad);
+        }
+
+        Map<String, CategoryStockTotals> loaded = new HashMap<>();
+        try {
+            loadPersistedTotals.get().forEach(totals -> loaded.put(totals.getCategoryName(), totals.toBuilder().build()));
+        } catch (RuntimeException e) {
+            synchronized (totalsByCategory) {
+                categoriesChangedDuringLoad = null;
+            }
+            throw e;
+        }
+
+        List<String> driftedCategories = new ArrayList<>();
+        synchronized (totalsByCategory) {
+            Set<String> changedCategories = categoriesChangedDuringLoad;
+            categoriesChangedDuringLoad = null;
+            if (!initialized && !changedCategories.isEmpty()) {
+                return driftedCategories;
+            }
+            Set<String> categoryNames = new TreeSet<>(totalsByCategory.keySet());
+            categoryNames.addAll(loaded.keySet());
+            categoryNames.removeAll(changedCategories);
+            for (String categoryName : categoryNames) {
+                if (!sameTotals(totalsByCategory.get(categoryName), loaded.get(categoryName))) {
+                    driftedCategories.add(categoryName);
+                }
+                if (loaded.containsKey(categoryName)) {
+                    totalsByCategory.put(categoryName, loaded.get(categoryName));
+                } else {
+                    totalsByCategory.remove(categoryName);
+                }
+            }
+            initialized = true;
+        }
+        return driftedCategories;
+    }
+
+    private void recordChangeDuringLoad(ProductChangedEvent event) {
+        if (categoriesChangedDuringLoad == null) {
+            return;
+        }
+        for (Product product : Arrays.asList(event.before(), event.after())) {
+            if (product != null && product.getCategory() != null) {
+                categoriesChangedDuringLoad.add(product.getCategory().getCategoryName());
+            }
+        }
+    }
+
+    private void apply(Product product, int sign) {
+        if (product == null || product.getInStock() <= 0 || product.getCategory() == null) {
+            return;
+        }
+        String categoryName = product.getCategory().getCategoryName();
+        BigDecimal unitPrice = product.getUnitPrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+        BigDecimal value = unitPrice.multiply(BigDecimal.valueOf(product.getInStock()));
+
+        CategoryStockTotals totals = totalsByCategory.computeIfAbsent(categoryName, name -> CategoryStockTotals.builder()
+                .categoryName(name)
+                .totalUnitsInStock(0L)
+                .totalValueInStock(BigDecimal.ZERO)
+                .sumOfUnitPrices(BigDecimal.ZERO)
+                .productsInStock(0L)
+                .build());
+
+        totals.setTotalUnitsInStock(totals.getTotalUnitsInStock() + (long) sign * product.getInStock());
+        totals.setProductsInStock(totals.getProductsInStock() + sign);
+        if (sign > 0) {
+            totals.setTotalValueInStock(totals.getTotalValueInStock().add(value));
+            totals.setSumOfUnitPrices(totals.getSumOfUnitPrices().add(unitPrice));
+        } else {
+            totals.setTotalValueInStock(totals.getTotalValueInStock().subtract(value));
+            totals.setSumOfUnitPrices(totals.getSumOfUnitPrices().subtract(unitPrice));
+        }
+
+        // Concurrent writers can commit, and so deliver their events, out of order; the totals
+        // only go away once every pending delta has been applied
+        if (totals.getProductsInStock() == 0 && totals.getTotalUnitsInStock() == 0
+                && totals.getTotalValueInStock().signum() == 0 && totals.getSumOfUnitPrices().signum() == 0) {
+            totalsByCategory.remove(categoryName);
+        }
+    }
+
+    private boolean sameTotals(CategoryStockTotals current, CategoryStockTotals persisted) {
+        if (current == null || persisted == null) {
+            return current == persisted;
+        }
+        return Objects.equals(current.getTotalUnitsInStock(), persisted.getTotalUnitsInStock())
+                && Objects.equals(current.getProductsInStock(), persisted.getProductsInStock())
+                && current.getTotalValueInStock().compareTo(persisted.getTotalValueInStock()) == 0
+                && current.getSumOfUnitPrices().compareTo(persisted.getSumOfUnitPrices()) == 0;
+    }
+}
@@ -0,0 +1,177 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.CategoryStockTotals;
+import com.inventory.products.dto.InventoryMetricsHistoryPoint;
+import com.inventory.products.dto.MetricsBucketTotals;
+import com.inventory.products.model.InventoryMetricsPoint;
+import com.inventory.products.model.InventoryMetricsPoint.Resolution;
+import com.inventory.products.repository.InventoryMetricsPointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Samples the running inventory metrics into minute points, rolls complete minutes up into hour
+ * points and complete hours into day points, and drops each resolution after its retention. Trend
+ * queries read these points instead of recomputing metrics.
+ */
+@Slf4j
+@Component
+public class InventoryMetricsHistory {
+    private static final int PRICE_SCALE = 2;
+
+    private final InventoryMetricsPointRepository pointRepository;
+    private final InventoryMetricsAggregator metricsAggregator;
+    private final Map<Resolution, Duration> retentions = new EnumMap<>(Resolution.class);
+
+    @Autowired
+    public InventoryMetricsHistory(
+            InventoryMetricsPointRepository pointRepository,
+            InventoryMetricsAggregator metricsAggregator,
+            @Value("${inventory.metrics.history.minute-retention-days:1}") int minuteRetentionDays,
+            @Value("${inventory.metrics.history.hour-retention-days:35}") int hourRetentionDays,
+            @Value("${inventory.metrics.history.day-retention-days:730}") int dayRetentionDays
+    ){
+        this.pointRepository = pointRepository;
+        this.metricsAggregator = metricsAggregator;
+        retentions.put(Resolution.MINUTE, Duration.ofDays(minuteRetentionDays));
+        retentions.put(Resolution.HOUR, Duration.ofDays(hourRetentionDays));
+        retentions.put(Resolution.DAY, Duration.ofDays(dayRetentionDays));
+    }
+
+    @Scheduled(fixedRateString = "${inventory.metrics.history.sample-interval-ms:60000}")
+    public void sample() {
+        if (metricsAggregator.isInitialized()) {
+            record(metricsAggregator.snapshot(), LocalDateTime.now());
+        }
+    }
+
+    // One point per category and one for the whole inventory
+    @Transactional
+    public void record(List<CategoryStockTotals> totalsByCategory, LocalDateTime sampledAt) {
+        LocalDateTime bucketStart = Resolution.MINUTE.bucketOf(sampledAt);
+        List<InventoryMetricsPoint> points = new ArrayList<>();
+        InventoryMetricsPoint overall = pointOf(Resolution.MINUTE, bucketStart, (String) null);
+        for (CategoryStockTotals totals : totalsByCategory) {
+            InventoryMetricsPoint point = pointOf(Resolution.MINUTE, bucketStart, totals.getCategoryName());
+            point.setUnitsInStock(totals.getTotalUnitsInStock());
+            point.setValueInStock(totals.getTotalValueInStock());
+            point.setProductsInStock(totals.getProductsInStock());
+            point.setSumOfUnitPrices(totals.getSumOfUnitPrices());
+            points.add(point);
+
+            overall.setUnitsInStock(overall.getUnitsInStock() + totals.getTotalUnitsInStock());
+            overall.setValueInStock(overall.getValueInStock().add(totals.getTotalValueInStock()));
+            overall.setProductsInStock(overall.getProductsInStock() + totals.getProductsInStock());
+            overall.setSumOfUnitPrices(overall.getSumOfUnitPrices().add(totals.getSumOfUnitPrices()));
+        }
+        points.add(overall);
+        pointRepository.saveAll(points);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.metrics.history.rollup-interval-ms:300000}",
+            initialDelayString = "${inventory.metrics.history.rollup-interval-ms:300000}")
+    @Transactional
+    public void rollUpAndExpire() {
+        LocalDateTime now = LocalDateTime.now();
+        int hours = rollUp(Resolution.MINUTE, Resolution.HOUR, now);
+        int days = rollUp(Resolution.HOUR, Resolution.DAY, now);
+        int expired = 0;
+        for (Map.Entry<Resolution, Duration> retention : retentions.entrySet()) {
+            expired += pointRepository.deleteOlderThan(retention.getKey(), now.minus(retention.getValue()));
+        }
+        if (hours > 0 || days > 0 || expired > 0) {
+            log.info("Inventory metrics history rolled up {} hours and {} days, {} expired points dropped",
+                    hours, days, expired);
+        }
+    }
+
+    /**
+     * Sums the points of every complete {@code target} bucket not rolled up yet into one point per
+     * category. Buckets without source points, such as while the application was down, are skipped
+     * rather than walked one by one.
+     */
+    int rollUp(Resolution source, Resolution target, LocalDateTime now) {
+        LocalDateTime end = target.bucketOf(now);
+        LocalDateTime lastRolledUp = pointRepository.findLastBucketStart(target);
+        LocalDateTime from = lastRolledUp == null ? LocalDate.EPOCH.atStartOfDay() : target.nextBucket(lastRolledUp);
+        int buckets = 0;
+        LocalDateTime next;
+        while ((next = pointRepository.findFirstBucketStart(source, from, end)) != null) {
+            LocalDateTime bucketStart = target.bucketOf(next);
+            LocalDateTime bucketEnd = target.nextBucket(bucketStart);
+            List<MetricsBucketTotals> sums = pointRepository.sumByCategory(source, bucketStart, bucketEnd);
+            // A sample has no point for a category with nothing in stock, so each category averages over the
+            // samples of the whole inventory, which has a point in every one, and its missing samples count as zero
+            long samples = sums.stream().mapToLong(MetricsBucketTotals::getSamples).max().orElse(0);
+            pointRepository.saveAll(sums.stream()
+                    .map(totals -> pointOf(target, bucketStart, totals, samples))
+                    .toList());
+            from = bucketEnd;
+            buckets++;
+        }
+        return buckets;
+    }
+
+    public Duration retentionOf(Resolution resolution) {
+        return retentions.get(resolution);
+    }
+
+    @Transactional(readOnly = true)
+    public List<InventoryMetricsHistoryPoint> getHistory(String categoryName, Resolution resolution,
+                                                         LocalDateTime from, LocalDateTime to) {
+        return pointRepository.findSeries(resolution, categoryName, resolution.bucketOf(from), to).stream()
+                .map(InventoryMetricsHistory::historyPointOf)
+                .toList();
+    }
+
+    private static InventoryMetricsHistoryPoint historyPointOf(MetricsBucketTotals totals) {
+        BigDecimal samples = BigDecimal.valueOf(totals.getSamples());
+        return InventoryMetricsHistoryPoint.builder()
+                .time(totals.getBucketStart())
+                .totalProductsInStock(Math.round((double) totals.getUnitsInStock() / totals.getSamples()))
+                .totalValueInStock(totals.getValueInStock().divide(samples, PRICE_SCALE, RoundingMode.HALF_UP))
+                .averagePriceInStock(totals.getProductsInStock() == 0 ? BigDecimal.ZERO
+                        : totals.getSumOfUnitPrices().divide(BigDecimal.valueOf(totals.getProductsInStock()),
+                        PRICE_SCALE, RoundingMode.HALF_UP))
+                .build();
+    }
+
+    private static InventoryMetricsPoint pointOf(Resolution resolution, LocalDateTime bucketStart, String categoryName) {
+        return InventoryMetricsPoint.builder()
+                .resolution(resolution)
+                .bucketStart(bucketStart)
+                .categoryName(categoryName)
+                .samples(1)
+                .valueInStock(BigDecimal.ZERO)
+                .sumOfUnitPrices(BigDecimal.ZERO)
+                .build();
+    }
+
+    private static InventoryMetricsPoint pointOf(Resolution resolution, LocalDateTime bucketStart,
+                                                 MetricsBucketTotals totals, long samples) {
+        return InventoryMetricsPoint.builder()
+                .resolution(resolution)
+                .bucketStart(bucketStart)
+                .categoryName(totals.getCategoryName())
+                .samples((int) samples)
+                .unitsInStock(totals.getUnitsInStock())
+                .valueInStock(totals.getValueInStock())
+                .productsInStock(totals.getProductsInStock())
+                .sumOfUnitPrices(totals.getSumOfUnitPrices())
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+public class InventoryMetricsReconciler {
+    private final ProductRepository productRepository;
+    private final InventoryMetricsAggregator metricsAggregator;
+
+    @Autowired
+    public InventoryMetricsReconciler(
+            ProductRepository productRepository,
+            InventoryMetricsAggregator metricsAggregator
+    ){
+        this.productRepository = productRepository;
+        this.metricsAggregator = metricsAggregator;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        metricsAggregator.reconcile(productRepository::findInStockTotalsByCategory);
+        if (metricsAggregator.isInitialized()) {
+            log.info("Inventory metrics initialized from the product table");
+        } else {
+            log.info("Inventory metrics initialization deferred, products were being written during the load");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.metrics.reconcile-interval-ms:600000}",
+            initialDelayString = "${inventory.metrics.reconcile-interval-ms:600000}")
+    public List<String> reconcile() {
+        List<String> driftedCategories = metricsAggregator.reconcile(productRepository::findInStockTotalsByCategory);
+        if (driftedCategories.isEmpty()) {
+            log.info("Inventory metrics reconciled without drift");
+        } else {
+            log.warn("Inventory metrics drifted for categories {}, totals rebuilt from the product table", driftedCategories);
+        }
+        return driftedCategories;
+    }
+}
@@ -0,0 +1,187 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.BulkItemResult;
+import com.inventory.products.dto.BulkOperationResult;
+import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.dto.ProductName;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.CategoryRepository;
+import com.inventory.products.repository.ProductRepository;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.inventory.products.dto.BulkItemResult.Status.*;
+
+/**
+ * Writes lists of products in chunks. Categories come from the category cache, and each chunk
+ * resolves its name conflicts and products to update with one query each, and is written in its own transaction so Hibernate
+ * can send the inserts and updates as JDBC batches.
+ */
+@Slf4j
+@Component
+public class ProductBatchWriter {
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    @Autowired
+    public ProductBatchWriter(
+            ProductRepository productRepository,
+            CategoryRepository categoryRepository,
+            CategoryCache categoryCache,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${inventory.bulk.chunk-size:500}") int chunkSize
+    ){
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.categoryCache = categoryCache;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkOperationResult upsert(List<ProductInfo> productInfos) {
+        if (productInfos == null) {
+            throw new IllegalArgumentException("Product list cannot be null");
+        }
+        List<BulkItemResult> results = new ArrayList<>(productInfos.size());
+        for (int from = 0; from < productInfos.size(); from += chunkSize) {
+            List<ProductInfo> chunk = productInfos.subList(from, Math.min(from + chunkSize, productInfos.size()));
+            results.addAll(writeChunk(chunk, from, false));
+        }
+        int failed = (int) results.stream().filter(result -> result.getStatus() == FAILED).count();
+        return BulkOperationResult.builder()
+                .succeeded(results.size() - failed)
+                .failed(failed)
+                .items(results)
+                .build();
+    }
+
+    // With matchExistingByName, an item without id updates the product that already has its name
+    public List<BulkItemResult> writeChunk(List<ProductInfo> chunk, int firstIndex, boolean matchExistingByName) {
+        BulkItemResult[] results = new BulkItemResult[chunk.size()];
+        Map<Integer, ProductInfo> validItems = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                ProductServiceImpl.validateProductInfo(chunk.get(i));
+                validItems.put(i, chunk.get(i));
+            } catch (IllegalArgumentException e) {
+                results[i] = failure(firstIndex + i, chunk.get(i), e.getMessage());
+            }
+        }
+
+        if (!validItems.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeValidItems(validItems, firstIndex, matchExistingByName, results));
+            } catch (DataAccessException | PersistenceException e) {
+                log.error("Bulk write of items {} to {} failed", firstIndex, firstIndex + chunk.size() - 1, e);
+                validItems.keySet().forEach(i ->
+                        results[i] = failure(firstIndex + i, chunk.get(i), "Batch write failed: " + e.getMessage()));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void writeValidItems(Map<Integer, ProductInfo> validItems, int firstIndex, boolean matchExistingByName,
+                                 BulkItemResult[] results) {
+        Collection<ProductInfo> items = validItems.values();
+        Map<String, String> idsByNameKey = productRepository.findNamesIn(
+                        items.stream().map(ProductInfo::getName).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(productName -> Product.nameKeyOf(productName.getName()), ProductName::getId,
+                        (first, second) -> first));
+        Set<String> idsToLoad = items.stream()
+                .map(productInfo -> productInfo.getId() != null || !matchExistingByName
+                        ? productInfo.getId()
+                        : idsByNameKey.get(Product.nameKeyOf(productInfo.getName())))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Product> productsById = productRepository.findAllById(idsToLoad).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        LocalDate today = LocalDate.now();
+        List<Product> newProducts = new ArrayList<>();
+        List<ProductChangedEvent> events = new ArrayList<>();
+
+        validItems.forEach((i, productInfo) -> {
+            int index = firstIndex + i;
+            Category category = categoryCache.find(productInfo.getCategoryName()).orElse(null);
+            if (category == null) {
+                results[i] = failure(index, productInfo, "Category does not exist: " + productInfo.getCategoryName());
+                return;
+            }
+            String nameOwner = idsByNameKey.get(Product.nameKeyOf(productInfo.getName()));
+            String id = productInfo.getId() == null && matchExistingByName ? nameOwner : productInfo.getId();
+            if (nameOwner != null && !nameOwner.equals(id)) {
+                results[i] = failure(index, productInfo, "Product with name " + productInfo.getName() + " already exists");
+                return;
+            }
+
+            if (id == null) {
+                Product product = Product.builder()
+                        .id(UUID.randomUUID().toString())
+                        .name(productInfo.getName())
+                        .category(categoryRepository.getReferenceById(category.getCategoryName()))
+                        .unitPrice(productInfo.getUnitPrice())
+                        .expirationDate(productInfo.getExpirationDate())
+                        .inStock(productInfo.getInStock())
+                        .build();
+                newProducts.add(product);
+                productsById.put(product.getId(), product);
+                idsByNameKey.put(Product.nameKeyOf(product.getName()), product.getId());
+                results[i] = new BulkItemResult(index, product.getId(), CREATED, null);
+                return;
+            }
+
+            Product product = productsById.get(id);
+            if (product == null) {
+                results[i] = failure(index, productInfo, "Product not found with ID: " + id);
+                return;
+            }
+            Product before = snapshotOf(product);
+            idsByNameKey.remove(Product.nameKeyOf(product.getName()));
+            product.setName(productInfo.getName());
+            product.setCategory(categoryRepository.getReferenceById(category.getCategoryName()));
+            product.setUnitPrice(productInfo.getUnitPrice());
+            product.setExpirationDate(productInfo.getExpirationDate());
+            product.setInStock(productInfo.getInStock());
+            product.setUpdatedAt(today);
+            idsByNameKey.put(Product.nameKeyOf(product.getName()), id);
+            events.add(ProductChangedEvent.updated(before, snapshotOf(product)));
+            results[i] = new BulkItemResult(index, id, UPDATED, null);
+        });
+
+        // Created events are taken after the insert, which stamps the creation date
+        productRepository.insertAndFlush(newProducts);
+        newProducts.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.created(snapshotOf(product))));
+        events.forEach(eventPublisher::publishEvent);
+    }
+
+    // Events outlive the transaction, so they carry plain categories instead of references
+    private static Product snapshotOf(Product product) {
+        Category category = product.getCategory();
+        return product.toBuilder()
+                .category(category == null ? null : Category.builder().categoryName(category.getCategoryName()).build())
+                .build();
+    }
+
+    private BulkItemResult failure(int index, ProductInfo productInfo, String message) {
+        return new BulkItemResult(index, productInfo == null ? null : productInfo.getId(), FAILED, message);
+    }
+}
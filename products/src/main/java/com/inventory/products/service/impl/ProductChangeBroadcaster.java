@@ -0,0 +1,185 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.CategoryStockDelta;
+import com.inventory.products.dto.ProductChangeNotification;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Product;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed product changes to Server-Sent Events subscribers. The committing thread only
+ * appends to each subscriber's bounded buffer, dropping the oldest notification when it is full,
+ * and sending happens on a virtual thread per subscriber, so a slow client only holds up itself.
+ * A subscriber that lost notifications gets a resync event telling it how many, before the rest.
+ */
+@Slf4j
+@Component
+public class ProductChangeBroadcaster {
+    static final String CHANGE_EVENT = "product-changed";
+    static final String RESYNC_EVENT = "resync";
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final Executor senders;
+
+    @Autowired
+    public ProductChangeBroadcaster(
+            @Value("${inventory.stream.buffer-size:256}") int bufferSize,
+            @Value("${inventory.stream.timeout-ms:1800000}") long timeoutMs
+    ){
+        this(bufferSize, timeoutMs, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    ProductChangeBroadcaster(int bufferSize, long timeoutMs, Executor senders) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.senders = senders;
+    }
+
+    public SseEmitter subscribe() {
+        return register(new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter register(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        ProductChangeNotification notification = notificationOf(event);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(notification);
+            if (subscriber.draining.compareAndSet(false, true)) {
+                senders.execute(subscriber::drain);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        if (senders instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    static ProductChangeNotification notificationOf(ProductChangedEvent event) {
+        Product product = event.after() != null ? event.after() : event.before();
+        return ProductChangeNotification.builder()
+                .type(event.type())
+                .productId(product.getId())
+                .product(event.after())
+                .metricsDelta(metricsDeltaOf(event.before(), event.after()))
+                .build();
+    }
+
+    // Per category, what the write added to or removed from the units and value in stock
+    static List<CategoryStockDelta> metricsDeltaOf(Product before, Product after) {
+        Map<String, CategoryStockDelta> deltas = new TreeMap<>();
+        addStock(deltas, before, -1);
+        addStock(deltas, after, 1);
+        return deltas.values().stream()
+                .filter(delta -> delta.getUnitsInStock() != 0 || delta.getValueInStock().signum() != 0)
+                .toList();
+    }
+
+    private static void addStock(Map<String, CategoryStockDelta> deltas, Product product, int sign) {
+        if (product == null || product.getCategory() == null || product.getInStock() <= 0) {
+            return;
+        }
+        CategoryStockDelta delta = deltas.computeIfAbsent(product.getCategory().getCategoryName(),
+                categoryName -> new CategoryStockDelta(categoryName, 0, BigDecimal.ZERO));
+        BigDecimal unitPrice = product.getUnitPrice() == null ? BigDecimal.ZERO : product.getUnitPrice();
+        delta.setUnitsInStock(delta.getUnitsInStock() + (long) sign * product.getInStock());
+        delta.setValueInStock(delta.getValueInStock().add(
+                unitPrice.multiply(BigDecimal.valueOf((long) sign * product.getInStock()))));
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Deque<ProductChangeNotification> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private long dropped;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private synchronized void offer(ProductChangeNotification notification) {
+            if (buffer.size() >= bufferSize) {
+                buffer.pollFirst();
+                dropped++;
+            }
+            buffer.addLast(notification);
+        }
+
+        // Takes one notification at a time, so those still waiting stay subject to dropping the oldest
+        private void drain() {
+            try {
+                do {
+                    while (true) {
+                        long droppedNow;
+                        ProductChangeNotification notification;
+                        synchronized (this) {
+                            droppedNow = dropped;
+                            dropped = 0;
+                            notification = buffer.pollFirst();
+                        }
+                        if (droppedNow > 0) {
+                            emitter.send(SseEmitter.event().name(RESYNC_EVENT).data(droppedNow));
+                        }
+                        if (notification == null) {
+                            break;
+                        }
+                        emitter.send(SseEmitter.event().name(CHANGE_EVENT).data(notification, MediaType.APPLICATION_JSON));
+                    }
+                    draining.set(false);
+                    // A notification offered after the buffer was emptied but before the flag was
+                    // cleared found the flag still set, so it is picked up here
+                } while (hasPending() && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping product change subscriber: {}", e.getMessage());
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+
+        private synchronized boolean hasPending() {
+            return !buffer.isEmpty() || dropped > 0;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.ProductChanges;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Product;
+import com.inventory.products.model.ProductChange;
+import com.inventory.products.model.ProductChangeCompaction;
+import com.inventory.products.repository.ProductChangeCompactionRepository;
+import com.inventory.products.repository.ProductChangeRepository;
+import com.inventory.products.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Numbers every product write in a monotonic change sequence, so clients holding a cached product
+ * list catch up with the upserts and delete tombstones since the last number they saw. Each change
+ * is recorded in the transaction that writes the product. Compaction keeps only the latest change
+ * of each product and drops tombstones after their retention; clients further behind reload.
+ */
+@Slf4j
+@Component
+public class ProductChangeLog {
+    private final ProductChangeRepository changeRepository;
+    private final ProductChangeCompactionRepository compactionRepository;
+    private final ProductRepository productRepository;
+    private final Duration tombstoneRetention;
+    private final CommitWatermark committedChanges = new CommitWatermark();
+
+    @Autowired
+    public ProductChangeLog(
+            ProductChangeRepository changeRepository,
+            ProductChangeCompactionRepository compactionRepository,
+            ProductRepository productRepository,
+            @Value("${inventory.changes.tombstone-retention-days:30}") int tombstoneRetentionDays
+    ){
+        this.changeRepository = changeRepository;
+        this.compactionRepository = compactionRepository;
+        this.productRepository = productRepository;
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+    }
+
+    // Products written before the change sequence existed start it with one change each
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (changeRepository.count() > 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductChange> changes = productRepository.findAll().stream()
+                .map(product -> changeOf(product.getId(), false, now))
+                .toList();
+        changeRepository.saveAll(changes);
+        log.info("Product change sequence started with {} products", changes.size());
+    }
+
+    // Runs in the publisher's transaction, if any, so a change is only numbered when it commits
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.after() != null ? event.after() : event.before();
+        committedChanges.record(() -> changeRepository.save(changeOf(product.getId(), event.after() == null,
+                LocalDateTime.now())), ProductChange::getId);
+    }
+
+    /**
+     * Latest change of each product written after {@code since}, oldest first, at most
+     * {@code limit} of them. A change whose transaction is still open may hold a lower number than
+     * one already committed, so the batch stops below the oldest open change rather than let the
+     * client skip over it.
+     */
+    @Transactional(readOnly = true)
+    public ProductChanges getChangesSince(long since, int limit) {
+        long purgedThroughId = compactionRepository.findFirstByOrderByPurgedThroughIdDesc()
+                .map(ProductChangeCompaction::getPurgedThroughId)
+                .orElse(0L);
+        boolean resync = since < purgedThroughId;
+        long committedUpTo = committedChanges.committedUpTo(
+                () -> Objects.requireNonNullElse(changeRepository.findLastId(), 0L)).lastId();
+        List<ProductChange> changes = changeRepository.findLatestAfter(resync ? 0 : since, committedUpTo,
+                Limit.of(limit + 1));
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+
+        Map<String, Product> products = productRepository.findAllById(changes.stream()
+                        .filter(change -> !change.isDeleted())
+                        .map(ProductChange::getProductId)
+                        .toList()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ProductChanges.builder()
+                // A product missing here was deleted since, and its tombstone comes in a later batch
+                .upserts(changes.stream()
+                        .filter(change -> !change.isDeleted())
+                        .map(change -> products.get(change.getProductId()))
+                        .filter(Objects::nonNull)
+                        .toList())
+                .deletedIds(changes.stream()
+                        .filter(ProductChange::isDeleted)
+                        .map(ProductChange::getProductId)
+                        .toList())
+                .nextSince(changes.isEmpty() ? Math.max(since, purgedThroughId) : changes.getLast().getId())
+                .hasMore(hasMore)
+                .resync(resync)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.changes.compaction-interval-ms:3600000}",
+            initialDelayString = "${inventory.changes.compaction-interval-ms:3600000}")
+    @Transactional
+    public void compact() {
+        compact(LocalDateTime.now());
+    }
+
+    // Superseded changes are never sent, so dropping them loses nothing; dropping tombstones does
+    @Transactional
+    public void compact(LocalDateTime now) {
+        int superseded = changeRepository.deleteSuperseded();
+        Long lastTombstoneId = changeRepository.findLastTombstoneIdBefore(now.minus(tombstoneRetention));
+        int tombstones = 0;
+        if (lastTombstoneId != null) {
+            tombstones = changeRepository.deleteTombstonesUpTo(lastTombstoneId);
+            compactionRepository.save(ProductChangeCompaction.builder()
+                    .compactedAt(now)
+                    .purgedThroughId(lastTombstoneId)
+                    .build());
+        }
+        if (superseded > 0 || tombstones > 0) {
+            log.info("Product change sequence compacted: {} superseded changes and {} tombstones dropped",
+                    superseded, tombstones);
+        }
+    }
+
+    private static ProductChange changeOf(String productId, boolean deleted, LocalDateTime changedAt) {
+        return ProductChange.builder()
+                .productId(productId)
+                .deleted(deleted)
+                .changedAt(changedAt)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.ProductFilter;
+import com.inventory.products.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * Remembers the total of each search filter, so paging through the same filter runs its COUNT
+ * once. Every committed product change drops all totals, since any of them may have moved.
+ */
+@Component
+public class ProductCountCache {
+    private final Map<ProductFilter, Long> totalsByFilter = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxEntries;
+
+    @Autowired
+    public ProductCountCache(@Value("${inventory.search.count-cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long count(ProductFilter filter, LongSupplier counter) {
+        ProductFilter key = keyOf(filter);
+        Long cached = totalsByFilter.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        // A count that overlaps an invalidation may have seen the old rows, so it's only kept
+        // when no invalidation happened meanwhile
+        long countedGeneration = generation.get();
+        long total = counter.getAsLong();
+        synchronized (generation) {
+            if (generation.get() == countedGeneration) {
+                if (totalsByFilter.size() >= maxEntries) {
+                    totalsByFilter.clear();
+                }
+                totalsByFilter.put(key, total);
+            }
+        }
+        return total;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        synchronized (generation) {
+            generation.incrementAndGet();
+            totalsByFilter.clear();
+        }
+    }
+
+    // The name is matched case-insensitively, categories as a set and prices by value, and candidate ids follow
+    // from the rest of the filter
+    private static ProductFilter keyOf(ProductFilter filter) {
+        List<String> categoryNames = filter.getCategoryNames() == null ? null
+                : filter.getCategoryNames().stream().distinct().sorted().toList();
+        return ProductFilter.builder()
+                .name(hasText(filter.getName()) ? filter.getName().toLowerCase(Locale.ROOT) : null)
+                .categoryNames(categoryNames)
+                .available(filter.getAvailable())
+                .minPrice(filter.getMinPrice() == null ? null : filter.getMinPrice().stripTrailingZeros())
+                .maxPrice(filter.getMaxPrice() == null ? null : filter.getMaxPrice().stripTrailingZeros())
+                .expiringFrom(filter.getExpiringFrom())
+                .expiringUntil(filter.getExpiringUntil())
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+final class ProductCsv {
+    static final List<String> COLUMNS = List.of("id", "name", "categoryName", "unitPrice", "expirationDate", "inStock");
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "categoryName", "unitPrice", "inStock");
+
+    private final Map<String, Integer> columnIndexes;
+
+    private ProductCsv(Map<String, Integer> columnIndexes) {
+        this.columnIndexes = columnIndexes;
+    }
+
+    static ProductCsv fromHeader(String headerLine) {
+        Map<String, Integer> columnIndexes = new HashMap<>();
+        List<String> header = parseLine(headerLine);
+        for (int i = 0; i < header.size(); i++) {
+            for (String known : COLUMNS) {
+                if (known.equalsIgnoreCase(header.get(i).trim())) {
+                    columnIndexes.putIfAbsent(known, i);
+                }
+            }
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columnIndexes.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing required column: " + required);
+            }
+        }
+        return new ProductCsv(columnIndexes);
+    }
+
+    ProductInfo toProductInfo(String line) {
+        List<String> values = parseLine(line);
+        String expirationDate = value(values, "expirationDate");
+        try {
+            return ProductInfo.builder()
+                    .id(value(values, "id"))
+                    .name(value(values, "name"))
+                    .categoryName(value(values, "categoryName"))
+                    .unitPrice(new BigDecimal(Objects.requireNonNullElse(value(values, "unitPrice"), "0")))
+                    .expirationDate(expirationDate == null ? null : LocalDate.parse(expirationDate))
+                    .inStock(Integer.parseInt(Objects.requireNonNullElse(value(values, "inStock"), "0")))
+                    .build();
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid value: " + e.getMessage());
+        }
+    }
+
+    private String value(List<String> values, String column) {
+        Integer index = columnIndexes.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    static String header() {
+        return String.join(",", COLUMNS);
+    }
+
+    static String toLine(Product product) {
+        return formatLine(Arrays.asList(
+                product.getId(),
+                product.getName(),
+                product.getCategory() == null ? null : product.getCategory().getCategoryName(),
+                product.getUnitPrice() == null ? null : product.getUnitPrice().toPlainString(),
+                product.getExpirationDate(),
+                product.getInStock()));
+    }
+
+    // Whether the record ends inside a quoted value; escaped quotes come in pairs, so an odd count means it does
+    static boolean isOpenRecord(String record) {
+        int quotes = 0;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 != 0;
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    static String formatLine(List<?> values) {
+        StringJoiner line = new StringJoiner(",");
+        for (Object value : values) {
+            String text = value == null ? "" : value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                text = '"' + text.replace("\"", "\"\"") + '"';
+            }
+            line.add(text);
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package com.inventory.products.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.products.dto.ProductKeyset;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class ProductCursorCodec {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ProductCursorCodec() {
+    }
+
+    // A product without a value for the sort property carries a null value, which sorts after every other one
+    static String encode(ProductKeyset keyset) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("sort", keyset.getSortProperty());
+        fields.put("direction", keyset.getDirection().name());
+        fields.put("value", keyset.getLastValue() == null ? null : keyset.getLastValue().toString());
+        fields.put("id", keyset.getLastId());
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(fields));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to encode cursor", e);
+        }
+    }
+
+    static ProductKeyset decode(String cursor, Sort.Order order) {
+        Map<String, String> fields;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII));
+            fields = MAPPER.readValue(json, MAPPER.getTypeFactory().constructMapType(Map.class, String.class, String.class));
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (fields.get("id") == null || !fields.containsKey("value")
+                || !order.getProperty().equals(fields.get("sort"))
+                || !order.getDirection().name().equals(fields.get("direction"))) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort: " + order);
+        }
+        return ProductKeyset.builder()
+                .sortProperty(order.getProperty())
+                .direction(order.getDirection())
+                .lastValue(parseValue(order.getProperty(), fields.get("value")))
+                .lastId(fields.get("id"))
+                .build();
+    }
+
+    private static Object parseValue(String sortProperty, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return switch (sortProperty) {
+                case "unitPrice" -> new BigDecimal(value);
+                case "expirationDate" -> LocalDate.parse(value);
+                default -> value;
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor value: " + value);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.inventory.products.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.products.dto.ProductFileFormat;
+import com.inventory.products.dto.ProductFilter;
+import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every product matching a filter to an output stream. Products are read through a
+ * database cursor and written as they arrive, so the export runs in constant memory and the
+ * first rows are sent before the query has been fully read.
+ */
+@Component
+public class ProductExporter {
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    @Autowired
+    public ProductExporter(
+            ProductRepository productRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.export.fetch-size:1000}") int fetchSize
+    ){
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    // Returns the number of products written
+    public long export(ProductFilter filter, ProductFileFormat format, OutputStream output) {
+        return readOnlyTransaction.execute(status -> {
+            try (Stream<Product> products = productRepository.streamByFilter(filter, fetchSize)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+                if (format == ProductFileFormat.CSV) {
+                    writer.write(ProductCsv.header());
+                    writer.write('\n');
+                }
+                long rows = 0;
+                for (Iterator<Product> iterator = products.iterator(); iterator.hasNext(); ) {
+                    writer.write(toLine(iterator.next(), format));
+                    writer.write('\n');
+                    if (++rows % FLUSH_EVERY_ROWS == 1) {
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+                return rows;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private String toLine(Product product, ProductFileFormat format) throws IOException {
+        if (format == ProductFileFormat.CSV) {
+            return ProductCsv.toLine(product);
+        }
+        return objectMapper.writeValueAsString(ProductInfo.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .categoryName(product.getCategory() == null ? null : product.getCategory().getCategoryName())
+                .unitPrice(product.getUnitPrice())
+                .expirationDate(product.getExpirationDate())
+                .inStock(product.getInStock())
+                .build());
+    }
+}
@@ -0,0 +1,201 @@
+package com.inventory.products.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.products.dto.BulkItemResult;
+import com.inventory.products.dto.ProductFileFormat;
+import com.inventory.products.dto.ImportJob;
+import com.inventory.products.dto.ImportRowError;
+import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.exception.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Imports products from a CSV or NDJSON stream. Rows are read one record at a time and handed to the
+ * batch writer one chunk at a time, so memory use depends on the chunk size and not on the file size.
+ * Rows without an id update the product that already has their name.
+ */
+@Slf4j
+@Component
+public class ProductImporter {
+    private static final int MAX_RECORDED_ERRORS = 100;
+    private static final int MAX_FINISHED_JOBS = 100;
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private final ProductBatchWriter batchWriter;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProductImporter(
+            ProductBatchWriter batchWriter,
+            ObjectMapper objectMapper,
+            @Value("${inventory.bulk.chunk-size:500}") int chunkSize
+    ){
+        this.batchWriter = batchWriter;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportJob importProducts(InputStream input, ProductFileFormat format) {
+        ImportJob job = ImportJob.builder()
+                .id(UUID.randomUUID().toString())
+                .format(format)
+                .status(ImportJob.Status.RUNNING)
+                .startedAt(Instant.now())
+                .errors(new ArrayList<>())
+                .build();
+        jobs.put(job.getId(), job);
+        evictFinishedJobs();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            readRows(reader, format, job);
+            finish(job, ImportJob.Status.COMPLETED, null);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Import {} failed: {}", job.getId(), e.getMessage());
+            finish(job, ImportJob.Status.FAILED, e.getMessage());
+        }
+        return snapshot(job);
+    }
+
+    public ImportJob getJob(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("Import job not found with ID: " + id);
+        }
+        return snapshot(job);
+    }
+
+    public List<ImportJob> getJobs() {
+        return jobs.values().stream()
+                .map(this::snapshot)
+                .sorted(Comparator.comparing(ImportJob::getStartedAt).reversed())
+                .toList();
+    }
+
+    private void readRows(BufferedReader reader, ProductFileFormat format, ImportJob job) throws IOException {
+        ProductCsv csv = null;
+        List<ProductInfo> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            long recordLineNumber = lineNumber;
+            boolean open = format == ProductFileFormat.CSV && ProductCsv.isOpenRecord(line);
+            if (open) {
+                // A quoted value may hold line breaks, so the record goes on until its quotes are closed or
+                // it outgrows the cap. Each further line closes or reopens it when it holds an odd number of quotes.
+                StringBuilder record = new StringBuilder(line);
+                String next;
+                while (open && record.length() <= MAX_RECORD_LENGTH && (next = reader.readLine()) != null) {
+                    lineNumber++;
+                    record.append('\n').append(next);
+                    open = open != ProductCsv.isOpenRecord(next);
+                }
+                line = record.toString();
+            }
+            if (format == ProductFileFormat.CSV && csv == null) {
+                csv = ProductCsv.fromHeader(line);
+                continue;
+            }
+            synchronized (job) {
+                job.setRowsRead(job.getRowsRead() + 1);
+            }
+            if (open && line.length() > MAX_RECORD_LENGTH) {
+                recordFailure(job, recordLineNumber, "Quoted value is not closed within " + MAX_RECORD_LENGTH + " characters");
+                continue;
+            }
+            try {
+                chunk.add(format == ProductFileFormat.CSV ? csv.toProductInfo(line) : parseJson(line));
+                chunkLines.add(recordLineNumber);
+            } catch (IllegalArgumentException e) {
+                recordFailure(job, recordLineNumber, e.getMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                writeChunk(job, chunk, chunkLines);
+            }
+        }
+        writeChunk(job, chunk, chunkLines);
+    }
+
+    private ProductInfo parseJson(String line) {
+        try {
+            ProductInfo productInfo = objectMapper.readValue(line, ProductInfo.class);
+            if (productInfo == null) {
+                throw new IllegalArgumentException("Row is not a JSON object");
+            }
+            return productInfo;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private void writeChunk(ImportJob job, List<ProductInfo> chunk, List<Long> chunkLines) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<BulkItemResult> results = batchWriter.writeChunk(chunk, 0, true);
+        for (BulkItemResult result : results) {
+            synchronized (job) {
+                switch (result.getStatus()) {
+                    case CREATED -> job.setCreated(job.getCreated() + 1);
+                    case UPDATED -> job.setUpdated(job.getUpdated() + 1);
+                    case FAILED -> recordFailure(job, chunkLines.get(result.getIndex()), result.getMessage());
+                }
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private void recordFailure(ImportJob job, long lineNumber, String message) {
+        synchronized (job) {
+            job.setFailed(job.getFailed() + 1);
+            if (job.getErrors().size() < MAX_RECORDED_ERRORS) {
+                job.getErrors().add(new ImportRowError(lineNumber, message));
+            }
+        }
+    }
+
+    private void finish(ImportJob job, ImportJob.Status status, String failureMessage) {
+        synchronized (job) {
+            job.setStatus(status);
+            job.setFailureMessage(failureMessage);
+            job.setFinishedAt(Instant.now());
+        }
+    }
+
+    private ImportJob snapshot(ImportJob job) {
+        synchronized (job) {
+            return job.toBuilder().errors(List.copyOf(job.getErrors())).build();
+        }
+    }
+
+    // Keeps the registry bounded by forgetting the oldest finished jobs
+    private void evictFinishedJobs() {
+        List<ImportJob> finished = jobs.values().stream()
+                .filter(job -> job.getFinishedAt() != null)
+                .sorted(Comparator.comparing(ImportJob::getFinishedAt))
+                .toList();
+        for (int i = 0; i < finished.size() - MAX_FINISHED_JOBS; i++) {
+            jobs.remove(finished.get(i).getId());
+        }
+    }
+}
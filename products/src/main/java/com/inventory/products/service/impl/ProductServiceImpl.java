@@ -2,45 +2,117 @@ package com.inventory.products.service.impl;
 
 import com.inventory.products.dto.*;
 import com.inventory.products.exception.EntityAlreadyExistsException;
+import com.inventory.products.event.ProductChangedEvent;
 import com.inventory.products.exception.EntityNotFoundException;
+import com.inventory.products.exception.InsufficientStockException;
+import com.inventory.products.index.NamePrefixIndex;
+import com.inventory.products.index.ProductBitmapIndex;
+import com.inventory.products.index.ProductNameIndex;
 import com.inventory.products.model.Category;
+import com.inventory.products.model.InventoryMetricsPoint.Resolution;
+import com.inventory.products.model.InventoryMovement;
 import com.inventory.products.model.Product;
 import com.inventory.products.repository.ProductRepository;
+import com.inventory.products.repository.ProductRepositoryCustom;
 import com.inventory.products.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.web.PagedModel;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.springframework.util.StringUtils.hasText;
 
 @Service
 public class ProductServiceImpl implements ProductService {
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_TOP_PRODUCTS = 100;
+    private static final int RESTOCK_QUANTITY = 10;
+    private static final int PRICE_SCALE = 2;
+    private static final int PRICE_UPDATE_BATCH_SIZE = 1000;
+    private static final int MAX_STOCK_MOVEMENTS = 1000;
+    private static final int MAX_HISTORY_POINTS = 1500;
+    private static final int MAX_CHANGES = 1000;
+
     private final ProductRepository productRepository;
     private final CategoryServiceImpl categoryService;
+    private final InventoryMetricsAggregator metricsAggregator;
+    private final ProductNameIndex productNameIndex;
+    private final ProductBitmapIndex productBitmapIndex;
+    private final NamePrefixIndex namePrefixIndex;
+    private final ProductBatchWriter batchWriter;
+    private final ProductImporter productImporter;
+    private final ProductExporter productExporter;
+    private final CacheStatisticsReader cacheStatisticsReader;
+    private final ProductCountCache productCountCache;
+    private final InventoryLedger inventoryLedger;
+    private final InventoryMetricsHistory metricsHistory;
+    private final ProductChangeBroadcaster changeBroadcaster;
+    private final ProductChangeLog changeLog;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public ProductServiceImpl(
             ProductRepository productRepository,
-            CategoryServiceImpl categoryService
+            CategoryServiceImpl categoryService,
+            InventoryMetricsAggregator metricsAggregator,
+            ProductNameIndex productNameIndex,
+            ProductBitmapIndex productBitmapIndex,
+            NamePrefixIndex namePrefixIndex,
+            ProductBatchWriter batchWriter,
+            ProductImporter productImporter,
+            ProductExporter productExporter,
+            CacheStatisticsReader cacheStatisticsReader,
+            ProductCountCache productCountCache,
+            InventoryLedger inventoryLedger,
+            InventoryMetricsHistory metricsHistory,
+            ProductChangeBroadcaster changeBroadcaster,
+            ProductChangeLog changeLog,
+            ApplicationEventPublisher eventPublisher
     ){
         this.productRepository = productRepository;
         this.categoryService = categoryService;
+        this.metricsAggregator = metricsAggregator;
+        this.productNameIndex = productNameIndex;
+        this.productBitmapIndex = productBitmapIndex;
+        this.namePrefixIndex = namePrefixIndex;
+        this.batchWriter = batchWriter;
+        this.productImporter = productImporter;
+        this.productExporter = productExporter;
+        this.cacheStatisticsReader = cacheStatisticsReader;
+        this.productCountCache = productCountCache;
+        this.inventoryLedger = inventoryLedger;
+        this.metricsHistory = metricsHistory;
+        this.changeBroadcaster = changeBroadcaster;
+        this.changeLog = changeLog;
+        this.eventPublisher = eventPublisher;
     }
 
     void updateAvailability(Product product, boolean setStock) {
-        product.setInStock(setStock ? 10 : 0);
+        Product before = product.toBuilder().build();
+        product.setInStock(setStock ? RESTOCK_QUANTITY : 0);
         product.setUpdatedAt(LocalDate.now());
-        productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, savedProduct));
     }
 
-    private void validateProductInfo(ProductInfo productInfo) {
+    static void validateProductInfo(ProductInfo productInfo) {
         if (productInfo == null) {
             throw new IllegalArgumentException("Product information cannot be null");
         }
@@ -50,7 +122,7 @@ public class ProductServiceImpl implements ProductService {
         if (!hasText(productInfo.getCategoryName())) {
             throw new IllegalArgumentException("Product category cannot be null");
         }
-        if (productInfo.getUnitPrice().compareTo(BigDecimal.ZERO) <= 0) {
+        if (productInfo.getUnitPrice() == null || productInfo.getUnitPrice().compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Product unit price must be greater than zero");
         }
         if (productInfo.getInStock() < 0) {
@@ -59,6 +131,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional
     public Product createProduct(ProductInfo productInfo) {
         validateProductInfo(productInfo);
 
@@ -70,7 +143,7 @@ public class ProductServiceImpl implements ProductService {
         Product product = Product.builder()
                 .id(UUID.randomUUID().toString())
                 .name(productInfo.getName())
-                .category(category)
+                .category(categoryService.getCategoryReference(category.getCategoryName()))
                 .unitPrice(productInfo.getUnitPrice())
                 .expirationDate(productInfo.getExpirationDate())
                 .inStock(productInfo.getInStock())
@@ -79,10 +152,14 @@ public class ProductServiceImpl implements ProductService {
         if (productRepository.existsByName(product.getName())) {
             throw new EntityAlreadyExistsException("Product with name " + product.getName() + " already exists");
         }
-        return productRepository.save(product);
+        productRepository.insertAndFlush(List.of(product));
+        Product savedProduct = product.toBuilder().category(category).build();
+        eventPublisher.publishEvent(ProductChangedEvent.created(savedProduct));
+        return savedProduct;
     }
 
     @Override
+    @Transactional
     public Product updateProduct(ProductInfo productInfo) {
         validateProductInfo(productInfo);
         if (productInfo.getId() == null) {
@@ -100,44 +177,262 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product existingProduct = productFound.get();
+        if (!Product.nameKeyOf(productInfo.getName()).equals(Product.nameKeyOf(existingProduct.getName()))
+                && productRepository.existsByName(productInfo.getName())) {
+            throw new EntityAlreadyExistsException("Product with name " + productInfo.getName() + " already exists");
+        }
+        Product before = existingProduct.toBuilder().build();
 
         existingProduct.setName(productInfo.getName());
-        existingProduct.setCategory(category);
+        existingProduct.setCategory(categoryService.getCategoryReference(category.getCategoryName()));
         existingProduct.setUnitPrice(productInfo.getUnitPrice());
         existingProduct.setExpirationDate(productInfo.getExpirationDate());
         existingProduct.setInStock(productInfo.getInStock());
 
-        return productRepository.save(existingProduct);
+        Product savedProduct = productRepository.save(existingProduct).toBuilder().category(category).build();
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, savedProduct));
+        return savedProduct;
+    }
+
+    @Override
+    public BulkOperationResult upsertProducts(List<ProductInfo> productInfos) {
+        return batchWriter.upsert(productInfos);
+    }
+
+    @Override
+    public ImportJob importProducts(InputStream input, ProductFileFormat format) {
+        if (input == null || format == null) {
+            throw new IllegalArgumentException("Import input and format cannot be null");
+        }
+        return productImporter.importProducts(input, format);
     }
 
     @Override
+    public ImportJob getImportJob(String jobId) {
+        if (!hasText(jobId)) {
+            throw new IllegalArgumentException("Import job ID cannot be null or empty");
+        }
+        return productImporter.getJob(jobId);
+    }
+
+    @Override
+    public List<ImportJob> getImportJobs() {
+        return productImporter.getJobs();
+    }
+
+    @Override
+    public long exportProducts(ProductFilter filter, ProductFileFormat format, OutputStream output) {
+        if (filter == null || format == null || output == null) {
+            throw new IllegalArgumentException("Export filter, format and output cannot be null");
+        }
+        validateFilter(filter);
+        ProductFilter narrowedFilter = narrowByIndexes(filter).orElse(filter.toBuilder().ids(Set.of()).build());
+        return productExporter.export(narrowedFilter, format, output);
+    }
+
+    @Override
+    @Transactional
     public void deleteProductById(String id) {
         if (!hasText(id)) {
             throw new IllegalArgumentException("Product ID cannot be null or empty for deletion");
         }
-        try{
-            productRepository.deleteById(id);
-        }catch (EmptyResultDataAccessException e){
-            throw new EntityNotFoundException("Product not found with ID: " + id + " for deletion");
-        }
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + id + " for deletion"));
+        productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(product));
     }
 
     @Override
-    public Product getProductById(String productId){
+    public ProductSummary getProductById(String productId){
         if(!hasText(productId)) {
             throw new IllegalArgumentException("Product ID cannot be null or empty");
         }
-        Optional<Product> productFound =  productRepository.findById(productId);
+        Optional<ProductSummary> productFound =  productRepository.findSummaryById(productId);
         return productFound.orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
     }
 
     @Override
-    public Page<Product> getProductsByCriteria(String nameFilter, List<String> categoryFilter,
-                                               Boolean availabilityFilter, Pageable pageable) {
-        return productRepository.findByCriteria(nameFilter, categoryFilter, availabilityFilter, pageable);
+    public Page<ProductSummary> getProductsByCriteria(ProductFilter filter, Pageable pageable) {
+        validateFilter(filter);
+        Optional<ProductFilter> narrowedFilter = narrowByIndexes(filter);
+        if (narrowedFilter.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Slice<ProductSummary> slice = productRepository.findSliceByFilter(narrowedFilter.get(), pageable);
+        return PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                () -> productCountCache.count(filter, () -> productRepository.countByFilter(narrowedFilter.get())));
     }
 
     @Override
+    public Slice<ProductSummary> getProductSliceByCriteria(ProductFilter filter, Pageable pageable) {
+        validateFilter(filter);
+        return narrowByIndexes(filter)
+                .map(narrowedFilter -> productRepository.findSliceByFilter(narrowedFilter, pageable))
+                .orElseGet(() -> new SliceImpl<>(List.of(), pageable, false));
+    }
+
+    @Override
+    public ProductSearchResult searchProducts(ProductFilter filter, Pageable pageable) {
+        Page<ProductSummary> page = getProductsByCriteria(filter, pageable);
+        List<ProductFacetCount> facetCounts = findFacetCounts(filter.toBuilder().categoryNames(null).available(null).build());
+        return ProductSearchResult.builder()
+                .content(page.getContent())
+                .page(new PagedModel.PageMetadata(page.getSize(), page.getNumber(), page.getTotalElements(),
+                        page.getTotalPages()))
+                .facets(facetsOf(facetCounts, filter.getCategoryNames(), filter.getAvailable()))
+                .build();
+    }
+
+    // Category counts keep the availability selection and availability counts keep the category selection
+    static ProductFacets facetsOf(List<ProductFacetCount> facetCounts, List<String> categoryFilter,
+                                  Boolean availabilityFilter) {
+        Map<String, Long> countsByCategory = new TreeMap<>();
+        long inStock = 0;
+        long outOfStock = 0;
+        for (ProductFacetCount facetCount : facetCounts) {
+            if (availabilityFilter == null || availabilityFilter.equals(facetCount.getInStock())) {
+                countsByCategory.merge(facetCount.getCategoryName(), facetCount.getCount(), Long::sum);
+            }
+            if (categoryFilter == null || categoryFilter.contains(facetCount.getCategoryName())) {
+                if (facetCount.getInStock()) {
+                    inStock += facetCount.getCount();
+                } else {
+                    outOfStock += facetCount.getCount();
+                }
+            }
+        }
+        return ProductFacets.builder()
+                .categories(countsByCategory.entrySet().stream()
+                        .map(entry -> new CategoryFacet(entry.getKey(), entry.getValue()))
+                        .toList())
+                .inStock(inStock)
+                .outOfStock(outOfStock)
+                .build();
+    }
+
+    // Facets ignore the category and availability selection, so the bitmaps can count them whenever
+    // the name is either absent or answered by the name index and there is no price or expiration range
+    private List<ProductFacetCount> findFacetCounts(ProductFilter facetFilter) {
+        Optional<Set<String>> nameCandidates = productNameIndex.findCandidates(facetFilter.getName());
+        if (nameCandidates.isPresent() && nameCandidates.get().isEmpty()) {
+            return List.of();
+        }
+        if ((nameCandidates.isPresent() || !hasText(facetFilter.getName())) && !hasRange(facetFilter)) {
+            Optional<List<ProductFacetCount>> facetCounts = productBitmapIndex.findFacetCounts(nameCandidates.orElse(null));
+            if (facetCounts.isPresent()) {
+                return facetCounts.get();
+            }
+        }
+        return productRepository.findFacetCounts(facetFilter.toBuilder().ids(nameCandidates.orElse(null)).build());
+    }
+
+    private static boolean hasRange(ProductFilter filter) {
+        return filter.getMinPrice() != null || filter.getMaxPrice() != null
+                || filter.getExpiringFrom() != null || filter.getExpiringUntil() != null;
+    }
+
+    private static void validateFilter(ProductFilter filter) {
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice().compareTo(filter.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("Minimum price cannot be greater than maximum price");
+        }
+        if (filter.getExpiringFrom() != null && filter.getExpiringUntil() != null
+                && filter.getExpiringFrom().isAfter(filter.getExpiringUntil())) {
+            throw new IllegalArgumentException("Expiration window cannot end before it starts");
+        }
+    }
+
+    // Restricts the filter to the candidates of the name index and the category and availability
+    // bitmaps when they answer, or returns nothing when they rule every product out. The database
+    // still applies the filter itself, so candidates only have to be a superset of the matches.
+    private Optional<ProductFilter> narrowByIndexes(ProductFilter filter) {
+        Optional<Set<String>> nameCandidates = productNameIndex.findCandidates(filter.getName());
+        if (nameCandidates.isPresent() && nameCandidates.get().isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Set<String>> candidateIds = productBitmapIndex
+                .findCandidates(filter.getCategoryNames(), filter.getAvailable(), nameCandidates.orElse(null))
+                .or(() -> nameCandidates);
+        if (candidateIds.isEmpty()) {
+            return Optional.of(filter);
+        }
+        if (candidateIds.get().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(filter.toBuilder().ids(candidateIds.get()).build());
+    }
+
+    @Override
+    public ProductCursorPage getProductsAfterCursor(ProductFilter filter, Sort.Order order, String cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        validateFilter(filter);
+        if (!ProductRepositoryCustom.KEYSET_SORT_PROPERTIES.contains(order.getProperty())) {
+            throw new IllegalArgumentException("Unsupported sort property for cursor pagination: " + order.getProperty());
+        }
+        ProductKeyset keyset = hasText(cursor)
+                ? ProductCursorCodec.decode(cursor, order)
+                : ProductKeyset.builder().sortProperty(order.getProperty()).direction(order.getDirection()).build();
+
+        Optional<ProductFilter> narrowedFilter = narrowByIndexes(filter);
+        if (narrowedFilter.isEmpty()) {
+            return ProductCursorPage.builder().content(List.of()).build();
+        }
+        filter = narrowedFilter.get();
+
+        List<Product> products = productRepository.findByFilterAfter(filter, keyset, size + 1);
+        boolean hasNext = products.size() > size;
+        List<Product> content = hasNext ? products.subList(0, size) : products;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Product last = content.getLast();
+            nextCursor = ProductCursorCodec.encode(ProductRepositoryCustom.keysetAfter(last, order));
+        }
+        return ProductCursorPage.builder()
+                .content(content)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    @Override
+    public List<Suggestion> suggestNames(String prefix, int limit) {
+        if (!hasText(prefix)) {
+            throw new IllegalArgumentException("Suggestion prefix cannot be null or empty");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Suggestion limit must be greater than zero");
+        }
+        return namePrefixIndex.suggest(prefix.trim(), Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    @Override
+    public List<ProductSummary> getMostValuableProducts(int limit) {
+        return productRepository.findTopByStockValue(topLimitOf(limit));
+    }
+
+    @Override
+    public List<ProductSummary> getLowestStockProducts(int limit) {
+        return productRepository.findLowestStock(topLimitOf(limit));
+    }
+
+    // Only products still in stock, expiring today or later
+    @Override
+    public List<ProductSummary> getSoonestExpiringProducts(int limit) {
+        return productRepository.findSoonestExpiring(LocalDate.now(), topLimitOf(limit));
+    }
+
+    private static Limit topLimitOf(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Top products limit must be greater than zero");
+        }
+        return Limit.of(Math.min(limit, MAX_TOP_PRODUCTS));
+    }
+
+    @Override
+    @Transactional
     public void setProductInStock(String productId){
         Optional<Product> productFound = productRepository.findById(productId);
         if(productFound.isPresent()){
@@ -148,6 +443,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional
     public void setProductOutOfStock(String productId){
         Optional<Product> productFound = productRepository.findById(productId);
         if(productFound.isPresent()){
@@ -157,72 +453,234 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
-    private boolean isInStock(Product product){
-        return product.getInStock()>0;
+    @Override
+    @Transactional
+    public BulkUpdateResult setProductsInStock(ProductFilter filter) {
+        return updateAvailabilityByFilter(filter, true);
     }
 
-    private InventoryMetrics calculateInventoryMetrics() {
-        List<Product> inStockProducts = productRepository.findAll().stream()
-                .filter(this::isInStock)
-                .toList();
+    @Override
+    @Transactional
+    public BulkUpdateResult setProductsOutOfStock(ProductFilter filter) {
+        return updateAvailabilityByFilter(filter, false);
+    }
 
-        int totalProductsInStock = inStockProducts.size();
-        int totalUnitsInStock = 0;
-        BigDecimal totalValueOfInventory = BigDecimal.ZERO;
-        BigDecimal sumOfUnitPrices = BigDecimal.ZERO;
-        Map<String, Integer> productsInStockByCategory = new HashMap<>();
-        Map<String, BigDecimal> totalValueOfInventoryByCategory = new HashMap<>();
-        Map<String, BigDecimal> sumOfUnitPricesByCategory = new HashMap<>();
-        Map<String, Long> countByCategory = new HashMap<>();
+    // Same outcome as marking each matching product one by one, but with one locking read for the
+    // change events and one UPDATE for every row
+    private BulkUpdateResult updateAvailabilityByFilter(ProductFilter filter, boolean setStock) {
+        validateBulkFilter(filter, "Bulk stock change");
+        int inStock = setStock ? RESTOCK_QUANTITY : 0;
+        LocalDate today = LocalDate.now();
+        List<ProductSummary> changes = productRepository.lockStockChanges(filter, inStock);
+        if (changes.isEmpty()) {
+            return BulkUpdateResult.builder().updated(0).build();
+        }
+        int updated = productRepository.updateStockByFilter(filter, inStock, today);
+        for (ProductSummary change : changes) {
+            Product before = productOf(change);
+            eventPublisher.publishEvent(ProductChangedEvent.updated(before,
+                    before.toBuilder().inStock(inStock).updatedAt(today).build()));
+        }
+        return BulkUpdateResult.builder().updated(updated).build();
+    }
 
-        for (Product product : inStockProducts) {
-            BigDecimal productValue = product.getUnitPrice().multiply(BigDecimal.valueOf(product.getInStock()));
-            totalValueOfInventory = totalValueOfInventory.add(productValue);
-            sumOfUnitPrices = sumOfUnitPrices.add(product.getUnitPrice());
-            totalUnitsInStock += product.getInStock();
+    // Prices are rounded to cents half up, both by the UPDATE and for the change events. All matching
+    // products are locked and read first, so nothing is written unless every new price is valid.
+    @Override
+    @Transactional
+    public BulkUpdateResult adjustPrices(ProductFilter filter, PriceAdjustment adjustment) {
+        validateBulkFilter(filter, "Price adjustment");
+        if (adjustment == null || (adjustment.getPercent() == null) == (adjustment.getAmount() == null)) {
+            throw new IllegalArgumentException("Price adjustment needs either a percent or an amount");
+        }
+        BigDecimal factor = adjustment.getPercent() == null ? BigDecimal.ONE
+                : BigDecimal.ONE.add(adjustment.getPercent().movePointLeft(2));
+        BigDecimal amount = adjustment.getAmount() == null ? BigDecimal.ZERO : adjustment.getAmount();
+        LocalDate today = LocalDate.now();
+
+        List<ProductSummary> products = productRepository.lockPricedProducts(filter);
+        List<ProductChangedEvent> events = new ArrayList<>(products.size());
+        for (ProductSummary product : products) {
+            BigDecimal unitPrice = product.getUnitPrice().multiply(factor).add(amount)
+                    .setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+            if (unitPrice.signum() <= 0) {
+                throw new IllegalArgumentException("Price adjustment would set the unit price of product "
+                        + product.getId() + " to " + unitPrice);
+            }
+            Product before = productOf(product);
+            events.add(ProductChangedEvent.updated(before, before.toBuilder().unitPrice(unitPrice).updatedAt(today).build()));
+        }
 
-            String categoryName = product.getCategory().getCategoryName();
-            productsInStockByCategory.merge(categoryName, product.getInStock(), Integer::sum);
-            totalValueOfInventoryByCategory.merge(categoryName, productValue, BigDecimal::add);
-            sumOfUnitPricesByCategory.merge(categoryName, product.getUnitPrice(), BigDecimal::add);
-            countByCategory.merge(categoryName, 1L, Long::sum);
+        int updated = 0;
+        for (int from = 0; from < products.size(); from += PRICE_UPDATE_BATCH_SIZE) {
+            List<String> ids = products.subList(from, Math.min(from + PRICE_UPDATE_BATCH_SIZE, products.size())).stream()
+                    .map(ProductSummary::getId)
+                    .toList();
+            updated += productRepository.adjustPrices(ids, factor, amount, today);
         }
+        events.forEach(eventPublisher::publishEvent);
+        return BulkUpdateResult.builder().updated(updated).build();
+    }
 
-        BigDecimal averagePriceOfInStockProducts = totalProductsInStock == 0 ? BigDecimal.ZERO :
-                sumOfUnitPrices.divide(BigDecimal.valueOf(totalProductsInStock), 2, RoundingMode.HALF_UP);
-        Map<String, BigDecimal> averagePriceOfInStockProductsByCategory = new HashMap<>();
-        countByCategory.forEach((category, count) -> averagePriceOfInStockProductsByCategory.put
-                (category, sumOfUnitPricesByCategory.get(category).divide(BigDecimal.valueOf(count),
-                        2, RoundingMode.HALF_UP)));
+    private static void validateBulkFilter(ProductFilter filter, String operation) {
+        if (filter == null || (filter.getIds() == null && !hasText(filter.getName()) && filter.getCategoryNames() == null
+                && filter.getAvailable() == null && !hasRange(filter))) {
+            throw new IllegalArgumentException(operation + " needs product IDs or at least one filter");
+        }
+        validateFilter(filter);
+    }
+
+    private static Product productOf(ProductSummary summary) {
+        return Product.builder()
+                .id(summary.getId())
+                .name(summary.getName())
+                .category(summary.getCategoryName() == null ? null
+                        : Category.builder().categoryName(summary.getCategoryName()).build())
+                .unitPrice(summary.getUnitPrice())
+                .expirationDate(summary.getExpirationDate())
+                .inStock(summary.getInStock())
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+
+    // The conditional UPDATE locks the row until commit, so the product read back afterwards is
+    // exactly the result of this delta and the event can be derived from it.
+    @Override
+    @Transactional
+    public Product adjustStock(String productId, int delta) {
+        if (!hasText(productId)) {
+            throw new IllegalArgumentException("Product ID cannot be null or empty");
+        }
+        if (delta == 0) {
+            throw new IllegalArgumentException("Stock delta cannot be zero");
+        }
+        if (productRepository.adjustStock(productId, delta, LocalDate.now()) == 0) {
+            Product product = productRepository.findFreshById(productId)
+                    .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
+            throw new InsufficientStockException("Cannot adjust stock of product " + productId + " by " + delta
+                    + ", only " + product.getInStock() + " in stock");
+        }
+        Product after = productRepository.findFreshById(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
+        Product before = after.toBuilder().inStock(after.getInStock() - delta).build();
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, after.toBuilder().build()));
+        return after;
+    }
 
-        return new InventoryMetrics(
-                totalUnitsInStock,
-                totalValueOfInventory,
-                averagePriceOfInStockProducts,
-                productsInStockByCategory,
-                totalValueOfInventoryByCategory,
-                averagePriceOfInStockProductsByCategory
-        );
+    @Override
+    public List<InventoryMovement> getStockMovements(String productId, int limit) {
+        if (!hasText(productId)) {
+            throw new IllegalArgumentException("Product ID cannot be null or empty");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Stock movements limit must be greater than zero");
+        }
+        return inventoryLedger.getMovements(productId, Limit.of(Math.min(limit, MAX_STOCK_MOVEMENTS)));
     }
 
     @Override
     public InventoryMetricsReport getInventoryReport() {
-        InventoryMetrics metrics = calculateInventoryMetrics();
+        return reportOf(metricsAggregator.isInitialized()
+                ? metricsAggregator.snapshot()
+                : productRepository.findInStockTotalsByCategory());
+    }
+
+    // As of the end of the given day, from the inventory ledger
+    @Override
+    public InventoryMetricsReport getInventoryReport(LocalDate asOf) {
+        if (asOf == null) {
+            throw new IllegalArgumentException("As-of date cannot be null");
+        }
+        if (asOf.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("As-of date cannot be in the future");
+        }
+        Optional<LocalDate> ledgerStart = inventoryLedger.startedAt().map(LocalDateTime::toLocalDate);
+        if (ledgerStart.isPresent() && asOf.isBefore(ledgerStart.get())) {
+            throw new IllegalArgumentException("As-of date cannot be before the inventory ledger started on "
+                    + ledgerStart.get());
+        }
+        return reportOf(totalsOf(inventoryLedger.balancesAt(asOf.plusDays(1).atStartOfDay()).values()));
+    }
+
+    @Override
+    public List<InventoryMetricsHistoryPoint> getInventoryHistory(String categoryName, Resolution resolution,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Metrics history needs a start and an end time");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Metrics history start must be before its end");
+        }
+        Resolution historyResolution = resolution == null ? resolutionOf(from, to) : resolution;
+        if (historyResolution.bucketsBetween(from, to) > MAX_HISTORY_POINTS) {
+            throw new IllegalArgumentException("Metrics history range needs more than " + MAX_HISTORY_POINTS + " "
+                    + historyResolution + " points");
+        }
+        return metricsHistory.getHistory(hasText(categoryName) ? categoryName : null, historyResolution, from, to);
+    }
+
+    // The finest resolution still kept at the start of the range that covers it in few enough points
+    private Resolution resolutionOf(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Resolution resolution : Resolution.values()) {
+            if (!from.isBefore(now.minus(metricsHistory.retentionOf(resolution)))
+                    && resolution.bucketsBetween(from, to) <= MAX_HISTORY_POINTS) {
+                return resolution;
+            }
+        }
+        return Resolution.DAY;
+    }
+
+    private static List<CategoryStockTotals> totalsOf(Collection<StockBalance> balances) {
+        Map<String, CategoryStockTotals> totalsByCategory = new HashMap<>();
+        for (StockBalance balance : balances) {
+            if (balance.getInStock() <= 0) {
+                continue;
+            }
+            BigDecimal unitPrice = balance.getUnitPrice() == null ? BigDecimal.ZERO : balance.getUnitPrice();
+            CategoryStockTotals totals = totalsByCategory.computeIfAbsent(balance.getCategoryName(), categoryName ->
+                    new CategoryStockTotals(categoryName, 0L, BigDecimal.ZERO, BigDecimal.ZERO, 0L));
+            totals.setTotalUnitsInStock(totals.getTotalUnitsInStock() + balance.getInStock());
+            totals.setTotalValueInStock(totals.getTotalValueInStock().add(unitPrice.multiply(BigDecimal.valueOf(balance.getInStock()))));
+            totals.setSumOfUnitPrices(totals.getSumOfUnitPrices().add(unitPrice));
+            totals.setProductsInStock(totals.getProductsInStock() + 1);
+        }
+        return new ArrayList<>(totalsByCategory.values());
+    }
+
+    private static InventoryMetricsReport reportOf(List<CategoryStockTotals> totalsByCategory) {
         List<CategoryMetrics> categoryMetricsList = new ArrayList<>();
 
-        metrics.getProductsInStockByCategory().forEach((categoryName, count) -> categoryMetricsList.add(CategoryMetrics.builder()
-                .categoryName(categoryName)
-                .totalProductsInStock(count)
-                .totalValueInStock(metrics.getTotalValueOfInventoryByCategory().getOrDefault(categoryName, BigDecimal.ZERO))
-                .averagePriceInStock(metrics.getAveragePriceOfInStockProductsByCategory().getOrDefault(categoryName, BigDecimal.ZERO))
-                .build()));
+        long totalUnitsInStock = 0;
+        long totalProductsInStock = 0;
+        BigDecimal totalValueOfInventory = BigDecimal.ZERO;
+        BigDecimal sumOfUnitPrices = BigDecimal.ZERO;
+
+        for (CategoryStockTotals totals : totalsByCategory) {
+            categoryMetricsList.add(CategoryMetrics.builder()
+                    .categoryName(totals.getCategoryName())
+                    .totalProductsInStock(totals.getTotalUnitsInStock().intValue())
+                    .totalValueInStock(totals.getTotalValueInStock())
+                    .averagePriceInStock(totals.getSumOfUnitPrices().divide(BigDecimal.valueOf(totals.getProductsInStock()),
+                            2, RoundingMode.HALF_UP))
+                    .build());
+
+            totalUnitsInStock += totals.getTotalUnitsInStock();
+            totalProductsInStock += totals.getProductsInStock();
+            totalValueOfInventory = totalValueOfInventory.add(totals.getTotalValueInStock());
+            sumOfUnitPrices = sumOfUnitPrices.add(totals.getSumOfUnitPrices());
+        }
 
         categoryMetricsList.sort(Comparator.comparing(CategoryMetrics::getCategoryName));
 
+        BigDecimal averagePriceOfInStockProducts = totalProductsInStock == 0 ? BigDecimal.ZERO :
+                sumOfUnitPrices.divide(BigDecimal.valueOf(totalProductsInStock), 2, RoundingMode.HALF_UP);
+
         OverallMetrics overallMetrics = OverallMetrics.builder()
-                .totalProductsInStock(metrics.getTotalProductsInStock())
-                .totalValueInStock(metrics.getTotalValueOfInventory())
-                .averagePriceInStock(metrics.getAveragePriceOfInStockProducts())
+                .totalProductsInStock((int) totalUnitsInStock)
+                .totalValueInStock(totalValueOfInventory)
+                .averagePriceInStock(averagePriceOfInStockProducts)
                 .build();
 
         return InventoryMetricsReport.builder()
@@ -230,5 +688,25 @@ public class ProductServiceImpl implements ProductService {
                 .overallMetrics(overallMetrics)
                 .build();
     }
-}
 
+    @Override
+    public SseEmitter subscribeToChanges() {
+        return changeBroadcaster.subscribe();
+    }
+
+    @Override
+    public ProductChanges getChangesSince(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("Change sequence number cannot be negative");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Changes limit must be greater than zero");
+        }
+        return changeLog.getChangesSince(since, Math.min(limit, MAX_CHANGES));
+    }
+
+    @Override
+    public List<CacheRegionStatistics> getCacheStatistics() {
+        return cacheStatisticsReader.read();
+    }
+}
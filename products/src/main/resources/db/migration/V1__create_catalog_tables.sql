@@ -0,0 +1,20 @@
+-- Schema as Hibernate generated it before migrations took over; existing databases are baselined at this version
+CREATE TABLE category (
+    category_name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (category_name)
+);
+
+CREATE TABLE product (
+    id VARCHAR(255) NOT NULL,
+    name VARCHAR(255),
+    category_name VARCHAR(255),
+    unit_price NUMERIC(38, 2),
+    expiration_date DATE,
+    in_stock INTEGER NOT NULL,
+    created_at DATE,
+    updated_at DATE,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_product_category FOREIGN KEY (category_name) REFERENCES category (category_name)
+);
+
+CREATE INDEX idx_product_name ON product (name);
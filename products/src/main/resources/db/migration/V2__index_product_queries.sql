@@ -0,0 +1,22 @@
+-- Lowercased name for case-insensitive uniqueness and existence checks; Product fills it on every write
+ALTER TABLE product ADD COLUMN name_key VARCHAR(255);
+-- Names that differ only in case or surrounding spaces would share a key; all but the lowest id get their id appended
+UPDATE product SET name = CONCAT(LEFT(TRIM(name), 216), ' (', id, ')')
+WHERE EXISTS (SELECT 1 FROM product kept
+              WHERE LOWER(TRIM(kept.name)) = LOWER(TRIM(product.name)) AND kept.id < product.id);
+UPDATE product SET name_key = LOWER(TRIM(name));
+CREATE UNIQUE INDEX ux_product_name_key ON product (name_key);
+
+-- Category and availability filters, with each sort column last so a single category can be read in order
+CREATE INDEX idx_product_category_stock_name ON product (category_name, in_stock, name);
+CREATE INDEX idx_product_category_stock_price ON product (category_name, in_stock, unit_price);
+CREATE INDEX idx_product_category_stock_expiration ON product (category_name, in_stock, expiration_date);
+
+-- Availability filter without categories
+CREATE INDEX idx_product_in_stock ON product (in_stock);
+
+-- Unfiltered sorts; id breaks ties the way keyset pagination does
+DROP INDEX IF EXISTS idx_product_name;
+CREATE INDEX idx_product_name_id ON product (name, id);
+CREATE INDEX idx_product_unit_price_id ON product (unit_price, id);
+CREATE INDEX idx_product_expiration_date_id ON product (expiration_date, id);
@@ -0,0 +1,7 @@
+-- Stock value is derived by the database on every write, bulk updates included, so it can be indexed
+ALTER TABLE product ADD COLUMN stock_value NUMERIC(38, 2) GENERATED ALWAYS AS (unit_price * in_stock);
+
+-- Top-N reads walk these in order and stop after N rows; id breaks ties like the other sorts
+CREATE INDEX idx_product_stock_value_id ON product (stock_value DESC, id);
+DROP INDEX idx_product_in_stock;
+CREATE INDEX idx_product_in_stock_id ON product (in_stock, id);
@@ -0,0 +1,43 @@
+-- Append-only record of every stock, price or category change; rows are never updated or deleted.
+-- Ids come from a sequence in blocks of 50 so Hibernate can batch the inserts.
+CREATE SEQUENCE inventory_movement_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE inventory_movement (
+    id BIGINT NOT NULL,
+    product_id VARCHAR(255) NOT NULL,
+    category_name VARCHAR(255),
+    type VARCHAR(32) NOT NULL,
+    quantity_delta INTEGER NOT NULL,
+    in_stock INTEGER NOT NULL,
+    unit_price NUMERIC(38, 2),
+    occurred_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_inventory_movement_product_id ON inventory_movement (product_id, id);
+CREATE INDEX idx_inventory_movement_occurred_at ON inventory_movement (occurred_at);
+
+-- Compacted balances: one row per product as of the snapshot's last movement
+CREATE SEQUENCE inventory_snapshot_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE inventory_snapshot (
+    id BIGINT NOT NULL,
+    taken_at TIMESTAMP NOT NULL,
+    last_movement_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE SEQUENCE inventory_snapshot_item_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE inventory_snapshot_item (
+    id BIGINT NOT NULL,
+    snapshot_id BIGINT NOT NULL,
+    product_id VARCHAR(255) NOT NULL,
+    category_name VARCHAR(255),
+    in_stock INTEGER NOT NULL,
+    unit_price NUMERIC(38, 2),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_inventory_snapshot_item_snapshot FOREIGN KEY (snapshot_id) REFERENCES inventory_snapshot (id)
+);
+
+CREATE INDEX idx_inventory_snapshot_item_snapshot_id ON inventory_snapshot_item (snapshot_id);
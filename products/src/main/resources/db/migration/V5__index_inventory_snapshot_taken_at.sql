@@ -0,0 +1,2 @@
+-- Point-in-time reports start from the last snapshot taken before the requested time
+CREATE INDEX idx_inventory_snapshot_taken_at ON inventory_snapshot (taken_at);
@@ -0,0 +1,19 @@
+-- Inventory metrics over time, per category and overall (no category). Each row holds sums over its
+-- samples, so minute rows roll up into hour rows and hour rows into day rows by adding them.
+CREATE SEQUENCE inventory_metrics_point_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE inventory_metrics_point (
+    id BIGINT NOT NULL,
+    resolution VARCHAR(16) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    category_name VARCHAR(255),
+    samples INTEGER NOT NULL,
+    units_in_stock BIGINT NOT NULL,
+    value_in_stock NUMERIC(38, 2) NOT NULL,
+    products_in_stock BIGINT NOT NULL,
+    sum_of_unit_prices NUMERIC(38, 2) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_inventory_metrics_point_series ON inventory_metrics_point (resolution, category_name, bucket_start);
+CREATE INDEX idx_inventory_metrics_point_bucket ON inventory_metrics_point (resolution, bucket_start);
@@ -0,0 +1,24 @@
+-- Change sequence of the products: every write appends a row whose id is the change's sequence number.
+-- Compaction keeps only the latest row per product and drops delete tombstones past their retention.
+CREATE SEQUENCE product_change_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE product_change (
+    id BIGINT NOT NULL,
+    product_id VARCHAR(255) NOT NULL,
+    deleted BOOLEAN NOT NULL,
+    changed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_product_change_product_id ON product_change (product_id, id);
+CREATE INDEX idx_product_change_tombstones ON product_change (deleted, changed_at);
+
+-- One row per compaction that dropped tombstones; clients behind the highest one must reload
+CREATE SEQUENCE product_change_compaction_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE product_change_compaction (
+    id BIGINT NOT NULL,
+    compacted_at TIMESTAMP NOT NULL,
+    purged_through_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,5 @@
+-- Where each snapshot's tail starts, so a point-in-time report reads the movements after the snapshot
+-- through the occurred_at index instead of from the start of the ledger
+ALTER TABLE inventory_snapshot ADD COLUMN tail_from TIMESTAMP;
+UPDATE inventory_snapshot SET tail_from = '1970-01-01 00:00:00';
+ALTER TABLE inventory_snapshot ALTER COLUMN tail_from SET NOT NULL;
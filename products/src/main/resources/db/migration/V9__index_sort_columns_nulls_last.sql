@@ -0,0 +1,8 @@
+-- Products without a name, price or expiration date sort after all others ascending and before them
+-- descending. Storing the nulls last lets those sorts, keyset pages included, read the indexes in order.
+DROP INDEX idx_product_name_id;
+DROP INDEX idx_product_unit_price_id;
+DROP INDEX idx_product_expiration_date_id;
+CREATE INDEX idx_product_name_id ON product (name NULLS LAST, id);
+CREATE INDEX idx_product_unit_price_id ON product (unit_price NULLS LAST, id);
+CREATE INDEX idx_product_expiration_date_id ON product (expiration_date NULLS LAST, id);
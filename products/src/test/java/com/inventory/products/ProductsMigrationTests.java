@@ -0,0 +1,65 @@
+package com.inventory.products;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Starts the application on a copy of the database shipped before migrations existed, created by ddl-auto
+@SpringBootTest
+class ProductsMigrationTests {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void baselineDatabaseCopy(DynamicPropertyRegistry registry) throws IOException, SQLException {
+        Path dataDir = Files.createTempDirectory("products-migration");
+        try (InputStream baseline = ProductsMigrationTests.class.getResourceAsStream("/db/products-before-migrations.mv.db")) {
+            Files.copy(baseline, dataDir.resolve("products.mv.db"));
+        }
+        String url = "jdbc:h2:file:" + dataDir.resolve("products").toAbsolutePath();
+        // Names the application used to tell apart only by case, as such databases may hold
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO product (id, name, category_name, unit_price, in_stock) " +
+                    "SELECT 'zz-apples-1', 'APPLES', category_name, unit_price, in_stock FROM product WHERE name = 'Apples'");
+            statement.executeUpdate("INSERT INTO product (id, name, category_name, unit_price, in_stock) " +
+                    "SELECT 'zz-apples-2', ' apples ', category_name, unit_price, in_stock FROM product WHERE name = 'Apples'");
+        }
+        registry.add("spring.datasource.url", () -> url);
+    }
+
+    @Test
+    void givenBaselineDatabase_whenApplicationStarts_thenAllMigrationsApplyAndKeepItsProducts() {
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals(16, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE name_key IS NULL", Integer.class));
+    }
+
+    @Test
+    void givenNamesDifferingOnlyByCase_whenApplicationStarts_thenAllButOneAreRenamedWithTheirId() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT name FROM product WHERE name_key LIKE 'apples%' ORDER BY id", String.class);
+
+        assertEquals(List.of("Apples", "APPLES (zz-apples-1)", "apples (zz-apples-2)"), names);
+    }
+}
@@ -0,0 +1,74 @@
+package com.inventory.products.benchmark;
+
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.InventoryMovementRepository;
+import com.inventory.products.service.impl.InventoryLedger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Run with: mvn test -Dtest=InventoryLedgerAppendBenchmark -Dbenchmarks=true
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ledger-append-benchmark")
+public class InventoryLedgerAppendBenchmark {
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        movementRepository.deleteAllInBatch();
+    }
+
+    private List<ProductChangedEvent> stockChanges(int itemCount) {
+        Category food = Category.builder().categoryName("Food").build();
+        List<ProductChangedEvent> events = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            Product before = Product.builder().id("product-" + i % 1000).category(food)
+                    .unitPrice(new BigDecimal("3.99")).inStock(i % 30).build();
+            events.add(ProductChangedEvent.updated(before, before.toBuilder().inStock(i % 30 + 1).build()));
+        }
+        return events;
+    }
+
+    // One transaction per entry is what single-product writes pay; a bulk write appends all of its
+    // entries in one transaction, flushed in JDBC batches
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000})
+    void compareAppendPerTransactionWithBatchedAppend(int itemCount) {
+        List<ProductChangedEvent> events = stockChanges(itemCount);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        long start = System.nanoTime();
+        events.forEach(event -> transactionTemplate.executeWithoutResult(status -> inventoryLedger.onProductChanged(event)));
+        long singleNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> events.forEach(inventoryLedger::onProductChanged));
+        long batchedNanos = System.nanoTime() - start;
+        assertEquals(2L * itemCount, movementRepository.count());
+
+        System.out.printf("%,d ledger appends: one per transaction %,.0f/s, batched %,.0f/s (%.1fx)%n",
+                itemCount, itemCount * 1e9 / singleNanos, itemCount * 1e9 / batchedNanos,
+                (double) singleNanos / batchedNanos);
+    }
+}
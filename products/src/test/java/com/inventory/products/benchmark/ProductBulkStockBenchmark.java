@@ -0,0 +1,74 @@
+package com.inventory.products.benchmark;
+
+import com.inventory.products.dto.BulkItemResult;
+import com.inventory.products.dto.BulkOperationResult;
+import com.inventory.products.dto.BulkUpdateResult;
+import com.inventory.products.dto.ProductFilter;
+import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.model.Category;
+import com.inventory.products.repository.CategoryRepository;
+import com.inventory.products.repository.ProductRepository;
+import com.inventory.products.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Run with: mvn test -Dtest=ProductBulkStockBenchmark -Dbenchmarks=true
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bulk-stock-benchmark")
+public class ProductBulkStockBenchmark {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAllInBatch();
+        categoryRepository.save(Category.builder().categoryName("Recalled").build());
+    }
+
+    private List<String> createProducts(int itemCount) {
+        List<ProductInfo> products = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            products.add(new ProductInfo(null, "Recalled " + itemCount + "-" + i, "Recalled",
+                    new BigDecimal("3.99"), null, 1 + i % 30));
+        }
+        BulkOperationResult created = productService.upsertProducts(products);
+        return created.getItems().stream().map(BulkItemResult::getId).toList();
+    }
+
+    // The loop is what a client had to do before: one call per product, each a read and a save
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000})
+    void compareOutOfStockLoopWithSetBasedUpdate(int itemCount) {
+        List<String> ids = createProducts(itemCount);
+        long start = System.nanoTime();
+        ids.forEach(productService::setProductOutOfStock);
+        long loopNanos = System.nanoTime() - start;
+
+        productService.setProductsInStock(ProductFilter.builder().categoryNames(List.of("Recalled")).build());
+        start = System.nanoTime();
+        BulkUpdateResult result = productService.setProductsOutOfStock(
+                ProductFilter.builder().categoryNames(List.of("Recalled")).build());
+        long bulkNanos = System.nanoTime() - start;
+        assertEquals(itemCount, result.getUpdated());
+
+        System.out.printf("%,d products out of stock: per-id loop %,d ms, set-based update %,d ms (%.1fx)%n",
+                itemCount, loopNanos / 1_000_000, bulkNanos / 1_000_000, (double) loopNanos / bulkNanos);
+    }
+}
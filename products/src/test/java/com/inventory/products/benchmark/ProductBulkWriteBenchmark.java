@@ -0,0 +1,71 @@
+package com.inventory.products.benchmark;
+
+import com.inventory.products.dto.BulkOperationResult;
+import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.model.Category;
+import com.inventory.products.repository.CategoryRepository;
+import com.inventory.products.repository.ProductRepository;
+import com.inventory.products.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Run with: mvn test -Dtest=ProductBulkWriteBenchmark -Dbenchmarks=true
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bulk-benchmark")
+public class ProductBulkWriteBenchmark {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAllInBatch();
+        categoryRepository.save(Category.builder().categoryName("Benchmark").build());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000})
+    void measureBulkCreateAndUpdateThroughput(int itemCount) {
+        List<ProductInfo> creates = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            creates.add(new ProductInfo(null, "Product " + itemCount + "-" + i, "Benchmark",
+                    new BigDecimal("9.99"), null, i % 50));
+        }
+
+        long start = System.nanoTime();
+        BulkOperationResult created = productService.upsertProducts(creates);
+        long createNanos = System.nanoTime() - start;
+        assertEquals(itemCount, created.getSucceeded());
+
+        List<ProductInfo> updates = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            ProductInfo productInfo = creates.get(i);
+            updates.add(new ProductInfo(created.getItems().get(i).getId(), productInfo.getName(), "Benchmark",
+                    new BigDecimal("10.49"), null, productInfo.getInStock() + 1));
+        }
+
+        start = System.nanoTime();
+        BulkOperationResult updated = productService.upsertProducts(updates);
+        long updateNanos = System.nanoTime() - start;
+        assertEquals(itemCount, updated.getSucceeded());
+
+        System.out.printf("%,d items: bulk create %,.0f rows/s, bulk update %,.0f rows/s%n",
+                itemCount, itemCount / (createNanos / 1e9), itemCount / (updateNanos / 1e9));
+    }
+}
@@ -0,0 +1,78 @@
+package com.inventory.products.benchmark;
+
+import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.CategoryRepository;
+import com.inventory.products.repository.ProductRepository;
+import com.inventory.products.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Run with: mvn test -Dtest=ProductStockAdjustmentBenchmark -Dbenchmarks=true
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:stock-adjustment-benchmark;LOCK_TIMEOUT=10000")
+public class ProductStockAdjustmentBenchmark {
+    private static final int THREADS = 8;
+    private static final int ADJUSTMENTS_PER_THREAD = 250;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAllInBatch();
+        categoryRepository.save(Category.builder().categoryName("Hot").build());
+    }
+
+    // Every thread adds two units and takes one back, over and over, on the same SKU
+    @Test
+    void measureConcurrentAdjustmentsOnHotSku() throws Exception {
+        Product product = productService.createProduct(new ProductInfo(null, "Hot SKU " + System.nanoTime(), "Hot",
+                new BigDecimal("2.50"), null, 0));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < ADJUSTMENTS_PER_THREAD; j++) {
+                        productService.adjustStock(product.getId(), 2);
+                        productService.adjustStock(product.getId(), -1);
+                    }
+                    return null;
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+            long nanos = System.nanoTime() - startNanos;
+
+            int adjustments = THREADS * ADJUSTMENTS_PER_THREAD * 2;
+            assertEquals(THREADS * ADJUSTMENTS_PER_THREAD, productRepository.findById(product.getId()).orElseThrow().getInStock());
+            System.out.printf("%d threads, %,d adjustments on one SKU: %,.0f adjustments/s%n",
+                    THREADS, adjustments, adjustments / (nanos / 1e9));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -7,7 +7,10 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.inventory.products.dto.*;
 import com.inventory.products.exception.EntityAlreadyExistsException;
 import com.inventory.products.exception.EntityNotFoundException;
+import com.inventory.products.exception.InsufficientStockException;
 import com.inventory.products.model.Category;
+import com.inventory.products.model.InventoryMetricsPoint.Resolution;
+import com.inventory.products.model.InventoryMovement;
 import com.inventory.products.model.Product;
 import com.inventory.products.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,22 +20,33 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.web.PagedModel;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProductController.class)
@@ -48,6 +62,7 @@ public class ProductControllerTest {
 
     private Product product1;
     private Product product2;
+    private ProductSummary summary1;
     private ProductInfo productInfo1;
     private Category categoryFood;
 
@@ -82,6 +97,17 @@ public class ProductControllerTest {
                 .updatedAt(LocalDate.now())
                 .build();
 
+        summary1 = ProductSummary.builder()
+                .id("prod1")
+                .name("Apple")
+                .categoryName("Food")
+                .unitPrice(new BigDecimal("1.20"))
+                .expirationDate(LocalDate.of(2025, 12, 31))
+                .inStock(100)
+                .createdAt(LocalDate.now())
+                .updatedAt(LocalDate.now())
+                .build();
+
         productInfo1 = ProductInfo.builder()
                 .id("prod1")
                 .name("Apple")
@@ -337,7 +363,7 @@ public class ProductControllerTest {
     void getProductById_Success() throws Exception {
         // given
         String productId = "prod1";
-        when(productService.getProductById(productId)).thenReturn(product1);
+        when(productService.getProductById(productId)).thenReturn(summary1);
 
         // when
         MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", productId)
@@ -349,8 +375,7 @@ public class ProductControllerTest {
         assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
         Product responseProduct = objectMapper.readValue(response.getContentAsString(), Product.class);
         assertNotNull(responseProduct);
-        assertEquals(product1.getId(), responseProduct.getId());
-        assertEquals(product1.getName(), responseProduct.getName());
+        assertEquals(product1, responseProduct);
 
         verify(productService, times(1)).getProductById(productId);
     }
@@ -381,13 +406,16 @@ public class ProductControllerTest {
     @Test
     void getAllProducts_WithFilters_Success() throws Exception {
         // given
-        List<Product> filteredProducts = Collections.singletonList(product1);
+        List<ProductSummary> filteredProducts = Collections.singletonList(summary1);
         String nameFilter = "Apple";
         List<String> categoryFilter = Collections.singletonList("Food");
         Boolean inStockFilter = true;
 
-        Page<Product> productPage = new PageImpl<>(filteredProducts);
-        when(productService.getProductsByCriteria(eq(nameFilter), eq(categoryFilter), eq(inStockFilter), any(Pageable.class)))
+        ProductFilter filter = ProductFilter.builder()
+                .name(nameFilter).categoryNames(categoryFilter).available(inStockFilter).build();
+
+        Page<ProductSummary> productPage = new PageImpl<>(filteredProducts);
+        when(productService.getProductsByCriteria(eq(filter), any(Pageable.class)))
                 .thenReturn(productPage);
 
         // when
@@ -411,8 +439,350 @@ public class ProductControllerTest {
         Map<?, ?> productMap = (Map<?, ?>) content.get(0);
         assertEquals(product1.getId(), productMap.get("id"));
         assertEquals(product1.getName(), productMap.get("name"));
+        assertEquals(Map.of("categoryName", "Food"), productMap.get("category"));
+        assertFalse(productMap.containsKey("categoryName"));
+
+        verify(productService, times(1)).getProductsByCriteria(eq(filter), any(Pageable.class));
+    }
+
+    @Test
+    void getAllProducts_SliceMode_ReturnsHasNextWithoutTotals() throws Exception {
+        // given
+        when(productService.getProductSliceByCriteria(eq(new ProductFilter()), any(Pageable.class)))
+                .thenAnswer(invocation -> new SliceImpl<>(List.of(summary1), invocation.getArgument(1), true));
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/products")
+                        .param("slice", "true")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        Map<String, Object> sliceResponse = objectMapper.readValue(response.getContentAsString(), new TypeReference<>() {});
+        assertEquals(false, sliceResponse.get("last"));
+        assertEquals(1, ((List<?>) sliceResponse.get("content")).size());
+        assertFalse(sliceResponse.containsKey("totalElements"));
+        verify(productService, never()).getProductsByCriteria(any(), any(Pageable.class));
+    }
+
+    @Test
+    void getAllProducts_WithPriceRangeAndExpirationWindow_PassesRangesToService() throws Exception {
+        // given
+        LocalDate today = LocalDate.now();
+        ProductFilter filter = ProductFilter.builder()
+                .minPrice(new BigDecimal("1.50"))
+                .maxPrice(new BigDecimal("10"))
+                .expiringFrom(today)
+                .expiringUntil(today.plusDays(7))
+                .build();
+        when(productService.getProductsByCriteria(eq(filter), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(summary1)));
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/products")
+                        .param("minPrice", "1.50")
+                        .param("maxPrice", "10")
+                        .param("expiringWithinDays", "7")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // then
+        verify(productService, times(1)).getProductsByCriteria(eq(filter), any(Pageable.class));
+    }
+
+    @Test
+    void searchProducts_ReturnsPageAndFacetsInOneResponse() throws Exception {
+        // given
+        ProductFilter filter = ProductFilter.builder().name("Apple").available(true).build();
+        ProductSearchResult result = ProductSearchResult.builder()
+                .content(List.of(summary1))
+                .page(new PagedModel.PageMetadata(10, 0, 1, 1))
+                .facets(ProductFacets.builder()
+                        .categories(List.of(new CategoryFacet("Food", 1), new CategoryFacet("Drink", 2)))
+                        .inStock(1)
+                        .outOfStock(0)
+                        .build())
+                .build();
+        when(productService.searchProducts(eq(filter), any(Pageable.class))).thenReturn(result);
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/products/search")
+                        .param("name", "Apple")
+                        .param("inStock", "true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        Map<String, Object> body = objectMapper.readValue(response.getContentAsString(), new TypeReference<>() {});
+        assertEquals(1, ((List<?>) body.get("content")).size());
+        assertEquals(1, ((Map<?, ?>) body.get("page")).get("totalElements"));
+        Map<?, ?> facets = (Map<?, ?>) body.get("facets");
+        assertEquals(List.of(Map.of("categoryName", "Food", "count", 1), Map.of("categoryName", "Drink", "count", 2)),
+                facets.get("categories"));
+        assertEquals(1, facets.get("inStock"));
+        verify(productService).searchProducts(eq(filter), any(Pageable.class));
+    }
+
+    @Test
+    void scrollProducts_WithCursor_Success() throws Exception {
+        // given
+        ProductCursorPage cursorPage = ProductCursorPage.builder()
+                .content(Collections.singletonList(product2))
+                .nextCursor("next-cursor")
+                .hasNext(true)
+                .build();
+        ProductFilter filter = ProductFilter.builder().name("Orange").build();
+        Sort.Order order = Sort.Order.desc("unitPrice");
+        when(productService.getProductsAfterCursor(eq(filter), eq(order), eq("cursor"), eq(1))).thenReturn(cursorPage);
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/products/scroll")
+                        .param("name", "Orange")
+                        .param("cursor", "cursor")
+                        .param("size", "1")
+                        .param("sort", "unitPrice,desc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        Map<String, Object> body = objectMapper.readValue(response.getContentAsString(), new TypeReference<>() {});
+        assertEquals("next-cursor", body.get("nextCursor"));
+        assertEquals(true, body.get("hasNext"));
+        assertEquals(1, ((List<?>) body.get("content")).size());
+        assertThat(body).doesNotContainKey("page");
+
+        verify(productService, times(1)).getProductsAfterCursor(eq(filter), eq(order), eq("cursor"), eq(1));
+    }
+
+    @Test
+    void getMostValuableProducts_DefaultLimit_Success() throws Exception {
+        // given
+        when(productService.getMostValuableProducts(20)).thenReturn(List.of(summary1));
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/products/top/stock-value")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        List<Map<String, Object>> body = objectMapper.readValue(response.getContentAsString(), new TypeReference<>() {});
+        assertEquals(1, body.size());
+        assertEquals(summary1.getId(), body.getFirst().get("id"));
+        verify(productService, times(1)).getMostValuableProducts(20);
+    }
+
+    @Test
+    void suggestNames_Success() throws Exception {
+        // given
+        List<Suggestion> suggestions = List.of(
+                new Suggestion(Suggestion.Type.CATEGORY, null, "Food"),
+                new Suggestion(Suggestion.Type.PRODUCT, "prod1", "Food Processor"));
+        when(productService.suggestNames("foo", 5)).thenReturn(suggestions);
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/products/suggest")
+                        .param("prefix", "foo")
+                        .param("limit", "5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        List<Suggestion> body = objectMapper.readValue(response.getContentAsString(), new TypeReference<>() {});
+        assertEquals(suggestions, body);
+        verify(productService, times(1)).suggestNames("foo", 5);
+    }
+
+    @Test
+    void upsertProducts_Success() throws Exception {
+        // given
+        ProductInfo invalidProductInfo = ProductInfo.builder().name("").categoryName("Food").build();
+        List<ProductInfo> productInfos = List.of(productInfo1, invalidProductInfo);
+        BulkOperationResult result = BulkOperationResult.builder()
+                .succeeded(1)
+                .failed(1)
+                .items(List.of(
+                        new BulkItemResult(0, "prod1", BulkItemResult.Status.CREATED, null),
+                        new BulkItemResult(1, null, BulkItemResult.Status.FAILED, "Product name cannot be null or empty")))
+                .build();
+        when(productService.upsertProducts(anyList())).thenReturn(result);
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.post("/products/bulk")
+                        .content(objectMapper.writeValueAsString(productInfos))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        BulkOperationResult body = objectMapper.readValue(response.getContentAsString(), BulkOperationResult.class);
+        assertEquals(result, body);
+        verify(productService, times(1)).upsertProducts(productInfos);
+    }
+
+    @Test
+    void importProducts_Success() throws Exception {
+        // given
+        ImportJob job = ImportJob.builder()
+                .id("job1")
+                .format(ProductFileFormat.CSV)
+                .status(ImportJob.Status.COMPLETED)
+                .rowsRead(1)
+                .created(1)
+                .errors(List.of())
+                .build();
+        when(productService.importProducts(any(), eq(ProductFileFormat.CSV))).thenReturn(job);
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.post("/products/import")
+                        .content("name,categoryName,unitPrice,inStock\nPear,Food,1.10,2\n")
+                        .contentType("text/csv"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        assertEquals(job, objectMapper.readValue(response.getContentAsString(), ImportJob.class));
+        verify(productService, times(1)).importProducts(any(), eq(ProductFileFormat.CSV));
+    }
+
+    @Test
+    void importProducts_UnsupportedContentType() throws Exception {
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.post("/products/import")
+                        .content("<products/>")
+                        .contentType(MediaType.APPLICATION_XML))
+                .andExpect(status().isBadRequest());
+
+        // then
+        verify(productService, never()).importProducts(any(), any());
+    }
+
+    @Test
+    void getImportJob_NotFound() throws Exception {
+        // given
+        when(productService.getImportJob("missing"))
+                .thenThrow(new EntityNotFoundException("Import job not found with ID: missing"));
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/import/{jobId}", "missing"))
+                .andExpect(status().isNotFound());
+
+        // then
+        verify(productService, times(1)).getImportJob("missing");
+    }
+
+    @Test
+    void exportProducts_Success() throws Exception {
+        // given
+        when(productService.exportProducts(any(), eq(ProductFileFormat.CSV), any())).thenAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write("id,name\n".getBytes());
+            return 0L;
+        });
+
+        // when
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders.get("/products/export")
+                        .param("format", "csv")
+                        .param("inStock", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        assertEquals("text/csv", response.getContentType());
+        assertEquals("id,name\n", response.getContentAsString());
+        verify(productService, times(1)).exportProducts(
+                eq(ProductFilter.builder().available(true).build()), eq(ProductFileFormat.CSV), any());
+    }
+
+    @Test
+    void exportProducts_UnsupportedFormat() throws Exception {
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
 
-        verify(productService, times(1)).getProductsByCriteria(eq(nameFilter), eq(categoryFilter), eq(inStockFilter), any(Pageable.class));
+        // then
+        verify(productService, never()).exportProducts(any(), any(), any());
+    }
+
+    @Test
+    void adjustStock_Success() throws Exception {
+        // given
+        product1.setInStock(7);
+        when(productService.adjustStock("prod1", -3)).thenReturn(product1);
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.post("/products/{id}/stock/adjust", "prod1")
+                        .content(objectMapper.writeValueAsString(new StockAdjustment(-3)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        assertEquals(7, objectMapper.readValue(response.getContentAsString(), Product.class).getInStock());
+        verify(productService, times(1)).adjustStock("prod1", -3);
+    }
+
+    @Test
+    void adjustStock_InsufficientStock() throws Exception {
+        // given
+        when(productService.adjustStock("prod1", -30))
+                .thenThrow(new InsufficientStockException("Cannot adjust stock of product prod1 by -30, only 7 in stock"));
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.post("/products/{id}/stock/adjust", "prod1")
+                        .content(objectMapper.writeValueAsString(new StockAdjustment(-30)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andReturn().getResponse();
+
+        // then
+        assertThat(response.getContentAsString()).contains("only 7 in stock");
+    }
+
+    @Test
+    void getStockMovements_DefaultLimit_Success() throws Exception {
+        // given
+        InventoryMovement movement = InventoryMovement.builder()
+                .id(51L).productId("prod1").type(InventoryMovement.Type.UPDATED).quantityDelta(-3).inStock(7).build();
+        when(productService.getStockMovements("prod1", 100)).thenReturn(List.of(movement));
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}/movements", "prod1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        List<InventoryMovement> body = objectMapper.readValue(response.getContentAsString(), new TypeReference<>() {});
+        assertEquals(List.of(movement), body);
+        verify(productService, times(1)).getStockMovements("prod1", 100);
+    }
+
+    @Test
+    void getProductChanges_Success() throws Exception {
+        // given
+        Product product = Product.builder().id("prod1").name("Apple").unitPrice(new BigDecimal("2.50")).inStock(7).build();
+        ProductChanges changes = ProductChanges.builder()
+                .upserts(List.of(product)).deletedIds(List.of("prod2")).nextSince(151).hasMore(false).build();
+        when(productService.getChangesSince(101, 500)).thenReturn(changes);
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/products/changes")
+                        .param("since", "101")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        assertEquals(changes, objectMapper.readValue(response.getContentAsString(), ProductChanges.class));
+        verify(productService, times(1)).getChangesSince(101, 500);
     }
 
     @Test
@@ -495,6 +865,62 @@ public class ProductControllerTest {
         verify(productService, times(1)).setProductInStock(productId);
     }
 
+    @Test
+    void markProductsOutOfStock_ByCategory_ReturnsUpdatedCount() throws Exception {
+        // given
+        ProductFilter filter = ProductFilter.builder().categoryNames(List.of("Beverages")).build();
+        when(productService.setProductsOutOfStock(filter)).thenReturn(BulkUpdateResult.builder().updated(42).build());
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.put("/products/outofstock")
+                        .param("categories", "Beverages")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        assertEquals(42, objectMapper.readValue(response.getContentAsString(), BulkUpdateResult.class).getUpdated());
+        verify(productService, times(1)).setProductsOutOfStock(filter);
+    }
+
+    @Test
+    void markProductsInStock_ByIds_ReturnsUpdatedCount() throws Exception {
+        // given
+        ProductFilter filter = ProductFilter.builder().ids(List.of("prod1", "prod2")).build();
+        when(productService.setProductsInStock(filter)).thenReturn(BulkUpdateResult.builder().updated(2).build());
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.put("/products/instock")
+                        .param("ids", "prod1", "prod2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        assertEquals(2, objectMapper.readValue(response.getContentAsString(), BulkUpdateResult.class).getUpdated());
+        verify(productService, times(1)).setProductsInStock(filter);
+    }
+
+    @Test
+    void adjustPrices_ForCategory_ReturnsUpdatedCount() throws Exception {
+        // given
+        ProductFilter filter = ProductFilter.builder().categoryNames(List.of("Beverages")).build();
+        PriceAdjustment adjustment = PriceAdjustment.builder().percent(new BigDecimal("4")).build();
+        when(productService.adjustPrices(filter, adjustment)).thenReturn(BulkUpdateResult.builder().updated(12).build());
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.post("/products/price/adjust")
+                        .param("categories", "Beverages")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"percent\": 4}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        assertEquals(12, objectMapper.readValue(response.getContentAsString(), BulkUpdateResult.class).getUpdated());
+        verify(productService, times(1)).adjustPrices(filter, adjustment);
+    }
+
     @Test
     void getInventoryMetricsReport_Success() throws Exception {
         // given
@@ -547,4 +973,103 @@ public class ProductControllerTest {
 
         verify(productService, times(1)).getInventoryReport();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getInventoryMetricsReport_AsOf_Success() throws Exception {
+        // given
+        InventoryMetricsReport report = InventoryMetricsReport.builder()
+                .categoryMetrics(List.of())
+                .overallMetrics(OverallMetrics.builder().totalProductsInStock(40).build())
+                .build();
+        when(productService.getInventoryReport(LocalDate.of(2026, 9, 30))).thenReturn(report);
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/products/metrics")
+                        .param("asOf", "2026-09-30")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        InventoryMetricsReport responseReport = objectMapper.readValue(response.getContentAsString(), InventoryMetricsReport.class);
+        assertEquals(40, responseReport.getOverallMetrics().getTotalProductsInStock());
+        verify(productService, times(1)).getInventoryReport(LocalDate.of(2026, 9, 30));
+        verify(productService, never()).getInventoryReport();
+    }
+
+    @Test
+    void getInventoryMetricsReport_AsOfBeforeLedgerStarted_BadRequest() throws Exception {
+        // given
+        String errorMessage = "As-of date cannot be before the inventory ledger started on 2026-09-01";
+        when(productService.getInventoryReport(LocalDate.of(2026, 8, 31)))
+                .thenThrow(new IllegalArgumentException(errorMessage));
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/products/metrics")
+                        .param("asOf", "2026-08-31")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse();
+
+        // then
+        ErrorResponse errorResponse = objectMapper.readValue(response.getContentAsString(), ErrorResponse.class);
+        assertEquals(errorMessage, errorResponse.getMessage());
+    }
+
+    @Test
+    void streamProductChanges_StartsEventStream() throws Exception {
+        // given
+        when(productService.subscribeToChanges()).thenReturn(new SseEmitter());
+
+        // when
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        verify(productService, times(1)).subscribeToChanges();
+    }
+
+    @Test
+    void getInventoryMetricsHistory_Success() throws Exception {
+        // given
+        LocalDateTime from = LocalDateTime.of(2026, 10, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 10, 8, 0, 0);
+        List<InventoryMetricsHistoryPoint> history = List.of(
+                new InventoryMetricsHistoryPoint(from, 120, new BigDecimal("150.00"), new BigDecimal("1.25")));
+        when(productService.getInventoryHistory("Food", Resolution.HOUR, from, to)).thenReturn(history);
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/products/metrics/history")
+                        .param("category", "Food")
+                        .param("resolution", "HOUR")
+                        .param("from", "2026-10-01T00:00:00")
+                        .param("to", "2026-10-08T00:00:00"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        List<InventoryMetricsHistoryPoint> body = objectMapper.readValue(response.getContentAsString(), new TypeReference<>() {});
+        assertEquals(history, body);
+        verify(productService, times(1)).getInventoryHistory("Food", Resolution.HOUR, from, to);
+    }
+
+    @Test
+    public void givenCacheRegions_whenGetCacheStatistics_thenReturnStatisticsPerRegion() throws Exception {
+        // given
+        List<CacheRegionStatistics> statistics = List.of(
+                CacheRegionStatistics.builder().region("default-query-results-region").hits(4).misses(1).puts(1).evictions(0).build(),
+                CacheRegionStatistics.builder().region("products").hits(10).misses(2).puts(2).evictions(0).build());
+        when(productService.getCacheStatistics()).thenReturn(statistics);
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(MockMvcRequestBuilders.get("/products/metrics/cache"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        // then
+        List<CacheRegionStatistics> responseStatistics = objectMapper.readValue(response.getContentAsString(),
+                new TypeReference<>() {});
+        assertEquals(statistics, responseStatistics);
+        verify(productService, times(1)).getCacheStatistics();
+    }
+}
@@ -0,0 +1,86 @@
+package com.inventory.products.index;
+
+import com.inventory.products.dto.ProductName;
+import com.inventory.products.dto.Suggestion;
+import com.inventory.products.event.CategoryCreatedEvent;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.CategoryRepository;
+import com.inventory.products.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class NamePrefixIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private NamePrefixIndex namePrefixIndex;
+
+    @BeforeEach
+    void setUp() {
+        namePrefixIndex = new NamePrefixIndex(productRepository, categoryRepository);
+        when(categoryRepository.findAll()).thenReturn(List.of(Category.builder().categoryName("Beverages").build()));
+        when(productRepository.findAllNames()).thenReturn(List.of(
+                new ProductName("1", "Beer"),
+                new ProductName("2", "beef jerky"),
+                new ProductName("3", "Bread"),
+                new ProductName("4", "Beer")));
+        namePrefixIndex.initialize();
+    }
+
+    private List<String> suggestedNames(String prefix, int limit) {
+        return namePrefixIndex.suggest(prefix, limit).stream().map(Suggestion::getName).toList();
+    }
+
+    @Test
+    public void givenIndexedNames_whenSuggest_thenReturnMatchesInAlphabeticalOrder() {
+        assertEquals(List.of("beef jerky", "Beer", "Beer", "Beverages"), suggestedNames("BE", 10));
+        assertEquals(List.of("beef jerky", "Beer"), suggestedNames("be", 2));
+        assertEquals(List.of(), suggestedNames("cheese", 10));
+    }
+
+    @Test
+    public void givenProductAndCategoryWrites_whenSuggest_thenIndexFollowsWrites() {
+        Product bread = Product.builder().id("3").name("Bread").build();
+
+        namePrefixIndex.onProductChanged(ProductChangedEvent.updated(bread, bread.toBuilder().name("Brioche").build()));
+        namePrefixIndex.onProductChanged(ProductChangedEvent.deleted(Product.builder().id("2").name("beef jerky").build()));
+        namePrefixIndex.onCategoryCreated(new CategoryCreatedEvent(Category.builder().categoryName("Breakfast").build()));
+
+        assertEquals(List.of("Breakfast", "Brioche"), suggestedNames("br", 10));
+        assertEquals(List.of("Beer", "Beer", "Beverages"), suggestedNames("be", 10));
+    }
+
+    @Test
+    public void givenWritesDuringReload_whenInitialize_thenLoadedIndexKeepsThem() {
+        // given
+        Product bread = Product.builder().id("3").name("Bread").build();
+        // The reload reads the table as it was before the writes committed
+        when(productRepository.findAllNames()).thenAnswer(invocation -> {
+            namePrefixIndex.onProductChanged(ProductChangedEvent.updated(bread, bread.toBuilder().name("Brioche").build()));
+            namePrefixIndex.onProductChanged(ProductChangedEvent.deleted(Product.builder().id("2").name("beef jerky").build()));
+            return List.of(new ProductName("2", "beef jerky"), new ProductName("3", "Bread"));
+        });
+
+        // when
+        namePrefixIndex.initialize();
+
+        // then
+        assertEquals(List.of("Brioche"), suggestedNames("br", 10));
+        assertEquals(List.of("Beverages"), suggestedNames("be", 10));
+    }
+}
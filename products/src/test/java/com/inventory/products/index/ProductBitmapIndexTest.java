@@ -0,0 +1,115 @@
+package com.inventory.products.index;
+
+import com.inventory.products.dto.ProductFacetCount;
+import com.inventory.products.dto.ProductStockState;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductBitmapIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductBitmapIndex productBitmapIndex;
+
+    @BeforeEach
+    void setUp() {
+        productBitmapIndex = new ProductBitmapIndex(productRepository, 3);
+        when(productRepository.findAllStockStates()).thenReturn(List.of(
+                new ProductStockState("1", "Food", 10),
+                new ProductStockState("2", "Food", 0),
+                new ProductStockState("3", "Dairy", 4),
+                new ProductStockState("4", "Electronics", 0)));
+        productBitmapIndex.initialize();
+    }
+
+    @Test
+    public void givenIndexedProducts_whenFindCandidates_thenOrCategoriesAndAndAvailability() {
+        assertEquals(Optional.of(Set.of("1", "3")), productBitmapIndex.findCandidates(List.of("Food", "Dairy"), true, null));
+        assertEquals(Optional.of(Set.of("2")), productBitmapIndex.findCandidates(List.of("Food", "Dairy"), false, null));
+        assertEquals(Optional.of(Set.of("2", "4")), productBitmapIndex.findCandidates(null, false, null));
+        assertEquals(Optional.of(Set.of()), productBitmapIndex.findCandidates(List.of("Toys"), null, null));
+    }
+
+    @Test
+    public void givenIdsFromNameIndex_whenFindCandidates_thenIntersectWithThem() {
+        assertEquals(Optional.of(Set.of("1")), productBitmapIndex.findCandidates(List.of("Food"), null, Set.of("1", "3")));
+    }
+
+    @Test
+    public void givenNoFilterOrTooManyMatches_whenFindCandidates_thenIndexDoesNotAnswer() {
+        assertEquals(Optional.empty(), productBitmapIndex.findCandidates(null, null, null));
+        assertEquals(Optional.empty(), productBitmapIndex.findCandidates(List.of("Food", "Dairy", "Electronics"), null, null));
+    }
+
+    @Test
+    public void givenIndexedProducts_whenFindFacetCounts_thenCountEachCategoryAndStockState() {
+        List<ProductFacetCount> facetCounts = productBitmapIndex.findFacetCounts(Set.of("1", "2", "3")).orElseThrow();
+
+        assertEquals(List.of(
+                        new ProductFacetCount("Dairy", true, 1L),
+                        new ProductFacetCount("Food", false, 1L),
+                        new ProductFacetCount("Food", true, 1L)),
+                facetCounts.stream()
+                        .sorted(Comparator.comparing(ProductFacetCount::getCategoryName)
+                                .thenComparing(ProductFacetCount::getInStock))
+                        .toList());
+    }
+
+    @Test
+    public void givenMovedRestockedAndDeletedProducts_whenFindCandidates_thenIndexFollowsWrites() {
+        Category food = Category.builder().categoryName("Food").build();
+        Product bread = Product.builder().id("2").category(food).inStock(0).build();
+
+        productBitmapIndex.onProductChanged(ProductChangedEvent.updated(bread, bread.toBuilder().inStock(6).build()));
+        productBitmapIndex.onProductChanged(ProductChangedEvent.updated(
+                Product.builder().id("3").category(Category.builder().categoryName("Dairy").build()).inStock(4).build(),
+                Product.builder().id("3").category(food).inStock(4).build()));
+        productBitmapIndex.onProductChanged(ProductChangedEvent.deleted(Product.builder().id("1").category(food).build()));
+        productBitmapIndex.onProductChanged(ProductChangedEvent.created(Product.builder().id("5").category(food).inStock(0).build()));
+
+        assertEquals(Optional.of(Set.of("2", "3")), productBitmapIndex.findCandidates(List.of("Food"), true, null));
+        assertEquals(Optional.of(Set.of("5")), productBitmapIndex.findCandidates(List.of("Food"), false, null));
+        assertEquals(Optional.of(Set.of()), productBitmapIndex.findCandidates(List.of("Dairy"), null, null));
+    }
+
+    @Test
+    public void givenWritesDuringReload_whenInitialize_thenLoadedIndexKeepsThem() {
+        // given
+        Category food = Category.builder().categoryName("Food").build();
+        // The reload reads the table as it was before the writes committed
+        when(productRepository.findAllStockStates()).thenAnswer(invocation -> {
+            productBitmapIndex.onProductChanged(ProductChangedEvent.updated(
+                    Product.builder().id("2").category(food).inStock(0).build(),
+                    Product.builder().id("2").category(food).inStock(6).build()));
+            productBitmapIndex.onProductChanged(ProductChangedEvent.deleted(Product.builder().id("1").category(food).build()));
+            return List.of(
+                    new ProductStockState("1", "Food", 10),
+                    new ProductStockState("2", "Food", 0));
+        });
+
+        // when
+        productBitmapIndex.initialize();
+
+        // then
+        assertEquals(Optional.of(Set.of("2")), productBitmapIndex.findCandidates(List.of("Food"), true, null));
+        assertEquals(Optional.of(Set.of()), productBitmapIndex.findCandidates(List.of("Food"), false, null));
+        assertEquals(Optional.of(Set.of()), productBitmapIndex.findCandidates(List.of("Dairy"), null, null));
+    }
+}
@@ -0,0 +1,89 @@
+package com.inventory.products.index;
+
+import com.inventory.products.dto.ProductName;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductNameIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductNameIndex productNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        productNameIndex = new ProductNameIndex(productRepository, 2);
+        when(productRepository.findAllNames()).thenReturn(List.of(
+                new ProductName("1", "Laptop Pro"),
+                new ProductName("2", "Gaming LAPTOP"),
+                new ProductName("3", "Apple Pie")));
+        productNameIndex.initialize();
+    }
+
+    @Test
+    public void givenIndexedNames_whenFindCandidates_thenMatchSubstringIgnoringCase() {
+        assertEquals(Optional.of(Set.of("1", "2")), productNameIndex.findCandidates("apto"));
+        assertEquals(Optional.of(Set.of("3")), productNameIndex.findCandidates("PLE P"));
+        assertEquals(Optional.of(Set.of()), productNameIndex.findCandidates("tablet"));
+    }
+
+    @Test
+    public void givenShortFilter_whenFindCandidates_thenIndexDoesNotAnswer() {
+        assertEquals(Optional.empty(), productNameIndex.findCandidates("la"));
+        assertEquals(Optional.empty(), productNameIndex.findCandidates(null));
+    }
+
+    @Test
+    public void givenTooManyMatches_whenFindCandidates_thenIndexDoesNotAnswer() {
+        productNameIndex.add("4", "Laptop Stand");
+
+        assertEquals(Optional.empty(), productNameIndex.findCandidates("lap"));
+    }
+
+    @Test
+    public void givenRenamedAndDeletedProducts_whenFindCandidates_thenIndexFollowsWrites() {
+        Product laptop = Product.builder().id("1").name("Laptop Pro").build();
+
+        productNameIndex.onProductChanged(ProductChangedEvent.updated(laptop, laptop.toBuilder().name("Notebook Pro").build()));
+        productNameIndex.onProductChanged(ProductChangedEvent.deleted(Product.builder().id("3").name("Apple Pie").build()));
+
+        assertEquals(Optional.of(Set.of("2")), productNameIndex.findCandidates("laptop"));
+        assertEquals(Optional.of(Set.of("1")), productNameIndex.findCandidates("notebook"));
+        assertEquals(Optional.of(Set.of()), productNameIndex.findCandidates("apple"));
+    }
+
+    @Test
+    public void givenWritesDuringReload_whenInitialize_thenLoadedIndexKeepsThem() {
+        // given
+        Product laptop = Product.builder().id("1").name("Laptop Pro").build();
+        // The reload reads the table as it was before the writes committed
+        when(productRepository.findAllNames()).thenAnswer(invocation -> {
+            productNameIndex.onProductChanged(ProductChangedEvent.updated(laptop, laptop.toBuilder().name("Notebook Pro").build()));
+            productNameIndex.onProductChanged(ProductChangedEvent.deleted(Product.builder().id("3").name("Apple Pie").build()));
+            return List.of(new ProductName("1", "Laptop Pro"), new ProductName("3", "Apple Pie"));
+        });
+
+        // when
+        productNameIndex.initialize();
+
+        // then
+        assertEquals(Optional.of(Set.of()), productNameIndex.findCandidates("laptop"));
+        assertEquals(Optional.of(Set.of("1")), productNameIndex.findCandidates("notebook"));
+        assertEquals(Optional.of(Set.of()), productNameIndex.findCandidates("apple"));
+    }
+}
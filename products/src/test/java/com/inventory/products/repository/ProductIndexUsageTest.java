@@ -0,0 +1,201 @@
+package com.inventory.products.repository;
+
+import com.inventory.products.dto.ProductFilter;
+import com.inventory.products.dto.ProductKeyset;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Checks the H2 plans of the statements Hibernate generates for the product queries against the indexes from the migrations
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.inventory.products.repository.ProductIndexUsageTest$CapturedStatements")
+public class ProductIndexUsageTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        Category[] categories = {
+                entityManager.persist(Category.builder().categoryName("Drinks").build()),
+                entityManager.persist(Category.builder().categoryName("Snacks").build()),
+                entityManager.persist(Category.builder().categoryName("Tools").build())
+        };
+        for (int i = 0; i < 300; i++) {
+            entityManager.persist(Product.builder()
+                    .id(UUID.randomUUID().toString())
+                    .name("Indexed product " + i)
+                    .category(categories[i % categories.length])
+                    .unitPrice(new BigDecimal(i + 1))
+                    .expirationDate(LocalDate.of(2025, 1, 1).plusDays(i))
+                    .inStock(i % 4)
+                    .build());
+        }
+        entityManager.flush();
+    }
+
+    // Keeps every statement Hibernate prepares, so the plans are those of the SQL actually sent
+    public static class CapturedStatements implements StatementInspector {
+        private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    // Runs the query and explains the select it sent, with the parameters it was given in order
+    private String explain(Runnable query, Object... parameters) {
+        CapturedStatements.statements.clear();
+        query.run();
+        String sql = CapturedStatements.statements.stream()
+                .filter(statement -> statement.startsWith("select"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    private String explainSlice(ProductFilter filter, Sort sort, Object... parameters) {
+        return explain(() -> productRepository.findSliceByFilter(filter, PageRequest.of(0, 10, sort)), parameters);
+    }
+
+    private void assertUsesIndex(String plan, String indexName) {
+        assertTrue(plan.contains("PUBLIC." + indexName.toUpperCase()), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    public void givenNameExistenceCheck_whenExplain_thenUseUniqueNameKeyIndex() {
+        String plan = explain(() -> productRepository.existsByName("Indexed Product 7"), "indexed product 7", 1);
+
+        assertUsesIndex(plan, "ux_product_name_key");
+    }
+
+    @Test
+    public void givenCategoryAndAvailabilityFilter_whenExplain_thenUseCategoryStockIndex() {
+        ProductFilter filter = ProductFilter.builder().categoryNames(List.of("Drinks", "Tools")).available(true).build();
+
+        String plan = explainSlice(filter, Sort.by("name"), "Drinks", "Tools", 0, 11);
+
+        assertTrue(plan.contains("PUBLIC.IDX_PRODUCT_CATEGORY_STOCK_"), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    public void givenCategoryFilter_whenExplain_thenAvoidTableScan() {
+        ProductFilter filter = ProductFilter.builder().categoryNames(List.of("Snacks")).build();
+
+        String plan = explainSlice(filter, Sort.by("name"), "Snacks", 11);
+
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    public void givenAvailabilityFilter_whenExplain_thenUseInStockIndex() {
+        assertUsesIndex(explainSlice(ProductFilter.builder().available(true).build(), Sort.by("id"), 0, 11),
+                "idx_product_in_stock_id");
+        assertUsesIndex(explainSlice(ProductFilter.builder().available(false).build(), Sort.by("id"), 0, 11),
+                "idx_product_in_stock_id");
+    }
+
+    @Test
+    public void givenExpirationWindow_whenExplain_thenUseExpirationDateIndex() {
+        LocalDate from = LocalDate.of(2025, 2, 1);
+        LocalDate until = LocalDate.of(2025, 2, 10);
+        ProductFilter filter = ProductFilter.builder().expiringFrom(from).expiringUntil(until).build();
+
+        String plan = explainSlice(filter, Sort.by("expirationDate"), from, until, 11);
+
+        assertUsesIndex(plan, "idx_product_expiration_date_id");
+    }
+
+    @Test
+    public void givenPriceRange_whenExplain_thenUseUnitPriceIndex() {
+        BigDecimal min = new BigDecimal("20");
+        BigDecimal max = new BigDecimal("40");
+        ProductFilter filter = ProductFilter.builder().minPrice(min).maxPrice(max).build();
+
+        String plan = explainSlice(filter, Sort.by("unitPrice"), min, max, 11);
+
+        assertUsesIndex(plan, "idx_product_unit_price_id");
+    }
+
+    @Test
+    public void givenTopNQueries_whenExplain_thenReadRowsInIndexOrder() {
+        String byStockValue = explain(() -> productRepository.findTopByStockValue(Limit.of(20)), 20);
+        String byStock = explain(() -> productRepository.findLowestStock(Limit.of(20)), 20);
+
+        assertUsesIndex(byStockValue, "idx_product_stock_value_id");
+        assertTrue(byStockValue.contains("index sorted"), byStockValue);
+        assertUsesIndex(byStock, "idx_product_in_stock_id");
+        assertTrue(byStock.contains("index sorted"), byStock);
+    }
+
+    @Test
+    public void givenSortedPage_whenExplain_thenReadRowsInIndexOrder() {
+        ProductFilter noFilter = new ProductFilter();
+
+        String byName = explainSlice(noFilter, Sort.by("name", "id"), 11);
+        String byPrice = explainSlice(noFilter, Sort.by("unitPrice", "id"), 11);
+        String byExpiration = explainSlice(noFilter, Sort.by("expirationDate"), 11);
+
+        assertUsesIndex(byName, "idx_product_name_id");
+        assertTrue(byName.contains("index sorted"), byName);
+        assertUsesIndex(byPrice, "idx_product_unit_price_id");
+        assertTrue(byPrice.contains("index sorted"), byPrice);
+        assertUsesIndex(byExpiration, "idx_product_expiration_date_id");
+        assertTrue(byExpiration.contains("index sorted"), byExpiration);
+    }
+
+    @Test
+    public void givenKeysetPage_whenExplain_thenReadRowsInIndexOrder() {
+        ProductFilter noFilter = new ProductFilter();
+        LocalDate lastDate = LocalDate.of(2025, 3, 1);
+        ProductKeyset afterDate = ProductKeyset.builder().sortProperty("expirationDate").direction(Sort.Direction.ASC)
+                .lastValue(lastDate).lastId("m").build();
+        ProductKeyset afterUndated = ProductKeyset.builder().sortProperty("expirationDate").direction(Sort.Direction.DESC)
+                .lastId("m").build();
+        ProductKeyset afterUnpriced = ProductKeyset.builder().sortProperty("unitPrice").direction(Sort.Direction.ASC)
+                .lastId("m").build();
+
+        String byDate = explain(() -> productRepository.findByFilterAfter(noFilter, afterDate, 11), lastDate, lastDate, "m", 11);
+        String byDateDescending = explain(() -> productRepository.findByFilterAfter(noFilter, afterUndated, 11), "m", 11);
+        String byPrice = explain(() -> productRepository.findByFilterAfter(noFilter, afterUnpriced, 11), "m", 11);
+
+        assertUsesIndex(byDate, "idx_product_expiration_date_id");
+        assertTrue(byDate.contains("index sorted"), byDate);
+        assertUsesIndex(byDateDescending, "idx_product_expiration_date_id");
+        assertTrue(byDateDescending.contains("index sorted"), byDateDescending);
+        assertUsesIndex(byPrice, "idx_product_unit_price_id");
+        assertTrue(byPrice.contains("index sorted"), byPrice);
+    }
+}
@@ -0,0 +1,374 @@
+package com.inventory.products.repository;
+
+import com.inventory.products.dto.CategoryStockTotals;
+import com.inventory.products.dto.ProductFacetCount;
+import com.inventory.products.dto.ProductFilter;
+import com.inventory.products.dto.ProductKeyset;
+import com.inventory.products.dto.ProductSummary;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import com.inventory.products.service.impl.InventoryMetricsAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+public class ProductRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Category electronics;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        electronics = entityManager.persist(Category.builder().categoryName("Electronics").build());
+        food = entityManager.persist(Category.builder().categoryName("Food").build());
+    }
+
+    private Product persistProduct(String name, Category category, String unitPrice, int inStock) {
+        return persistProduct(name, category, unitPrice, inStock, null);
+    }
+
+    private Product persistProduct(String name, Category category, String unitPrice, int inStock, LocalDate expirationDate) {
+        return entityManager.persist(Product.builder()
+                .id(UUID.randomUUID().toString())
+                .name(name)
+                .category(category)
+                .unitPrice(new BigDecimal(unitPrice))
+                .expirationDate(expirationDate)
+                .inStock(inStock)
+                .build());
+    }
+
+    private List<String> scrollAllNames(ProductFilter filter, String sortProperty, Sort.Direction direction, int pageSize) {
+        List<String> names = new ArrayList<>();
+        ProductKeyset keyset = ProductKeyset.builder().sortProperty(sortProperty).direction(direction).build();
+        List<Product> page;
+        do {
+            page = productRepository.findByFilterAfter(filter, keyset, pageSize);
+            page.forEach(product -> names.add(product.getName()));
+            if (!page.isEmpty()) {
+                Product last = page.getLast();
+                keyset = ProductRepositoryCustom.keysetAfter(last, Sort.Order.by(sortProperty).with(direction));
+            }
+        } while (page.size() == pageSize);
+        return names;
+    }
+
+    @Test
+    public void givenNewProductWithoutCreationDate_whenInsertAndFlush_thenStampToday() {
+        // given
+        Product product = Product.builder().id(UUID.randomUUID().toString()).name("Milk").category(food)
+                .unitPrice(new BigDecimal("0.90")).inStock(3).build();
+
+        // when
+        productRepository.insertAndFlush(List.of(product));
+
+        // then
+        assertEquals(LocalDate.now(), product.getCreatedAt());
+        assertEquals(LocalDate.now(), productRepository.findById(product.getId()).orElseThrow().getCreatedAt());
+    }
+
+    @Test
+    public void givenProducts_whenFindInStockTotalsByCategory_thenMatchTotalsComputedFromEntities() {
+        // given
+        persistProduct("Laptop", electronics, "1200.00", 2);
+        persistProduct("Phone", electronics, "799.99", 3);
+        persistProduct("Apple", food, "1.50", 10);
+        persistProduct("Bread", food, "2.00", 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        InventoryMetricsAggregator metricsAggregator = new InventoryMetricsAggregator();
+        productRepository.findAll().forEach(product ->
+                metricsAggregator.onProductChanged(ProductChangedEvent.created(product)));
+
+        // when
+        List<CategoryStockTotals> totals = productRepository.findInStockTotalsByCategory();
+
+        // then
+        Comparator<CategoryStockTotals> byName = Comparator.comparing(CategoryStockTotals::getCategoryName);
+        assertEquals(
+                metricsAggregator.snapshot().stream().sorted(byName).toList(),
+                totals.stream().sorted(byName).toList());
+        CategoryStockTotals electronicsTotals = totals.stream().sorted(byName).toList().getFirst();
+        assertEquals(5L, electronicsTotals.getTotalUnitsInStock());
+        assertEquals(new BigDecimal("4799.97"), electronicsTotals.getTotalValueInStock());
+        assertEquals(new BigDecimal("1999.99"), electronicsTotals.getSumOfUnitPrices());
+        assertEquals(2L, electronicsTotals.getProductsInStock());
+    }
+
+    @Test
+    public void givenNoProductsInStock_whenFindInStockTotalsByCategory_thenReturnNoRows() {
+        // given
+        persistProduct("Bread", food, "2.00", 0);
+        entityManager.flush();
+
+        // when
+        List<CategoryStockTotals> totals = productRepository.findInStockTotalsByCategory();
+
+        // then
+        assertEquals(0, totals.size());
+    }
+
+    @Test
+    public void givenTiedPrices_whenScrollByUnitPrice_thenEveryProductIsReturnedOnce() {
+        // given
+        persistProduct("Apple", food, "1.50", 10);
+        persistProduct("Banana", food, "1.50", 5);
+        persistProduct("Cherry", food, "1.50", 0);
+        persistProduct("Laptop", electronics, "1200.00", 2);
+        persistProduct("Mouse", electronics, "20.00", 7);
+        entityManager.flush();
+
+        // when
+        List<String> names = scrollAllNames(new ProductFilter(), "unitPrice", Sort.Direction.DESC, 2);
+
+        // then
+        assertEquals(5, names.size());
+        assertEquals(List.of("Laptop", "Mouse"), names.subList(0, 2));
+        assertEquals(5, names.stream().distinct().count());
+    }
+
+    @Test
+    public void givenMissingExpirationDates_whenScrollByExpirationDate_thenProductsWithoutDateComeLast() {
+        // given
+        persistProduct("Milk", food, "1.00", 3, LocalDate.of(2025, 1, 10));
+        persistProduct("Rice", food, "2.00", 3, null);
+        persistProduct("Yogurt", food, "1.20", 3, LocalDate.of(2025, 1, 5));
+        persistProduct("Salt", food, "0.50", 3, null);
+        entityManager.flush();
+
+        // when
+        List<String> names = scrollAllNames(new ProductFilter(), "expirationDate", Sort.Direction.ASC, 1);
+
+        // then
+        assertEquals(List.of("Yogurt", "Milk"), names.subList(0, 2));
+        assertEquals(4, names.size());
+    }
+
+    @Test
+    public void givenUnpricedProducts_whenScrollByUnitPrice_thenTheyComeLastAscendingAndFirstDescending() {
+        // given
+        persistProduct("Apple", food, "1.50", 10);
+        persistProduct("Bread", food, "0", 4).setUnitPrice(null);
+        persistProduct("Cheese", food, "4.00", 2);
+        persistProduct("Donut", food, "0", 6).setUnitPrice(null);
+        persistProduct("Egg", food, "2.00", 12);
+        entityManager.flush();
+
+        // when
+        List<String> ascending = scrollAllNames(new ProductFilter(), "unitPrice", Sort.Direction.ASC, 1);
+        List<String> descending = scrollAllNames(new ProductFilter(), "unitPrice", Sort.Direction.DESC, 1);
+
+        // then
+        assertEquals(List.of("Apple", "Egg", "Cheese"), ascending.subList(0, 3));
+        assertEquals(Set.of("Bread", "Donut"), Set.copyOf(ascending.subList(3, 5)));
+        assertEquals(Set.of("Bread", "Donut"), Set.copyOf(descending.subList(0, 2)));
+        assertEquals(List.of("Cheese", "Egg", "Apple"), descending.subList(2, 5));
+        assertEquals(5, ascending.size());
+        assertEquals(5, descending.size());
+    }
+
+    @Test
+    public void givenFilters_whenScrollByName_thenOnlyMatchingProductsAreReturned() {
+        // given
+        persistProduct("Green Apple", food, "1.50", 10);
+        persistProduct("Red Apple", food, "1.60", 0);
+        persistProduct("Apple Watch", electronics, "300.00", 4);
+        persistProduct("Banana", food, "1.10", 8);
+        entityManager.flush();
+        ProductFilter filter = ProductFilter.builder()
+                .name("apple")
+                .categoryNames(List.of("Food"))
+                .available(true)
+                .build();
+
+        // when
+        List<String> names = scrollAllNames(filter, "name", Sort.Direction.ASC, 1);
+
+        // then
+        assertEquals(List.of("Green Apple"), names);
+    }
+
+    @Test
+    public void givenPriceRangeAndExpirationWindow_whenScrollByName_thenOnlyProductsInsideBothBoundsAreReturned() {
+        // given
+        persistProduct("Cheese", food, "4.00", 2, LocalDate.of(2025, 3, 10));
+        persistProduct("Cream", food, "2.50", 6, LocalDate.of(2025, 3, 3));
+        persistProduct("Milk", food, "1.00", 3, LocalDate.of(2025, 3, 5));
+        persistProduct("Yogurt", food, "2.00", 3, LocalDate.of(2025, 3, 20));
+        persistProduct("Rice", food, "3.00", 3, null);
+        entityManager.flush();
+        ProductFilter filter = ProductFilter.builder()
+                .minPrice(new BigDecimal("2.00"))
+                .maxPrice(new BigDecimal("4.00"))
+                .expiringFrom(LocalDate.of(2025, 3, 3))
+                .expiringUntil(LocalDate.of(2025, 3, 10))
+                .build();
+
+        // when
+        List<String> names = scrollAllNames(filter, "name", Sort.Direction.ASC, 10);
+
+        // then
+        assertEquals(List.of("Cheese", "Cream"), names);
+        assertEquals(2, productRepository.countByFilter(filter));
+    }
+
+    @Test
+    public void givenProducts_whenFindTopByStockValue_thenRankByPriceTimesStockComputedInDatabase() {
+        // given
+        persistProduct("Laptop", electronics, "1200.00", 2);
+        persistProduct("Phone", electronics, "799.99", 4);
+        persistProduct("Apple", food, "1.50", 1000);
+        persistProduct("Bread", food, "2.00", 0);
+        Product mouse = persistProduct("Mouse", electronics, "20.00", 1);
+        entityManager.flush();
+        productRepository.adjustStock(mouse.getId(), 199, LocalDate.of(2025, 1, 1));
+
+        // when
+        List<String> names = productRepository.findTopByStockValue(Limit.of(3)).stream()
+                .map(ProductSummary::getName).toList();
+
+        // then
+        assertEquals(List.of("Mouse", "Phone", "Laptop"), names);
+    }
+
+    @Test
+    public void givenSavedAndUpdatedProduct_whenGetStockValue_thenMatchTheValueTheDatabaseComputed() {
+        // given
+        Product phone = persistProduct("Phone", electronics, "799.99", 4);
+        entityManager.flush();
+        phone.setInStock(3);
+
+        // when
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        assertEquals(new BigDecimal("2399.97"), phone.getStockValue());
+        assertEquals(new BigDecimal("2399.97"), productRepository.findFreshById(phone.getId()).orElseThrow().getStockValue());
+    }
+
+    @Test
+    public void givenProducts_whenFindLowestStockAndSoonestExpiring_thenReturnTheFirstProductsInOrder() {
+        // given
+        LocalDate today = LocalDate.of(2025, 5, 1);
+        persistProduct("Milk", food, "1.00", 3, today.plusDays(2));
+        persistProduct("Yogurt", food, "1.20", 8, today);
+        persistProduct("Cheese", food, "4.00", 0, today.plusDays(1));
+        persistProduct("Old Bread", food, "2.00", 5, today.minusDays(1));
+        persistProduct("Rice", food, "2.00", 1, null);
+        entityManager.flush();
+
+        // when
+        List<String> lowestStock = productRepository.findLowestStock(Limit.of(3)).stream()
+                .map(ProductSummary::getName).toList();
+        List<String> soonestExpiring = productRepository.findSoonestExpiring(today, Limit.of(5)).stream()
+                .map(ProductSummary::getName).toList();
+
+        // then
+        assertEquals(List.of("Cheese", "Rice", "Milk"), lowestStock);
+        assertEquals(List.of("Yogurt", "Milk"), soonestExpiring);
+    }
+
+    @Test
+    public void givenCategoryFilter_whenUpdateStockByFilter_thenChangeOnlyRowsNotAlreadyAtTargetStock() {
+        // given
+        persistProduct("Cola", food, "1.50", 12);
+        persistProduct("Lemonade", food, "2.00", 0);
+        persistProduct("Laptop", electronics, "1200.00", 2);
+        entityManager.flush();
+        ProductFilter filter = ProductFilter.builder().categoryNames(List.of("Food")).build();
+        LocalDate today = LocalDate.of(2025, 4, 1);
+
+        // when
+        List<ProductSummary> changes = productRepository.lockStockChanges(filter, 0);
+        int updated = productRepository.updateStockByFilter(filter, 0, today);
+        entityManager.clear();
+
+        // then
+        assertEquals(List.of("Cola"), changes.stream().map(ProductSummary::getName).toList());
+        assertEquals(1, updated);
+        List<Product> foodProducts = productRepository.findAll().stream()
+                .filter(product -> product.getCategory().getCategoryName().equals("Food"))
+                .sorted(Comparator.comparing(Product::getName))
+                .toList();
+        assertEquals(List.of(0, 0), foodProducts.stream().map(Product::getInStock).toList());
+        assertEquals(today, foodProducts.getFirst().getUpdatedAt());
+        assertNull(foodProducts.get(1).getUpdatedAt());
+        assertEquals(2, productRepository.findAll().stream()
+                .filter(product -> product.getName().equals("Laptop")).findFirst().orElseThrow().getInStock());
+    }
+
+    @Test
+    public void givenPercentFactor_whenAdjustPrices_thenRoundInDatabaseLikeBigDecimalHalfUp() {
+        // given
+        Product cola = persistProduct("Cola", food, "1.99", 12);
+        Product water = persistProduct("Water", food, "0.45", 3);
+        Product laptop = persistProduct("Laptop", electronics, "1200.00", 2);
+        entityManager.flush();
+        BigDecimal factor = new BigDecimal("1.04");
+
+        // when
+        List<ProductSummary> locked = productRepository.lockPricedProducts(
+                ProductFilter.builder().categoryNames(List.of("Food")).build());
+        int updated = productRepository.adjustPrices(locked.stream().map(ProductSummary::getId).toList(),
+                factor, BigDecimal.ZERO, LocalDate.of(2025, 4, 1));
+
+        // then
+        assertEquals(2, updated);
+        for (Product product : List.of(cola, water)) {
+            Product adjusted = productRepository.findById(product.getId()).orElseThrow();
+            assertEquals(product.getUnitPrice().multiply(factor).setScale(2, RoundingMode.HALF_UP), adjusted.getUnitPrice());
+            assertEquals(LocalDate.of(2025, 4, 1), adjusted.getUpdatedAt());
+        }
+        assertEquals(new BigDecimal("1200.00"), productRepository.findById(laptop.getId()).orElseThrow().getUnitPrice());
+    }
+
+    @Test
+    public void givenNameFilter_whenFindFacetCounts_thenCountEachCategoryAndStockStateOfMatchingProducts() {
+        // given
+        persistProduct("Green Apple", food, "1.50", 10);
+        persistProduct("Red Apple", food, "1.60", 0);
+        persistProduct("Apple Juice", food, "2.10", 3);
+        persistProduct("Apple Watch", electronics, "300.00", 4);
+        persistProduct("Banana", food, "1.10", 8);
+        entityManager.flush();
+
+        // when
+        List<ProductFacetCount> facetCounts = productRepository.findFacetCounts(ProductFilter.builder().name("apple").build());
+
+        // then
+        assertEquals(List.of(
+                        new ProductFacetCount("Electronics", true, 1L),
+                        new ProductFacetCount("Food", false, 1L),
+                        new ProductFacetCount("Food", true, 2L)),
+                facetCounts.stream()
+                        .sorted(Comparator.comparing(ProductFacetCount::getCategoryName)
+                                .thenComparing(ProductFacetCount::getInStock))
+                        .toList());
+    }
+}
@@ -1,19 +1,20 @@
 package com.inventory.products.service.impl;
 
+import com.inventory.products.event.CategoryCreatedEvent;
 import com.inventory.products.exception.EntityAlreadyExistsException;
 import com.inventory.products.exception.EntityInvalidArguments;
 import com.inventory.products.exception.EntityNotFoundException;
 import com.inventory.products.model.Category;
 import com.inventory.products.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,9 +26,16 @@ public class CategoryServiceImplTest {
     @Mock
     private CategoryRepository categoryRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private CategoryServiceImpl categoryService;
 
+    @BeforeEach
+    void setUp() {
+        categoryService = new CategoryServiceImpl(categoryRepository, new CategoryCache(categoryRepository), eventPublisher);
+    }
+
     @Test
     public void givenCategory_whenCategoryIsCreated_thenCreateCategory(){
         // given
@@ -42,6 +50,7 @@ public class CategoryServiceImplTest {
         assertNotNull(createdCategory);
         assertEquals("TestCategory", createdCategory.getCategoryName());
         verify(categoryRepository).save(categoryToCreate);
+        verify(eventPublisher).publishEvent(new CategoryCreatedEvent(categoryToCreate));
     }
 
     @Test
@@ -98,7 +107,7 @@ public class CategoryServiceImplTest {
     @Test
     public void givenNoCategories_whenGetAllCategories_thenReturnEmptyArray(){
         // given
-        when(categoryService.getAllCategories()).thenReturn(new ArrayList<>());
+        when(categoryRepository.findAll()).thenReturn(new ArrayList<>());
 
         // when
         List<Category> categoryList = categoryService.getAllCategories();
@@ -133,22 +142,42 @@ public class CategoryServiceImplTest {
         // given
         String categoryName = "Electronics";
         Category expectedCategory = Category.builder().categoryName(categoryName).build();
-        when(categoryRepository.findByCategoryName(categoryName)).thenReturn(Optional.ofNullable(expectedCategory));
+        when(categoryRepository.findAll()).thenReturn(List.of(expectedCategory));
 
         // when
         Category actualCategory = categoryService.getCategoryByName(categoryName);
+        categoryService.getCategoryByName(categoryName);
 
         // then
         assertNotNull(actualCategory);
         assertEquals(categoryName, actualCategory.getCategoryName());
-        verify(categoryRepository, times(1)).findByCategoryName(categoryName);
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void givenCachedCategories_whenCategoryIsCreated_thenReloadThemOnNextRead() {
+        // given
+        Category food = Category.builder().categoryName("Food").build();
+        Category tools = Category.builder().categoryName("Tools").build();
+        when(categoryRepository.findAll()).thenReturn(List.of(food), List.of(food, tools));
+        when(categoryRepository.existsByCategoryName("Tools")).thenReturn(false);
+        when(categoryRepository.save(tools)).thenReturn(tools);
+        categoryService.getAllCategories();
+
+        // when
+        categoryService.createCategory(tools);
+
+        // then
+        assertEquals(tools, categoryService.getCategoryByName("Tools"));
+        assertEquals(2, categoryService.getAllCategories().size());
+        verify(categoryRepository, times(2)).findAll();
     }
 
     @Test
     void testGetCategoryByName_CategoryDoesNotExist() {
         // given
         String categoryName = "NonExistent";
-        when(categoryRepository.findByCategoryName(categoryName)).thenReturn(Optional.empty());
+        when(categoryRepository.findAll()).thenReturn(List.of());
 
         // when
         // then
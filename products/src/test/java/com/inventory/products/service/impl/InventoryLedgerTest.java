@@ -0,0 +1,226 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.StockBalance;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.InventoryMovement;
+import com.inventory.products.model.InventorySnapshot;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.InventoryMovementRepository;
+import com.inventory.products.repository.InventorySnapshotItemRepository;
+import com.inventory.products.repository.InventorySnapshotRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "inventory.ledger.daily-snapshot-retention-days=2",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(InventoryLedger.class)
+public class InventoryLedgerTest {
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+
+    @Autowired
+    private InventorySnapshotRepository snapshotRepository;
+
+    @Autowired
+    private InventorySnapshotItemRepository snapshotItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final Category food = Category.builder().categoryName("Food").build();
+
+    private Product product(String id, int inStock, String unitPrice) {
+        return Product.builder().id(id).name("Product " + id).category(food)
+                .unitPrice(new BigDecimal(unitPrice)).inStock(inStock).build();
+    }
+
+    @Test
+    public void givenProductChanges_whenGetMovements_thenAppendOneEntryPerStockOrPriceChange() {
+        // given
+        Product apple = product("1", 10, "1.20");
+        inventoryLedger.onProductChanged(ProductChangedEvent.created(apple));
+        inventoryLedger.onProductChanged(ProductChangedEvent.updated(apple, apple.toBuilder().inStock(7).build()));
+        inventoryLedger.onProductChanged(ProductChangedEvent.updated(apple.toBuilder().inStock(7).build(),
+                apple.toBuilder().name("Green Apple").inStock(7).build()));
+        inventoryLedger.onProductChanged(ProductChangedEvent.deleted(apple.toBuilder().inStock(7).build()));
+
+        // when
+        List<InventoryMovement> movements = inventoryLedger.getMovements("1", Limit.of(10));
+
+        // then
+        assertEquals(List.of(InventoryMovement.Type.DELETED, InventoryMovement.Type.UPDATED, InventoryMovement.Type.CREATED),
+                movements.stream().map(InventoryMovement::getType).toList());
+        assertEquals(List.of(-7, -3, 10), movements.stream().map(InventoryMovement::getQuantityDelta).toList());
+        assertEquals(List.of(0, 7, 10), movements.stream().map(InventoryMovement::getInStock).toList());
+    }
+
+    @Test
+    public void givenSnapshot_whenRebuildBalances_thenApplyOnlyTheTailToIt() {
+        // given
+        Product apple = product("1", 10, "1.20");
+        Product bread = product("2", 4, "2.50");
+        inventoryLedger.onProductChanged(ProductChangedEvent.created(apple));
+        inventoryLedger.onProductChanged(ProductChangedEvent.created(bread));
+        inventoryLedger.onProductChanged(ProductChangedEvent.updated(apple, apple.toBuilder().inStock(6).build()));
+        InventorySnapshot snapshot = inventoryLedger.takeSnapshot(LocalDateTime.now()).orElseThrow();
+
+        inventoryLedger.onProductChanged(ProductChangedEvent.updated(bread, bread.toBuilder().unitPrice(new BigDecimal("2.75")).build()));
+        inventoryLedger.onProductChanged(ProductChangedEvent.deleted(apple.toBuilder().inStock(6).build()));
+        inventoryLedger.onProductChanged(ProductChangedEvent.created(product("3", 9, "0.40")));
+
+        // when
+        Map<String, StockBalance> balances = inventoryLedger.rebuildBalances();
+
+        // then
+        assertEquals(2, snapshotItemRepository.findBalancesBySnapshotId(snapshot.getId()).size());
+        assertEquals(3, movementRepository.countByIdGreaterThan(snapshot.getLastMovementId()));
+        assertEquals(Map.of(
+                "2", new StockBalance("2", "Food", 4, new BigDecimal("2.75")),
+                "3", new StockBalance("3", "Food", 9, new BigDecimal("0.40"))), balances);
+    }
+
+    @Test
+    public void givenNoMovementsSinceLastSnapshot_whenTakeSnapshot_thenSkipIt() {
+        // given
+        inventoryLedger.onProductChanged(ProductChangedEvent.created(product("1", 10, "1.20")));
+        assertTrue(inventoryLedger.takeSnapshot(LocalDateTime.now()).isPresent());
+
+        // when
+        // then
+        assertTrue(inventoryLedger.takeSnapshot(LocalDateTime.now()).isEmpty());
+    }
+
+    private void givenMovement(String productId, InventoryMovement.Type type, int inStock, String unitPrice,
+                               LocalDateTime occurredAt) {
+        movementRepository.save(InventoryMovement.builder().productId(productId).categoryName("Food").type(type)
+                .inStock(inStock).unitPrice(new BigDecimal(unitPrice)).occurredAt(occurredAt).build());
+    }
+
+    @Test
+    public void givenNewerSnapshot_whenBalancesAt_thenStartFromItOnlyAfterItWasTaken() {
+        // given
+        givenMovement("1", InventoryMovement.Type.CREATED, 10, "1.20", LocalDateTime.of(2026, 9, 29, 10, 0));
+        inventoryLedger.takeSnapshot(LocalDateTime.of(2026, 9, 29, 23, 0)).orElseThrow();
+        givenMovement("1", InventoryMovement.Type.UPDATED, 4, "1.20", LocalDateTime.of(2026, 9, 30, 9, 0));
+        givenMovement("2", InventoryMovement.Type.CREATED, 5, "2.50", LocalDateTime.of(2026, 9, 30, 18, 0));
+        inventoryLedger.takeSnapshot(LocalDateTime.of(2026, 9, 30, 23, 0)).orElseThrow();
+        givenMovement("1", InventoryMovement.Type.DELETED, 0, "1.20", LocalDateTime.of(2026, 10, 1, 8, 0));
+
+        // when
+        // then
+        assertEquals(2, snapshotRepository.count());
+        assertEquals(Map.of(), inventoryLedger.balancesAt(LocalDateTime.of(2026, 9, 29, 0, 0)));
+        assertEquals(Map.of("1", new StockBalance("1", "Food", 10, new BigDecimal("1.20"))),
+                inventoryLedger.balancesAt(LocalDateTime.of(2026, 9, 30, 0, 0)));
+        assertEquals(Map.of("1", new StockBalance("1", "Food", 4, new BigDecimal("1.20"))),
+                inventoryLedger.balancesAt(LocalDateTime.of(2026, 9, 30, 12, 0)));
+        assertEquals(Map.of("2", new StockBalance("2", "Food", 5, new BigDecimal("2.50"))),
+                inventoryLedger.balancesAt(LocalDateTime.of(2026, 10, 2, 0, 0)));
+    }
+
+    @Test
+    public void givenDailySnapshots_whenBalancesAtEarlierDay_thenReadThatDaysSnapshotAndOnlyItsTail() {
+        // given
+        for (LocalDateTime day : List.of(LocalDateTime.of(2026, 8, 30, 0, 0), LocalDateTime.of(2026, 8, 31, 0, 0),
+                LocalDateTime.of(2026, 9, 27, 0, 0), LocalDateTime.of(2026, 9, 28, 0, 0),
+                LocalDateTime.of(2026, 9, 29, 0, 0), LocalDateTime.of(2026, 9, 30, 0, 0),
+                LocalDateTime.of(2026, 10, 1, 0, 0))) {
+            givenMovement("1", InventoryMovement.Type.UPDATED, day.getDayOfMonth(), "1.20", day.withHour(10));
+            if (day.getDayOfMonth() == 31) {
+                inventoryLedger.takeSnapshot(day.withHour(22)).orElseThrow();
+                givenMovement("2", InventoryMovement.Type.CREATED, 5, "2.50", day.withHour(22).withMinute(30));
+            }
+            if (day.getDayOfMonth() == 29) {
+                givenMovement("1", InventoryMovement.Type.UPDATED, 129, "1.20", day.withHour(14));
+            }
+            inventoryLedger.takeSnapshot(day.withHour(23)).orElseThrow();
+        }
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        Map<String, StockBalance> balances = inventoryLedger.balancesAt(LocalDateTime.of(2026, 9, 29, 12, 0));
+
+        // then
+        assertEquals(List.of(LocalDateTime.of(2026, 10, 1, 23, 0), LocalDateTime.of(2026, 9, 30, 23, 0),
+                        LocalDateTime.of(2026, 9, 29, 23, 0), LocalDateTime.of(2026, 9, 28, 23, 0),
+                        LocalDateTime.of(2026, 8, 31, 23, 0)),
+                snapshotRepository.findAllByOrderByTakenAtDesc().stream().map(InventorySnapshot::getTakenAt).toList());
+        assertEquals(Map.of(
+                "1", new StockBalance("1", "Food", 29, new BigDecimal("1.20")),
+                "2", new StockBalance("2", "Food", 5, new BigDecimal("2.50"))), balances);
+        assertEquals(1, statistics.getEntityStatistics(InventoryMovement.class.getName()).getLoadCount());
+    }
+
+    @Test
+    public void givenMovementInOpenTransaction_whenTakeSnapshot_thenStopBelowIt() throws Exception {
+        // given
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            newTransaction.executeWithoutResult(status ->
+                    inventoryLedger.onProductChanged(ProductChangedEvent.created(product("7", 3, "1.00"))));
+            Future<?> slowWrite = executor.submit(() -> newTransaction.executeWithoutResult(status -> {
+                inventoryLedger.onProductChanged(ProductChangedEvent.created(product("8", 5, "1.00")));
+                recorded.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            recorded.await(10, TimeUnit.SECONDS);
+            newTransaction.executeWithoutResult(status ->
+                    inventoryLedger.onProductChanged(ProductChangedEvent.created(product("9", 2, "1.00"))));
+
+            // when
+            InventorySnapshot snapshot = inventoryLedger.takeSnapshot(LocalDateTime.now()).orElseThrow();
+            commit.countDown();
+            slowWrite.get(10, TimeUnit.SECONDS);
+
+            // then
+            assertEquals(inventoryLedger.getMovements("7", Limit.of(1)).getFirst().getId(), snapshot.getLastMovementId());
+            assertEquals(List.of("7"), snapshotItemRepository.findBalancesBySnapshotId(snapshot.getId()).stream()
+                    .map(StockBalance::getProductId).toList());
+            assertEquals(List.of("7", "8", "9"), inventoryLedger.rebuildBalances().keySet().stream().sorted().toList());
+            assertFalse(snapshot.getTailFrom().isAfter(inventoryLedger.getMovements("8", Limit.of(1)).getFirst().getOccurredAt()));
+            assertEquals(List.of("7", "8", "9"), inventoryLedger.balancesAt(LocalDateTime.now().plusMinutes(1)).keySet()
+                    .stream().sorted().toList());
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+            newTransaction.executeWithoutResult(status -> movementRepository.deleteAllInBatch());
+        }
+    }
+}
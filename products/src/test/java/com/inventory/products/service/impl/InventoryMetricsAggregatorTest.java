@@ -0,0 +1,192 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.CategoryStockTotals;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventoryMetricsAggregatorTest {
+
+    private final InventoryMetricsAggregator metricsAggregator = new InventoryMetricsAggregator();
+
+    private final Category electronics = Category.builder().categoryName("Electronics").build();
+    private final Category food = Category.builder().categoryName("Food").build();
+
+    private Product product(String name, Category category, String unitPrice, int inStock) {
+        return Product.builder()
+                .id(name)
+                .name(name)
+                .category(category)
+                .unitPrice(new BigDecimal(unitPrice))
+                .inStock(inStock)
+                .build();
+    }
+
+    private CategoryStockTotals totalsFor(String categoryName) {
+        return metricsAggregator.snapshot().stream()
+                .filter(totals -> totals.getCategoryName().equals(categoryName))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Test
+    public void givenCreatedProducts_whenSnapshot_thenTotalsIncludeOnlyProductsInStock() {
+        // given
+        metricsAggregator.onProductChanged(ProductChangedEvent.created(product("Laptop", electronics, "1200.00", 2)));
+        metricsAggregator.onProductChanged(ProductChangedEvent.created(product("Phone", electronics, "800.00", 3)));
+        metricsAggregator.onProductChanged(ProductChangedEvent.created(product("Bread", food, "2.00", 0)));
+
+        // when
+        List<CategoryStockTotals> snapshot = metricsAggregator.snapshot();
+
+        // then
+        assertEquals(1, snapshot.size());
+        CategoryStockTotals electronicsTotals = totalsFor("Electronics");
+        assertEquals(5L, electronicsTotals.getTotalUnitsInStock());
+        assertEquals(2L, electronicsTotals.getProductsInStock());
+        assertEquals(new BigDecimal("4800.00"), electronicsTotals.getTotalValueInStock());
+        assertEquals(new BigDecimal("2000.00"), electronicsTotals.getSumOfUnitPrices());
+    }
+
+    @Test
+    public void givenProductMovedToAnotherCategory_whenUpdated_thenTotalsFollowTheProduct() {
+        // given
+        Product laptop = product("Laptop", electronics, "1200.00", 2);
+        metricsAggregator.onProductChanged(ProductChangedEvent.created(laptop));
+        Product updatedLaptop = laptop.toBuilder().category(food).unitPrice(new BigDecimal("1000.00")).inStock(4).build();
+
+        // when
+        metricsAggregator.onProductChanged(ProductChangedEvent.updated(laptop, updatedLaptop));
+
+        // then
+        assertNull(totalsFor("Electronics"));
+        CategoryStockTotals foodTotals = totalsFor("Food");
+        assertEquals(4L, foodTotals.getTotalUnitsInStock());
+        assertEquals(1L, foodTotals.getProductsInStock());
+        assertEquals(0, new BigDecimal("4000.00").compareTo(foodTotals.getTotalValueInStock()));
+    }
+
+    @Test
+    public void givenProductSetOutOfStockAndDeleted_whenSnapshot_thenTotalsAreEmpty() {
+        // given
+        Product laptop = product("Laptop", electronics, "1200.00", 2);
+        Product phone = product("Phone", electronics, "800.00", 3);
+        metricsAggregator.onProductChanged(ProductChangedEvent.created(laptop));
+        metricsAggregator.onProductChanged(ProductChangedEvent.created(phone));
+
+        // when
+        metricsAggregator.onProductChanged(ProductChangedEvent.updated(laptop, laptop.toBuilder().inStock(0).build()));
+        metricsAggregator.onProductChanged(ProductChangedEvent.deleted(phone));
+
+        // then
+        assertTrue(metricsAggregator.snapshot().isEmpty());
+    }
+
+    @Test
+    public void givenPriceWithoutScale_whenCreated_thenTotalsUseColumnScale() {
+        // given
+        metricsAggregator.onProductChanged(ProductChangedEvent.created(product("Laptop", electronics, "1200", 2)));
+
+        // when
+        CategoryStockTotals electronicsTotals = totalsFor("Electronics");
+
+        // then
+        assertEquals(new BigDecimal("2400.00"), electronicsTotals.getTotalValueInStock());
+        assertEquals(new BigDecimal("1200.00"), electronicsTotals.getSumOfUnitPrices());
+    }
+
+    @Test
+    public void givenDriftedTotals_whenReconcile_thenReportDriftAndRebuild() {
+        // given
+        metricsAggregator.onProductChanged(ProductChangedEvent.created(product("Laptop", electronics, "1200.00", 2)));
+        metricsAggregator.onProductChanged(ProductChangedEvent.created(product("Apple", food, "1.50", 10)));
+        List<CategoryStockTotals> persistedTotals = List.of(
+                new CategoryStockTotals("Electronics", 5L, new BigDecimal("6000.00"), new BigDecimal("1200.00"), 1L),
+                new CategoryStockTotals("Food", 10L, new BigDecimal("15.00"), new BigDecimal("1.50"), 1L));
+
+        // when
+        List<String> driftedCategories = metricsAggregator.reconcile(() -> persistedTotals);
+
+        // then
+        assertEquals(List.of("Electronics"), driftedCategories);
+        assertEquals(5L, totalsFor("Electronics").getTotalUnitsInStock());
+        assertTrue(metricsAggregator.reconcile(() -> persistedTotals).isEmpty());
+    }
+
+    @Test
+    public void givenChangeDuringReload_whenReconcile_thenKeepItsCategoryAndRebuildTheOthers() {
+        // given
+        Product laptop = product("Laptop", electronics, "1200.00", 2);
+        metricsAggregator.onProductChanged(ProductChangedEvent.created(laptop));
+        metricsAggregator.onProductChanged(ProductChangedEvent.created(product("Apple", food, "1.50", 10)));
+        metricsAggregator.reconcile(() -> List.of(
+                new CategoryStockTotals("Electronics", 2L, new BigDecimal("2400.00"), new BigDecimal("1200.00"), 1L),
+                new CategoryStockTotals("Food", 10L, new BigDecimal("15.00"), new BigDecimal("1.50"), 1L)));
+
+        // when
+        List<String> driftedCategories = metricsAggregator.reconcile(() -> {
+            metricsAggregator.onProductChanged(ProductChangedEvent.updated(laptop, laptop.toBuilder().inStock(5).build()));
+            return List.of(
+                    new CategoryStockTotals("Electronics", 2L, new BigDecimal("2400.00"), new BigDecimal("1200.00"), 1L),
+                    new CategoryStockTotals("Food", 12L, new BigDecimal("18.00"), new BigDecimal("1.50"), 1L));
+        });
+
+        // then
+        assertEquals(List.of("Food"), driftedCategories);
+        assertEquals(5L, totalsFor("Electronics").getTotalUnitsInStock());
+        assertEquals(12L, totalsFor("Food").getTotalUnitsInStock());
+    }
+
+    @Test
+    public void givenChangeInOpenTransaction_whenReconcile_thenKeepItsCategoryUntilItIsApplied() {
+        // given
+        Product laptop = product("Laptop", electronics, "1200.00", 2);
+        metricsAggregator.reconcile(List::of);
+        ProductChangedEvent created = ProductChangedEvent.created(laptop);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            metricsAggregator.onProductChanging(created);
+
+            // when
+            List<String> driftedCategories = metricsAggregator.reconcile(() -> List.of(
+                    new CategoryStockTotals("Electronics", 2L, new BigDecimal("2400.00"), new BigDecimal("1200.00"), 1L)));
+
+            // then
+            assertTrue(driftedCategories.isEmpty());
+            assertNull(totalsFor("Electronics"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        metricsAggregator.onProductChanged(created);
+        assertEquals(2L, totalsFor("Electronics").getTotalUnitsInStock());
+    }
+
+    @Test
+    public void givenChangeDuringFirstLoad_whenReconcile_thenStayUninitialized() {
+        // given
+        Product laptop = product("Laptop", electronics, "1200.00", 2);
+
+        // when
+        metricsAggregator.reconcile(() -> {
+            metricsAggregator.onProductChanged(ProductChangedEvent.created(laptop));
+            return List.of();
+        });
+
+        // then
+        assertFalse(metricsAggregator.isInitialized());
+        metricsAggregator.reconcile(() -> List.of(
+                new CategoryStockTotals("Electronics", 2L, new BigDecimal("2400.00"), new BigDecimal("1200.00"), 1L)));
+        assertTrue(metricsAggregator.isInitialized());
+        assertEquals(2L, totalsFor("Electronics").getTotalUnitsInStock());
+    }
+}
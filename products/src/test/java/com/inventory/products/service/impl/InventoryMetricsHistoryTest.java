@@ -0,0 +1,88 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.CategoryStockTotals;
+import com.inventory.products.dto.InventoryMetricsHistoryPoint;
+import com.inventory.products.model.InventoryMetricsPoint.Resolution;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({InventoryMetricsHistory.class, InventoryMetricsAggregator.class})
+public class InventoryMetricsHistoryTest {
+
+    @Autowired
+    private InventoryMetricsHistory metricsHistory;
+
+    private static CategoryStockTotals totals(String categoryName, long units, String value, String sumOfUnitPrices,
+                                              long products) {
+        return new CategoryStockTotals(categoryName, units, new BigDecimal(value), new BigDecimal(sumOfUnitPrices), products);
+    }
+
+    @Test
+    public void givenMinuteSamples_whenRollUpToHours_thenAverageEachCompleteHour() {
+        // given
+        LocalDateTime ten = LocalDateTime.of(2026, 10, 16, 10, 0);
+        metricsHistory.record(List.of(totals("Food", 10, "12.00", "1.20", 1), totals("Drinks", 4, "8.00", "2.00", 1)), ten);
+        metricsHistory.record(List.of(totals("Food", 20, "24.00", "1.20", 1)), ten.plusMinutes(1));
+        metricsHistory.record(List.of(totals("Food", 6, "6.00", "2.00", 2)), ten.plusMinutes(65));
+
+        // when
+        int hours = metricsHistory.rollUp(Resolution.MINUTE, Resolution.HOUR, ten.plusMinutes(70));
+
+        // then
+        assertEquals(1, hours);
+        assertEquals(List.of(new InventoryMetricsHistoryPoint(ten, 17, new BigDecimal("22.00"), new BigDecimal("1.47"))),
+                metricsHistory.getHistory(null, Resolution.HOUR, ten, ten.plusHours(2)));
+        assertEquals(List.of(new InventoryMetricsHistoryPoint(ten, 15, new BigDecimal("18.00"), new BigDecimal("1.20"))),
+                metricsHistory.getHistory("Food", Resolution.HOUR, ten, ten.plusHours(2)));
+        assertEquals(0, metricsHistory.rollUp(Resolution.MINUTE, Resolution.HOUR, ten.plusMinutes(70)));
+    }
+
+    @Test
+    public void givenCategoryOutOfStockHalfWayThroughTheHour_whenRollUpToHours_thenCountItsMissingSamplesAsZero() {
+        // given
+        LocalDateTime ten = LocalDateTime.of(2026, 10, 16, 10, 0);
+        for (int minute = 0; minute < 4; minute++) {
+            metricsHistory.record(minute < 2
+                    ? List.of(totals("Food", 10, "12.00", "1.20", 1), totals("Drinks", 4, "8.00", "2.00", 1))
+                    : List.of(totals("Drinks", 4, "8.00", "2.00", 1)), ten.plusMinutes(minute));
+        }
+
+        // when
+        metricsHistory.rollUp(Resolution.MINUTE, Resolution.HOUR, ten.plusHours(1));
+
+        // then
+        assertEquals(List.of(new InventoryMetricsHistoryPoint(ten, 5, new BigDecimal("6.00"), new BigDecimal("1.20"))),
+                metricsHistory.getHistory("Food", Resolution.HOUR, ten, ten.plusHours(1)));
+        assertEquals(List.of(new InventoryMetricsHistoryPoint(ten, 4, new BigDecimal("8.00"), new BigDecimal("2.00"))),
+                metricsHistory.getHistory("Drinks", Resolution.HOUR, ten, ten.plusHours(1)));
+        assertEquals(List.of(new InventoryMetricsHistoryPoint(ten, 9, new BigDecimal("14.00"), new BigDecimal("1.73"))),
+                metricsHistory.getHistory(null, Resolution.HOUR, ten, ten.plusHours(1)));
+    }
+
+    @Test
+    public void givenPointsPastRetention_whenRollUpAndExpire_thenKeepOnlyTheirRollups() {
+        // given
+        LocalDateTime twoDaysAgo = LocalDateTime.now().minusDays(2).truncatedTo(ChronoUnit.DAYS).plusHours(9);
+        metricsHistory.record(List.of(totals("Food", 10, "12.00", "1.20", 1)), twoDaysAgo);
+
+        // when
+        metricsHistory.rollUpAndExpire();
+
+        // then
+        assertTrue(metricsHistory.getHistory(null, Resolution.MINUTE, twoDaysAgo, twoDaysAgo.plusHours(1)).isEmpty());
+        assertEquals(1, metricsHistory.getHistory(null, Resolution.HOUR, twoDaysAgo, twoDaysAgo.plusHours(1)).size());
+        assertEquals(List.of(new InventoryMetricsHistoryPoint(twoDaysAgo.truncatedTo(ChronoUnit.DAYS), 10,
+                        new BigDecimal("12.00"), new BigDecimal("1.20"))),
+                metricsHistory.getHistory(null, Resolution.DAY, twoDaysAgo, twoDaysAgo.plusHours(1)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.BulkItemResult;
+import com.inventory.products.dto.BulkOperationResult;
+import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.inventory.products.dto.BulkItemResult.Status.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({ProductBatchWriter.class, CategoryCache.class})
+@TestPropertySource(properties = "inventory.bulk.chunk-size=2")
+public class ProductBatchWriterTest {
+
+    @Autowired
+    private ProductBatchWriter batchWriter;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Product existingProduct;
+
+    @BeforeEach
+    void setUp() {
+        Category food = entityManager.persist(Category.builder().categoryName("Food").build());
+        existingProduct = entityManager.persist(Product.builder()
+                .id("existing")
+                .name("Apple")
+                .category(food)
+                .unitPrice(new BigDecimal("1.20"))
+                .inStock(10)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private ProductInfo productInfo(String id, String name, String categoryName, String unitPrice, int inStock) {
+        return new ProductInfo(id, name, categoryName, new BigDecimal(unitPrice), null, inStock);
+    }
+
+    @Test
+    public void givenMixedItems_whenUpsert_thenReportEachItemAndWriteOnlyValidOnes() {
+        // given
+        List<ProductInfo> productInfos = List.of(
+                productInfo(null, "Banana", "Food", "0.80", 30),
+                productInfo("existing", "Green Apple", "Food", "1.50", 5),
+                productInfo(null, "Cherry", "Unknown", "3.00", 1),
+                productInfo(null, "Banana", "Food", "0.90", 2),
+                productInfo(null, "Green Apple", "Food", "0.90", 2),
+                productInfo(null, "Kiwi", "Food", "0.00", 2),
+                productInfo("missing", "Mango", "Food", "2.00", 2));
+
+        // when
+        BulkOperationResult result = batchWriter.upsert(productInfos);
+
+        // then
+        assertEquals(2, result.getSucceeded());
+        assertEquals(5, result.getFailed());
+        assertEquals(List.of(CREATED, UPDATED, FAILED, FAILED, FAILED, FAILED, FAILED),
+                result.getItems().stream().map(BulkItemResult::getStatus).toList());
+        assertEquals("Category does not exist: Unknown", result.getItems().get(2).getMessage());
+        assertEquals("Product with name Banana already exists", result.getItems().get(3).getMessage());
+        assertEquals("Product with name Green Apple already exists", result.getItems().get(4).getMessage());
+        assertEquals("Product unit price must be greater than zero", result.getItems().get(5).getMessage());
+        assertEquals("Product not found with ID: missing", result.getItems().get(6).getMessage());
+
+        assertEquals(2, productRepository.count());
+        Product updatedProduct = productRepository.findById(existingProduct.getId()).orElseThrow();
+        assertEquals("Green Apple", updatedProduct.getName());
+        assertEquals(5, updatedProduct.getInStock());
+        assertNotNull(updatedProduct.getUpdatedAt());
+        Product createdProduct = productRepository.findById(result.getItems().getFirst().getId()).orElseThrow();
+        assertEquals("Banana", createdProduct.getName());
+        assertEquals("Food", createdProduct.getCategory().getCategoryName());
+        assertNotNull(createdProduct.getCreatedAt());
+    }
+
+    @Test
+    public void givenNullList_whenUpsert_thenThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> batchWriter.upsert(null));
+    }
+}
@@ -0,0 +1,158 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.CategoryStockDelta;
+import com.inventory.products.dto.ProductChangeNotification;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductChangeBroadcasterTest {
+
+    // Records what would be written to the client, as event names and the data sent with them
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> eventNames = new ArrayList<>();
+        private final List<Object> data = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            List<DataWithMediaType> parts = new ArrayList<>(builder.build());
+            String header = parts.getFirst().getData().toString();
+            eventNames.add(header.substring(header.indexOf("event:") + "event:".length(), header.indexOf('\n')));
+            data.add(parts.get(1).getData());
+        }
+
+        int getEventCount() {
+            return eventNames.size();
+        }
+    }
+
+    private final List<Runnable> pendingSends = new ArrayList<>();
+
+    private ProductChangeBroadcaster broadcaster;
+
+    private final Category food = Category.builder().categoryName("Food").build();
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new ProductChangeBroadcaster(2, 0, pendingSends::add);
+    }
+
+    private Product product(String id, int inStock) {
+        return Product.builder().id(id).category(food).unitPrice(new BigDecimal("1.50")).inStock(inStock).build();
+    }
+
+    private void runPendingSends() {
+        List<Runnable> sends = new ArrayList<>(pendingSends);
+        pendingSends.clear();
+        sends.forEach(Runnable::run);
+    }
+
+    @Test
+    public void givenSubscriber_whenProductChanges_thenSendChangeWithMetricsDelta() {
+        // given
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter);
+
+        // when
+        broadcaster.onProductChanged(ProductChangedEvent.updated(product("1", 10), product("1", 4)));
+        runPendingSends();
+
+        // then
+        assertEquals(List.of(ProductChangeBroadcaster.CHANGE_EVENT), emitter.eventNames);
+        ProductChangeNotification notification = (ProductChangeNotification) emitter.data.getFirst();
+        assertEquals("1", notification.getProductId());
+        assertEquals(List.of(new CategoryStockDelta("Food", -6, new BigDecimal("-9.00"))), notification.getMetricsDelta());
+    }
+
+    @Test
+    public void givenSlowSubscriber_whenBufferOverflows_thenDropOldestAndSendResyncFirst() {
+        // given
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter);
+
+        // when
+        for (int i = 1; i <= 5; i++) {
+            broadcaster.onProductChanged(ProductChangedEvent.created(product(String.valueOf(i), i)));
+        }
+        assertEquals(1, pendingSends.size());
+        runPendingSends();
+
+        // then
+        assertEquals(List.of(ProductChangeBroadcaster.RESYNC_EVENT, ProductChangeBroadcaster.CHANGE_EVENT,
+                ProductChangeBroadcaster.CHANGE_EVENT), emitter.eventNames);
+        assertEquals(3L, emitter.data.getFirst());
+        assertEquals(List.of("4", "5"), emitter.data.subList(1, 3).stream()
+                .map(data -> ((ProductChangeNotification) data).getProductId())
+                .toList());
+    }
+
+    @Test
+    public void givenChangesWhileSending_whenBufferOverflows_thenDropOldestOfThoseNotYetSent() {
+        // given
+        RecordingEmitter emitter = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                super.send(builder);
+                if (getEventCount() == 1) {
+                    for (int i = 3; i <= 5; i++) {
+                        broadcaster.onProductChanged(ProductChangedEvent.created(product(String.valueOf(i), i)));
+                    }
+                }
+            }
+        };
+        broadcaster.register(emitter);
+        broadcaster.onProductChanged(ProductChangedEvent.created(product("1", 1)));
+        broadcaster.onProductChanged(ProductChangedEvent.created(product("2", 2)));
+
+        // when
+        runPendingSends();
+
+        // then
+        assertEquals(List.of(ProductChangeBroadcaster.CHANGE_EVENT, ProductChangeBroadcaster.RESYNC_EVENT,
+                ProductChangeBroadcaster.CHANGE_EVENT, ProductChangeBroadcaster.CHANGE_EVENT), emitter.eventNames);
+        assertEquals(2L, emitter.data.get(1));
+        assertEquals(List.of("1", "4", "5"), List.of(emitter.data.get(0), emitter.data.get(2), emitter.data.get(3)).stream()
+                .map(data -> ((ProductChangeNotification) data).getProductId())
+                .toList());
+        assertTrue(pendingSends.isEmpty());
+    }
+
+    @Test
+    public void givenClosedSubscriber_whenSendFails_thenStopSendingToIt() {
+        // given
+        SseEmitter closed = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        RecordingEmitter open = new RecordingEmitter();
+        broadcaster.register(closed);
+        broadcaster.register(open);
+
+        // when
+        broadcaster.onProductChanged(ProductChangedEvent.deleted(product("1", 3)));
+        runPendingSends();
+
+        // then
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertEquals(List.of(ProductChangeBroadcaster.CHANGE_EVENT), open.eventNames);
+        assertNull(((ProductChangeNotification) open.data.getFirst()).getProduct());
+    }
+
+    @Test
+    public void givenPriceOnlyChangeOfProductOutOfStock_whenMetricsDeltaOf_thenNoCategoryChanged() {
+        assertEquals(List.of(), ProductChangeBroadcaster.metricsDeltaOf(product("1", 0),
+                product("1", 0).toBuilder().unitPrice(BigDecimal.TEN).build()));
+    }
+}
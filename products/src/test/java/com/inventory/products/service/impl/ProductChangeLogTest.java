@@ -0,0 +1,155 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.ProductChanges;
+import com.inventory.products.event.ProductChangedEvent;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import com.inventory.products.model.ProductChange;
+import com.inventory.products.repository.ProductChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ProductChangeLog.class)
+public class ProductChangeLogTest {
+
+    @Autowired
+    private ProductChangeLog changeLog;
+
+    @Autowired
+    private ProductChangeRepository changeRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        food = entityManager.persist(Category.builder().categoryName("Food").build());
+    }
+
+    private Product persistProduct(String id, int inStock) {
+        return entityManager.persist(Product.builder().id(id).name("Product " + id).category(food)
+                .unitPrice(new BigDecimal("1.20")).inStock(inStock).build());
+    }
+
+    @Test
+    public void givenProductWrites_whenGetChangesSince_thenReturnLatestUpsertsAndTombstones() {
+        // given
+        Product apple = persistProduct("1", 10);
+        Product bread = Product.builder().id("2").name("Product 2").category(food).inStock(4).build();
+        changeLog.onProductChanged(ProductChangedEvent.created(apple));
+        changeLog.onProductChanged(ProductChangedEvent.created(bread));
+        changeLog.onProductChanged(ProductChangedEvent.updated(apple, apple.toBuilder().name("Green Apple").build()));
+        changeLog.onProductChanged(ProductChangedEvent.deleted(bread));
+
+        // when
+        ProductChanges changes = changeLog.getChangesSince(0, 10);
+
+        // then
+        assertEquals(List.of(apple), changes.getUpserts());
+        assertEquals(List.of("2"), changes.getDeletedIds());
+        assertFalse(changes.isHasMore());
+        assertFalse(changes.isResync());
+
+        ProductChanges caughtUp = changeLog.getChangesSince(changes.getNextSince(), 10);
+        assertTrue(caughtUp.getUpserts().isEmpty());
+        assertTrue(caughtUp.getDeletedIds().isEmpty());
+        assertEquals(changes.getNextSince(), caughtUp.getNextSince());
+    }
+
+    @Test
+    public void givenMoreChangesThanTheLimit_whenGetChangesSince_thenReturnThemInBatches() {
+        // given
+        for (int i = 1; i <= 3; i++) {
+            changeLog.onProductChanged(ProductChangedEvent.created(persistProduct(String.valueOf(i), i)));
+        }
+
+        // when
+        ProductChanges first = changeLog.getChangesSince(0, 2);
+        ProductChanges second = changeLog.getChangesSince(first.getNextSince(), 2);
+
+        // then
+        assertEquals(List.of("1", "2"), first.getUpserts().stream().map(Product::getId).toList());
+        assertTrue(first.isHasMore());
+        assertEquals(List.of("3"), second.getUpserts().stream().map(Product::getId).toList());
+        assertFalse(second.isHasMore());
+    }
+
+    @Test
+    public void givenTombstonePastRetention_whenCompact_thenClientsBehindItResync() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        changeRepository.save(ProductChange.builder().productId("1").deleted(true).changedAt(now.minusDays(40)).build());
+        Product bread = persistProduct("2", 4);
+        changeLog.onProductChanged(ProductChangedEvent.created(bread));
+        changeLog.onProductChanged(ProductChangedEvent.updated(bread, bread.toBuilder().inStock(3).build()));
+
+        // when
+        changeLog.compact(now);
+
+        // then
+        assertEquals(1, changeRepository.count());
+        ProductChanges changes = changeLog.getChangesSince(0, 10);
+        assertTrue(changes.isResync());
+        assertEquals(List.of(bread), changes.getUpserts());
+        assertTrue(changes.getDeletedIds().isEmpty());
+        assertFalse(changeLog.getChangesSince(changes.getNextSince(), 10).isResync());
+    }
+
+    @Test
+    public void givenChangeInOpenTransaction_whenGetChangesSince_thenHoldBackTheChangesAfterIt() throws Exception {
+        // given
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> slowWrite = executor.submit(() -> newTransaction.executeWithoutResult(status -> {
+                changeLog.onProductChanged(ProductChangedEvent.deleted(Product.builder().id("8").build()));
+                recorded.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            recorded.await(10, TimeUnit.SECONDS);
+            newTransaction.executeWithoutResult(status ->
+                    changeLog.onProductChanged(ProductChangedEvent.deleted(Product.builder().id("9").build())));
+
+            // when
+            ProductChanges whileOpen = changeLog.getChangesSince(0, 10);
+            commit.countDown();
+            slowWrite.get(10, TimeUnit.SECONDS);
+            ProductChanges afterCommit = changeLog.getChangesSince(whileOpen.getNextSince(), 10);
+
+            // then
+            assertTrue(whileOpen.getDeletedIds().isEmpty());
+            assertEquals(List.of("8", "9"), afterCommit.getDeletedIds());
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+            newTransaction.executeWithoutResult(status -> changeRepository.deleteAllInBatch());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.ImportJob;
+import com.inventory.products.dto.ProductFileFormat;
+import com.inventory.products.dto.ProductFilter;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({ProductExporter.class, ProductImporter.class, ProductBatchWriter.class, CategoryCache.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+public class ProductExporterTest {
+
+    @Autowired
+    private ProductExporter productExporter;
+
+    @Autowired
+    private ProductImporter productImporter;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        Category food = entityManager.persist(Category.builder().categoryName("Food").build());
+        Category tools = entityManager.persist(Category.builder().categoryName("Tools").build());
+        entityManager.persist(Product.builder().id("a").name("Apple, red").category(food)
+                .unitPrice(new BigDecimal("1.20")).expirationDate(LocalDate.of(2026, 12, 31)).inStock(10).build());
+        entityManager.persist(Product.builder().id("b").name("Banana").category(food)
+                .unitPrice(new BigDecimal("0.80")).inStock(0).build());
+        entityManager.persist(Product.builder().id("c").name("Hammer").category(tools)
+                .unitPrice(new BigDecimal("15.00")).inStock(3).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private String export(ProductFilter filter, ProductFileFormat format) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        productExporter.export(filter, format, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void givenFilter_whenExportCsv_thenWriteHeaderAndMatchingProducts() {
+        // when
+        String csv = export(ProductFilter.builder().available(true).build(), ProductFileFormat.CSV);
+
+        // then
+        assertEquals("""
+                id,name,categoryName,unitPrice,expirationDate,inStock
+                a,"Apple, red",Food,1.20,2026-12-31,10
+                c,Hammer,Tools,15.00,,3
+                """, csv);
+    }
+
+    @Test
+    public void givenFilter_whenExportNdjson_thenWriteOneObjectPerLine() {
+        // when
+        String ndjson = export(ProductFilter.builder().categoryNames(List.of("Food")).build(), ProductFileFormat.NDJSON);
+
+        // then
+        assertEquals("""
+                {"id":"a","name":"Apple, red","categoryName":"Food","unitPrice":1.20,"expirationDate":"2026-12-31","inStock":10}
+                {"id":"b","name":"Banana","categoryName":"Food","unitPrice":0.80,"expirationDate":null,"inStock":0}
+                """, ndjson);
+    }
+
+    @Test
+    public void givenExport_whenDone_thenProductsAreNotKeptInPersistenceContext() {
+        // when
+        export(new ProductFilter(), ProductFileFormat.NDJSON);
+
+        // then
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class)
+                .getStatistics().getEntityKeys().stream()
+                .filter(key -> ((EntityKey) key).getEntityName().equals(Product.class.getName()))
+                .count());
+    }
+
+    @Test
+    public void givenCsvExport_whenImportedBack_thenEveryRowUpdatesItsProduct() {
+        // given
+        String csv = export(new ProductFilter(), ProductFileFormat.CSV);
+
+        // when
+        ImportJob job = productImporter.importProducts(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                ProductFileFormat.CSV);
+
+        // then
+        assertEquals(3, job.getUpdated());
+        assertEquals(0, job.getCreated() + job.getFailed());
+    }
+
+    @Test
+    public void givenNameWithLineBreak_whenCsvExportImportedBack_thenRowIsReadAsOneRecord() {
+        // given
+        entityManager.persist(Product.builder().id("d").name("Gift box\nwith \"ribbon\"")
+                .category(entityManager.find(Category.class, "Food")).unitPrice(new BigDecimal("4.50")).inStock(2).build());
+        entityManager.flush();
+        String csv = export(new ProductFilter(), ProductFileFormat.CSV);
+
+        // when
+        ImportJob job = productImporter.importProducts(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                ProductFileFormat.CSV);
+
+        // then
+        assertEquals(4, job.getUpdated());
+        assertEquals(0, job.getCreated() + job.getFailed());
+        assertEquals("Gift box\nwith \"ribbon\"", entityManager.find(Product.class, "d").getName());
+    }
+}
@@ -0,0 +1,167 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.ProductFileFormat;
+import com.inventory.products.dto.ImportJob;
+import com.inventory.products.dto.ImportRowError;
+import com.inventory.products.exception.EntityNotFoundException;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({ProductBatchWriter.class, ProductImporter.class, CategoryCache.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = "inventory.bulk.chunk-size=2")
+public class ProductImporterTest {
+
+    @Autowired
+    private ProductImporter productImporter;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        Category food = entityManager.persist(Category.builder().categoryName("Food").build());
+        entityManager.persist(Product.builder()
+                .id("existing")
+                .name("Apple")
+                .category(food)
+                .unitPrice(new BigDecimal("1.20"))
+                .inStock(10)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void givenCsv_whenImport_thenCreateNewAndUpdateExistingByName() {
+        // given
+        String csv = """
+                Name,CategoryName,UnitPrice,ExpirationDate,InStock
+                Apple,Food,1.50,,4
+                "Banana, ripe",Food,0.80,2026-12-31,30
+                Cherry,Food,abc,,1
+
+                Kiwi,Unknown,2.00,,3
+                Mango,Food,2.10,,7
+                """;
+
+        // when
+        ImportJob job = productImporter.importProducts(stream(csv), ProductFileFormat.CSV);
+
+        // then
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(5, job.getRowsRead());
+        assertEquals(2, job.getCreated());
+        assertEquals(1, job.getUpdated());
+        assertEquals(2, job.getFailed());
+        assertEquals(List.of(4L, 6L), job.getErrors().stream().map(ImportRowError::getLine).toList());
+        assertEquals("Category does not exist: Unknown", job.getErrors().get(1).getMessage());
+
+        Product apple = productRepository.findById("existing").orElseThrow();
+        assertEquals(0, new BigDecimal("1.50").compareTo(apple.getUnitPrice()));
+        assertEquals(4, apple.getInStock());
+        assertEquals(1, productRepository.findNamesIn(List.of("Banana, ripe")).size());
+        assertEquals(LocalDate.of(2026, 12, 31), productRepository.findAll().stream()
+                .filter(product -> product.getName().equals("Banana, ripe"))
+                .findFirst().orElseThrow().getExpirationDate());
+    }
+
+    @Test
+    public void givenNdjson_whenImport_thenWriteValidRowsAndReportInvalidOnes() {
+        // given
+        String ndjson = """
+                {"name":"Pear","categoryName":"Food","unitPrice":1.10,"inStock":12}
+                {"name":"Plum","categoryName":"Food","unitPrice":
+                {"name":"Apple","categoryName":"Food","unitPrice":0.99,"inStock":0}
+                """;
+
+        // when
+        ImportJob job = productImporter.importProducts(stream(ndjson), ProductFileFormat.NDJSON);
+
+        // then
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3, job.getRowsRead());
+        assertEquals(1, job.getCreated());
+        assertEquals(1, job.getUpdated());
+        assertEquals(1, job.getFailed());
+        assertEquals(2L, job.getErrors().getFirst().getLine());
+        assertEquals(0, productRepository.findById("existing").orElseThrow().getInStock());
+    }
+
+    @Test
+    public void givenCsvWithUnclosedQuote_whenImport_thenReportTheRecordOnceItOutgrowsTheCapAndGoOn() {
+        // given
+        String csv = "name,categoryName,unitPrice,expirationDate,inStock\n"
+                + "\"Pear,Food,1.10,,2\n"
+                + "x".repeat(70_000) + "\n"
+                + "Plum,Food,0.90,,5\n";
+
+        // when
+        ImportJob job = productImporter.importProducts(stream(csv), ProductFileFormat.CSV);
+
+        // then
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.getRowsRead());
+        assertEquals(1, job.getCreated());
+        assertEquals(1, job.getFailed());
+        assertEquals(2L, job.getErrors().getFirst().getLine());
+        assertEquals("Quoted value is not closed within 65536 characters", job.getErrors().getFirst().getMessage());
+        assertEquals(1, productRepository.findNamesIn(List.of("Plum")).size());
+    }
+
+    @Test
+    public void givenCsvWithoutRequiredColumn_whenImport_thenJobFails() {
+        // when
+        ImportJob job = productImporter.importProducts(stream("name,unitPrice,inStock\nPear,1.10,2\n"), ProductFileFormat.CSV);
+
+        // then
+        assertEquals(ImportJob.Status.FAILED, job.getStatus());
+        assertEquals("CSV header is missing required column: categoryName", job.getFailureMessage());
+        assertEquals(0, job.getCreated());
+    }
+
+    @Test
+    public void givenFinishedImport_whenGetJob_thenReturnItsProgress() {
+        // given
+        ImportJob job = productImporter.importProducts(stream("{\"name\":\"Pear\",\"categoryName\":\"Food\",\"unitPrice\":1,\"inStock\":1}"),
+                ProductFileFormat.NDJSON);
+
+        // when
+        ImportJob found = productImporter.getJob(job.getId());
+
+        // then
+        assertEquals(job, found);
+        assertTrue(productImporter.getJobs().contains(job));
+        assertThatThrownBy(() -> productImporter.getJob("missing"))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Import job not found with ID: missing");
+    }
+}
@@ -0,0 +1,131 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.CacheRegionStatistics;
+import com.inventory.products.dto.ProductFilter;
+import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.dto.ProductSummary;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.ProductRepository;
+import com.inventory.products.service.CategoryService;
+import com.inventory.products.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-read-cache",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class ProductReadCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (categoryService.getAllCategories().isEmpty()) {
+            categoryService.createCategory(Category.builder().categoryName("Food").build());
+        }
+    }
+
+    private Product createProduct() {
+        return productService.createProduct(new ProductInfo(null, "Cached " + System.nanoTime(), "Food",
+                new BigDecimal("2.00"), null, 5));
+    }
+
+    private CacheRegionStatistics region(String name) {
+        return productService.getCacheStatistics().stream()
+                .filter(region -> region.getRegion().equals(name))
+                .findFirst().orElseThrow();
+    }
+
+    @Test
+    public void givenCachedProduct_whenGetProductById_thenNoStatementIsRun() {
+        // given
+        Product product = createProduct();
+        productService.getProductById(product.getId());
+        long hitsBefore = region("default-query-results-region").getHits();
+        statistics.clear();
+
+        // when
+        ProductSummary found = productService.getProductById(product.getId());
+
+        // then
+        assertEquals(product.getName(), found.getName());
+        assertEquals("Food", found.getCategoryName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(region("default-query-results-region").getHits() > hitsBefore);
+    }
+
+    @Test
+    public void givenRepeatedPage_whenGetProductsByCriteria_thenServeItFromQueryCacheUntilProductsChange() {
+        // given
+        Product product = createProduct();
+        ProductFilter filter = ProductFilter.builder().categoryNames(List.of("Food")).available(true).build();
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("name"));
+        productService.getProductsByCriteria(filter, pageable);
+        statistics.clear();
+
+        // when
+        Page<ProductSummary> cachedPage = productService.getProductsByCriteria(filter, pageable);
+        long cachedStatements = statistics.getPrepareStatementCount();
+        productService.updateProduct(new ProductInfo(product.getId(), product.getName(), "Food",
+                new BigDecimal("2.50"), null, 0));
+        statistics.clear();
+        Page<ProductSummary> refreshedPage = productService.getProductsByCriteria(filter, pageable);
+
+        // then
+        assertEquals(0, cachedStatements);
+        assertTrue(cachedPage.getContent().stream().anyMatch(cached -> cached.getId().equals(product.getId())));
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+        assertTrue(refreshedPage.getContent().stream().noneMatch(refreshed -> refreshed.getId().equals(product.getId())));
+        assertTrue(region("default-query-results-region").getHits() > 0);
+    }
+
+    @Test
+    public void givenManyCandidateIds_whenFindSliceByFilter_thenKeepItOutOfQueryCache() {
+        // given
+        Product product = createProduct();
+        List<String> fewIds = List.of(product.getId());
+        List<String> manyIds = Stream.concat(fewIds.stream(), Stream.generate(() -> UUID.randomUUID().toString()).limit(500))
+                .toList();
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("name"));
+        statistics.clear();
+
+        // when
+        productRepository.findSliceByFilter(ProductFilter.builder().ids(manyIds).build(), pageable);
+        long manyIdsPuts = statistics.getQueryCachePutCount();
+        productRepository.findSliceByFilter(ProductFilter.builder().ids(fewIds).build(), pageable);
+
+        // then
+        assertEquals(0, manyIdsPuts);
+        assertEquals(1, statistics.getQueryCachePutCount());
+    }
+}
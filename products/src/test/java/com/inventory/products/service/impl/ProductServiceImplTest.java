@@ -1,22 +1,39 @@
 package com.inventory.products.service.impl;
 
 import com.inventory.products.dto.*;
+import com.inventory.products.event.ProductChangedEvent;
 import com.inventory.products.exception.EntityAlreadyExistsException;
 import com.inventory.products.exception.EntityNotFoundException;
+import com.inventory.products.exception.InsufficientStockException;
+import com.inventory.products.index.NamePrefixIndex;
+import com.inventory.products.index.ProductBitmapIndex;
+import com.inventory.products.index.ProductNameIndex;
 import com.inventory.products.model.Category;
+import com.inventory.products.model.InventoryMetricsPoint.Resolution;
+import com.inventory.products.model.InventoryMovement;
 import com.inventory.products.model.Product;
 import com.inventory.products.repository.ProductRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -33,9 +50,56 @@ public class ProductServiceImplTest {
     @Mock
     private CategoryServiceImpl categoryService;
 
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private ProductBitmapIndex productBitmapIndex;
+
+    @Mock
+    private NamePrefixIndex namePrefixIndex;
+
+    @Mock
+    private ProductBatchWriter batchWriter;
+
+    @Mock
+    private ProductImporter productImporter;
+
+    @Mock
+    private ProductExporter productExporter;
+
+    @Mock
+    private CacheStatisticsReader cacheStatisticsReader;
+
+    @Mock
+    private InventoryLedger inventoryLedger;
+
+    @Mock
+    private InventoryMetricsHistory metricsHistory;
+
+    @Mock
+    private ProductChangeBroadcaster changeBroadcaster;
+
+    @Mock
+    private ProductChangeLog changeLog;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private InventoryMetricsAggregator metricsAggregator = new InventoryMetricsAggregator();
+
+    @Spy
+    private ProductCountCache productCountCache = new ProductCountCache(100);
+
     @InjectMocks
     private ProductServiceImpl productService;
 
+    private void givenInventory(List<Product> products) {
+        metricsAggregator.reconcile(Collections::emptyList);
+        products.forEach(product -> metricsAggregator.onProductChanged(ProductChangedEvent.created(product)));
+    }
+
     // --- Tests for createProduct ---
 
     @Test
@@ -49,19 +113,11 @@ public class ProductServiceImplTest {
         productInfo.setExpirationDate(null);
 
         Category existingCategory = Category.builder().categoryName("Electronics").build();
-        Product expectedProduct = Product.builder()
-                .id(UUID.randomUUID().toString())
-                .name("Laptop")
-                .category(existingCategory)
-                .unitPrice(new BigDecimal("1200.00"))
-                .inStock(10)
-                .expirationDate(null)
-                .createdAt(LocalDate.now())
-                .build();
+        Category categoryReference = Category.builder().categoryName("Electronics").build();
 
         when(categoryService.getCategoryByName("Electronics")).thenReturn(existingCategory);
+        when(categoryService.getCategoryReference("Electronics")).thenReturn(categoryReference);
         when(productRepository.existsByName("Laptop")).thenReturn(false);
-        when(productRepository.save(any(Product.class))).thenReturn(expectedProduct);
 
         // when
         Product createdProduct = productService.createProduct(productInfo);
@@ -69,10 +125,13 @@ public class ProductServiceImplTest {
         // then
         assertNotNull(createdProduct);
         assertEquals("Laptop", createdProduct.getName());
-        assertEquals("Electronics", createdProduct.getCategory().getCategoryName());
+        assertSame(existingCategory, createdProduct.getCategory());
         verify(categoryService).getCategoryByName("Electronics");
         verify(productRepository).existsByName("Laptop");
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).insertAndFlush(argThat(products -> products.size() == 1
+                && products.iterator().next().getCategory() == categoryReference
+                && products.iterator().next().getId().equals(createdProduct.getId())));
+        verify(eventPublisher).publishEvent(ProductChangedEvent.created(createdProduct));
     }
 
     @Test
@@ -230,7 +289,7 @@ public class ProductServiceImplTest {
                 .hasMessage("Product with name ExistingProduct already exists");
         verify(categoryService).getCategoryByName("Electronics");
         verify(productRepository).existsByName("ExistingProduct");
-        verify(productRepository, never()).save(any(Product.class));
+        verify(productRepository, never()).insertAndFlush(any());
     }
 
     // --- Tests for updateProduct ---
@@ -365,6 +424,36 @@ public class ProductServiceImplTest {
         verify(productRepository, never()).save(any(Product.class));
     }
 
+    @Test
+    public void givenNameTakenInOtherCase_whenUpdateProduct_thenThrowEntityAlreadyExistsException() {
+        // given
+        String productId = UUID.randomUUID().toString();
+        ProductInfo productInfo = new ProductInfo();
+        productInfo.setId(productId);
+        productInfo.setName("LAPTOP");
+        productInfo.setCategoryName("Electronics");
+        productInfo.setUnitPrice(new BigDecimal("100.00"));
+        productInfo.setInStock(5);
+
+        Product existingProduct = Product.builder()
+                .id(productId)
+                .name("Tablet")
+                .category(Category.builder().categoryName("Electronics").build())
+                .unitPrice(new BigDecimal("100.00"))
+                .inStock(5)
+                .build();
+
+        when(productRepository.findById(productId)).thenReturn(Optional.of(existingProduct));
+        when(categoryService.getCategoryByName("Electronics")).thenReturn(Category.builder().categoryName("Electronics").build());
+        when(productRepository.existsByName("LAPTOP")).thenReturn(true);
+
+        // when / then
+        assertThatThrownBy(() -> productService.updateProduct(productInfo))
+                .isInstanceOf(EntityAlreadyExistsException.class)
+                .hasMessage("Product with name LAPTOP already exists");
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
     // --- Tests for deleteProductById ---
 
     @Test
@@ -372,11 +461,30 @@ public class ProductServiceImplTest {
         // given
         String productId = UUID.randomUUID().toString();
 
+        Product product = Product.builder().id(productId).name("Test Product").build();
+        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+
         // when
         productService.deleteProductById(productId);
 
         // then
-        verify(productRepository).deleteById(productId);
+        verify(productRepository).delete(product);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.deleted(product));
+    }
+
+    @Test
+    public void givenNonExistingProductId_whenDeleteProductById_thenThrowEntityNotFoundException() {
+        // given
+        String nonExistentId = UUID.randomUUID().toString();
+        when(productRepository.findById(nonExistentId)).thenReturn(Optional.empty());
+
+        // when
+        // then
+        assertThatThrownBy(() -> productService.deleteProductById(nonExistentId))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Product not found with ID: " + nonExistentId + " for deletion");
+        verify(productRepository, never()).delete(any(Product.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -411,16 +519,16 @@ public class ProductServiceImplTest {
     public void givenValidId_whenGetProductById_thenReturnProduct() {
         // given
         String productId = UUID.randomUUID().toString();
-        Product expectedProduct = Product.builder().id(productId).name("Test Product").build();
-        when(productRepository.findById(productId)).thenReturn(Optional.ofNullable(expectedProduct));
+        ProductSummary expectedProduct = ProductSummary.builder().id(productId).name("Test Product").build();
+        when(productRepository.findSummaryById(productId)).thenReturn(Optional.ofNullable(expectedProduct));
 
         // when
-        Product foundProduct = productService.getProductById(productId);
+        ProductSummary foundProduct = productService.getProductById(productId);
 
         // then
         assertNotNull(foundProduct);
         assertEquals(productId, foundProduct.getId());
-        verify(productRepository).findById(productId);
+        verify(productRepository).findSummaryById(productId);
     }
 
     @Test
@@ -453,96 +561,475 @@ public class ProductServiceImplTest {
     public void givenNonExistingId_whenGetProductById_thenThrowEntityNotFoundException() {
         // given
         String nonExistentId = UUID.randomUUID().toString();
-        when(productRepository.findById(nonExistentId)).thenReturn(Optional.empty());
+        when(productRepository.findSummaryById(nonExistentId)).thenReturn(Optional.empty());
 
         // when
         // then
         assertThatThrownBy(() -> productService.getProductById(nonExistentId))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Product not found with ID: " + nonExistentId);
-        verify(productRepository).findById(nonExistentId);
+        verify(productRepository).findSummaryById(nonExistentId);
     }
 
     // --- Tests for getProductsByCriteria ---
 
+    private static ProductFilter filterOf(String name, List<String> categoryNames, Boolean available) {
+        return ProductFilter.builder().name(name).categoryNames(categoryNames).available(available).build();
+    }
+
     @Test
     public void givenNameFilter_whenGetProductsByCriteria_thenReturnMatchingProducts() {
         // given
-        String nameFilter = "lap";
-        List<Product> allProducts = Arrays.asList(
-                Product.builder().name("Laptop Pro").category(Category.builder().categoryName("Electronics").build()).inStock(5).build(),
-                Product.builder().name("Mouse").category(Category.builder().categoryName("Electronics").build()).inStock(10).build(),
-                Product.builder().name("Tablet").category(Category.builder().categoryName("Electronics").build()).inStock(0).build(),
-                Product.builder().name("Apple Pie").category(Category.builder().categoryName("Food").build()).inStock(15).build()
-        );
-        Page<Product> productPage = new PageImpl<>(allProducts.stream()
-                .filter(p -> p.getName().toLowerCase().contains(nameFilter.toLowerCase()))
-                .toList());
-        Pageable pageable = Pageable.unpaged();
-        when(productRepository.findByCriteria(eq(nameFilter), eq(null), eq(false), any(Pageable.class))).thenReturn(productPage);
+        ProductFilter filter = filterOf("lap", null, false);
+        Pageable pageable = PageRequest.of(0, 10);
+        List<ProductSummary> products = List.of(
+                ProductSummary.builder().name("Laptop Pro").categoryName("Electronics").inStock(0).build());
+        when(productRepository.findSliceByFilter(filter, pageable)).thenReturn(new SliceImpl<>(products, pageable, false));
 
         // when
-        Page<Product> filteredProducts = productService.getProductsByCriteria(nameFilter, null, false, pageable);
+        Page<ProductSummary> filteredProducts = productService.getProductsByCriteria(filter, pageable);
 
         // then
-        assertNotNull(filteredProducts);
-        assertEquals(1, filteredProducts.getSize());
+        assertEquals(1, filteredProducts.getTotalElements());
         assertEquals("Laptop Pro", filteredProducts.getContent().getFirst().getName());
-        verify(productRepository).findByCriteria(eq(nameFilter), eq(null), eq(false), any(Pageable.class));
+        verify(productRepository).findSliceByFilter(filter, pageable);
+        verify(productRepository, never()).countByFilter(any());
     }
 
     @Test
-    public void givenCategoryFilter_whenGetProductsByCriteria_thenReturnMatchingProducts() {
+    public void givenCategoryFilterOverSeveralPages_whenGetProductsByCriteria_thenCountOnlyOnce() {
         // given
-        List<String> categoryFilter = List.of("Electronics");
-        List<Product> allProducts = Arrays.asList(
-                Product.builder().name("Laptop Pro").category(Category.builder().categoryName("Electronics").build()).inStock(5).build(),
-                Product.builder().name("Mouse").category(Category.builder().categoryName("Electronics").build()).inStock(10).build(),
-                Product.builder().name("Tablet").category(Category.builder().categoryName("Electronics").build()).inStock(0).build(),
-                Product.builder().name("Apple Pie").category(Category.builder().categoryName("Food").build()).inStock(15).build()
-        );
-        Page<Product> productPage = new PageImpl<>(allProducts.stream()
-                .filter(p -> p.getCategory().getCategoryName().equals("Electronics"))
-                .toList());
-        Pageable pageable = Pageable.unpaged();
-        when(productRepository.findByCriteria(eq(null), eq(categoryFilter), eq(false), any(Pageable.class))).thenReturn(productPage);
+        ProductFilter filter = filterOf(null, List.of("Electronics"), null);
+        List<ProductSummary> products = List.of(
+                ProductSummary.builder().name("Laptop Pro").categoryName("Electronics").inStock(5).build(),
+                ProductSummary.builder().name("Mouse").categoryName("Electronics").inStock(10).build());
+        when(productRepository.findSliceByFilter(eq(filter), any(Pageable.class)))
+                .thenAnswer(invocation -> new SliceImpl<>(products, invocation.getArgument(1), true));
+        when(productRepository.countByFilter(filter)).thenReturn(7L);
 
         // when
-        Page<Product> filteredProducts = productService.getProductsByCriteria(null, categoryFilter, false, pageable);
+        Page<ProductSummary> firstPage = productService.getProductsByCriteria(filter, PageRequest.of(0, 2));
+        Page<ProductSummary> secondPage = productService.getProductsByCriteria(filter, PageRequest.of(1, 2));
 
         // then
-        assertNotNull(filteredProducts);
-        assertEquals(3, filteredProducts.getSize());
-        assertTrue(filteredProducts.stream().allMatch(p -> p.getCategory().getCategoryName().equals("Electronics")));
-        verify(productRepository).findByCriteria(eq(null), eq(categoryFilter), eq(false), any(Pageable.class));
+        assertEquals(7, firstPage.getTotalElements());
+        assertEquals(7, secondPage.getTotalElements());
+        assertEquals(4, secondPage.getTotalPages());
+        verify(productRepository, times(1)).countByFilter(filter);
     }
 
     @Test
-    public void givenNameAndAvailabilityFilter_whenGetProductsByCriteria_thenReturnMatchingProducts() {
+    public void givenProductChanged_whenGetProductsByCriteria_thenCountAgain() {
         // given
-        String nameFilter = "lap";
-        boolean availabilityFilter = true;
-        List<Product> allProducts = Arrays.asList(
-                Product.builder().name("Laptop Pro").category(Category.builder().categoryName("Electronics").build()).inStock(5).build(),
-                Product.builder().name("Laptop Basic").category(Category.builder().categoryName("Electronics").build()).inStock(0).build(),
-                Product.builder().name("Mouse").category(Category.builder().categoryName("Electronics").build()).inStock(10).build(),
-                Product.builder().name("Apple Pie").category(Category.builder().categoryName("Food").build()).inStock(15).build()
-        );
-        Page<Product> productPage = new PageImpl<>(allProducts.stream()
-                .filter(p -> p.getName().toLowerCase().contains(nameFilter.toLowerCase()) && p.getInStock() > 0)
-                .toList());
-        Pageable pageable = Pageable.unpaged();
-        when(productRepository.findByCriteria(eq(nameFilter), eq(null), eq(availabilityFilter), any(Pageable.class))).thenReturn(productPage);
+        ProductFilter filter = filterOf(null, null, true);
+        Pageable pageable = PageRequest.of(0, 1);
+        when(productRepository.findSliceByFilter(filter, pageable)).thenReturn(new SliceImpl<>(
+                List.of(ProductSummary.builder().name("Mouse").inStock(10).build()), pageable, true));
+        when(productRepository.countByFilter(filter)).thenReturn(3L, 4L);
+        productService.getProductsByCriteria(filter, pageable);
 
         // when
-        Page<Product> filteredProducts = productService.getProductsByCriteria(nameFilter, null, availabilityFilter, pageable);
+        productCountCache.onProductChanged(ProductChangedEvent.created(Product.builder().id("new").inStock(1).build()));
+        Page<ProductSummary> refreshedPage = productService.getProductsByCriteria(filter, pageable);
 
         // then
-        assertNotNull(filteredProducts);
-        assertEquals(1, filteredProducts.getSize());
-        assertEquals("Laptop Pro", filteredProducts.getContent().getFirst().getName());
-        assertTrue(filteredProducts.getContent().getFirst().getInStock()>0);
-        verify(productRepository).findByCriteria(eq(nameFilter), eq(null), eq(availabilityFilter), any(Pageable.class));
+        assertEquals(4, refreshedPage.getTotalElements());
+        verify(productRepository, times(2)).countByFilter(filter);
+    }
+
+    @Test
+    public void givenIndexedNameFilter_whenGetProductsByCriteria_thenQueryOnlyCandidateIds() {
+        // given
+        Set<String> candidateIds = Set.of("laptop-pro");
+        Pageable pageable = Pageable.ofSize(10);
+        ProductFilter narrowedFilter = filterOf("lap", null, true).toBuilder().ids(candidateIds).build();
+        when(productNameIndex.findCandidates("lap")).thenReturn(Optional.of(candidateIds));
+        when(productRepository.findSliceByFilter(narrowedFilter, pageable)).thenReturn(new SliceImpl<>(
+                List.of(ProductSummary.builder().id("laptop-pro").name("Laptop Pro").build()), pageable, false));
+
+        // when
+        Page<ProductSummary> filteredProducts = productService.getProductsByCriteria(filterOf("lap", null, true), pageable);
+
+        // then
+        assertEquals(1, filteredProducts.getNumberOfElements());
+        verify(productRepository).findSliceByFilter(narrowedFilter, pageable);
+    }
+
+    @Test
+    public void givenCategoriesAndAvailability_whenGetProductsByCriteria_thenQueryOnlyBitmapCandidates() {
+        // given
+        Set<String> candidateIds = Set.of("apple", "milk");
+        Pageable pageable = Pageable.ofSize(10);
+        ProductFilter narrowedFilter = filterOf(null, List.of("Food", "Dairy"), true).toBuilder().ids(candidateIds).build();
+        when(productBitmapIndex.findCandidates(List.of("Food", "Dairy"), true, null)).thenReturn(Optional.of(candidateIds));
+        when(productRepository.findSliceByFilter(narrowedFilter, pageable)).thenReturn(new SliceImpl<>(
+                List.of(ProductSummary.builder().id("apple").name("Apple").build(),
+                        ProductSummary.builder().id("milk").name("Milk").build()), pageable, false));
+
+        // when
+        Page<ProductSummary> filteredProducts = productService.getProductsByCriteria(filterOf(null, List.of("Food", "Dairy"), true), pageable);
+
+        // then
+        assertEquals(2, filteredProducts.getTotalElements());
+        verify(productRepository).findSliceByFilter(narrowedFilter, pageable);
+    }
+
+    @Test
+    public void givenNameAndCategory_whenGetProductsByCriteria_thenIntersectNameAndBitmapCandidates() {
+        // given
+        Pageable pageable = Pageable.ofSize(10);
+        when(productNameIndex.findCandidates("lap")).thenReturn(Optional.of(Set.of("laptop-pro", "lapsang-tea")));
+        when(productBitmapIndex.findCandidates(List.of("Electronics"), null, Set.of("laptop-pro", "lapsang-tea")))
+                .thenReturn(Optional.of(Set.of()));
+
+        // when
+        Page<ProductSummary> filteredProducts = productService.getProductsByCriteria(filterOf("lap", List.of("Electronics"), null), pageable);
+
+        // then
+        assertTrue(filteredProducts.isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    public void givenMinPriceAboveMaxPrice_whenGetProductsByCriteria_thenThrowIllegalArgumentException() {
+        ProductFilter filter = ProductFilter.builder().minPrice(new BigDecimal("10")).maxPrice(new BigDecimal("5")).build();
+
+        assertThatThrownBy(() -> productService.getProductsByCriteria(filter, Pageable.ofSize(10)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Minimum price cannot be greater than maximum price");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    public void givenNameWithoutIndexMatches_whenGetProductsByCriteria_thenReturnEmptyPageWithoutQuery() {
+        // given
+        when(productNameIndex.findCandidates("xyz")).thenReturn(Optional.of(Set.of()));
+
+        // when
+        Page<ProductSummary> filteredProducts = productService.getProductsByCriteria(filterOf("xyz", null, null), Pageable.ofSize(10));
+
+        // then
+        assertTrue(filteredProducts.isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    // --- Tests for getProductSliceByCriteria ---
+
+    @Test
+    public void givenMoreProducts_whenGetProductSliceByCriteria_thenReturnSliceWithoutCounting() {
+        // given
+        ProductFilter filter = filterOf(null, List.of("Food"), null);
+        Pageable pageable = PageRequest.of(0, 1);
+        when(productRepository.findSliceByFilter(filter, pageable)).thenReturn(new SliceImpl<>(
+                List.of(ProductSummary.builder().name("Apple").categoryName("Food").build()), pageable, true));
+
+        // when
+        Slice<ProductSummary> slice = productService.getProductSliceByCriteria(filter, pageable);
+
+        // then
+        assertTrue(slice.hasNext());
+        assertEquals("Apple", slice.getContent().getFirst().getName());
+        verify(productRepository, never()).countByFilter(any());
+    }
+
+    @Test
+    public void givenNameWithoutIndexMatches_whenGetProductSliceByCriteria_thenReturnEmptySliceWithoutQuery() {
+        // given
+        when(productNameIndex.findCandidates("xyz")).thenReturn(Optional.of(Set.of()));
+
+        // when
+        Slice<ProductSummary> slice = productService.getProductSliceByCriteria(filterOf("xyz", null, null), Pageable.ofSize(10));
+
+        // then
+        assertFalse(slice.hasNext());
+        assertTrue(slice.isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    // --- Tests for searchProducts ---
+
+    @Test
+    public void givenSelectedCategoryAndAvailability_whenSearchProducts_thenEachFacetIgnoresOnlyItsOwnSelection() {
+        // given
+        Pageable pageable = PageRequest.of(0, 10);
+        ProductFilter filter = filterOf("milk", List.of("Dairy"), true);
+        when(productRepository.findSliceByFilter(filter, pageable)).thenReturn(new SliceImpl<>(
+                List.of(ProductSummary.builder().name("Whole milk").categoryName("Dairy").inStock(4).build()), pageable, false));
+        when(productRepository.findFacetCounts(filterOf("milk", null, null))).thenReturn(List.of(
+                new ProductFacetCount("Dairy", true, 1L),
+                new ProductFacetCount("Dairy", false, 2L),
+                new ProductFacetCount("Drinks", true, 3L),
+                new ProductFacetCount("Bakery", false, 5L)));
+
+        // when
+        ProductSearchResult result = productService.searchProducts(filter, pageable);
+
+        // then
+        assertEquals(1, result.getContent().size());
+        assertEquals(1, result.getPage().totalElements());
+        assertEquals(List.of(new CategoryFacet("Dairy", 1), new CategoryFacet("Drinks", 3)),
+                result.getFacets().getCategories());
+        assertEquals(1, result.getFacets().getInStock());
+        assertEquals(2, result.getFacets().getOutOfStock());
+        verify(productRepository, times(1)).findFacetCounts(any());
+    }
+
+    @Test
+    public void givenNoNameFilter_whenSearchProducts_thenCountFacetsFromBitmaps() {
+        // given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productRepository.findSliceByFilter(filterOf(null, null, null), pageable))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        when(productBitmapIndex.findFacetCounts(null)).thenReturn(Optional.of(List.of(
+                new ProductFacetCount("Dairy", true, 1L),
+                new ProductFacetCount("Bakery", false, 5L))));
+
+        // when
+        ProductSearchResult result = productService.searchProducts(filterOf(null, null, null), pageable);
+
+        // then
+        assertEquals(List.of(new CategoryFacet("Bakery", 5), new CategoryFacet("Dairy", 1)),
+                result.getFacets().getCategories());
+        verify(productRepository, never()).findFacetCounts(any());
+    }
+
+    @Test
+    public void givenExpirationWindow_whenSearchProducts_thenCountFacetsWithinTheWindowInDatabase() {
+        // given
+        Pageable pageable = PageRequest.of(0, 10);
+        ProductFilter filter = ProductFilter.builder()
+                .categoryNames(List.of("Dairy"))
+                .expiringFrom(LocalDate.of(2025, 6, 1))
+                .expiringUntil(LocalDate.of(2025, 6, 7))
+                .build();
+        when(productRepository.findSliceByFilter(filter, pageable)).thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        when(productRepository.findFacetCounts(filter.toBuilder().categoryNames(null).build()))
+                .thenReturn(List.of(new ProductFacetCount("Dairy", true, 2L)));
+
+        // when
+        ProductSearchResult result = productService.searchProducts(filter, pageable);
+
+        // then
+        assertEquals(List.of(new CategoryFacet("Dairy", 2)), result.getFacets().getCategories());
+        verify(productBitmapIndex, never()).findFacetCounts(any());
+    }
+
+    @Test
+    public void givenNameWithoutIndexMatches_whenSearchProducts_thenReturnEmptyFacetsWithoutQuery() {
+        // given
+        when(productNameIndex.findCandidates("xyz")).thenReturn(Optional.of(Set.of()));
+
+        // when
+        ProductSearchResult result = productService.searchProducts(filterOf("xyz", null, null), Pageable.ofSize(10));
+
+        // then
+        assertTrue(result.getContent().isEmpty());
+        assertTrue(result.getFacets().getCategories().isEmpty());
+        assertEquals(0, result.getFacets().getInStock() + result.getFacets().getOutOfStock());
+        verifyNoInteractions(productRepository);
+    }
+
+    // --- Tests for getProductsAfterCursor ---
+
+    @Test
+    public void givenMoreProductsThanPageSize_whenGetProductsAfterCursor_thenReturnCursorToNextPage() {
+        // given
+        ProductFilter filter = ProductFilter.builder().available(true).build();
+        Sort.Order order = Sort.Order.asc("unitPrice");
+        List<Product> products = List.of(
+                Product.builder().id("a").name("Apple").unitPrice(new BigDecimal("1.50")).inStock(5).build(),
+                Product.builder().id("b").name("Banana").unitPrice(new BigDecimal("1.80")).inStock(5).build(),
+                Product.builder().id("c").name("Cherry").unitPrice(new BigDecimal("2.10")).inStock(5).build());
+        when(productRepository.findByFilterAfter(eq(filter), any(ProductKeyset.class), eq(3))).thenReturn(products);
+
+        // when
+        ProductCursorPage firstPage = productService.getProductsAfterCursor(filter, order, null, 2);
+        productService.getProductsAfterCursor(filter, order, firstPage.getNextCursor(), 2);
+
+        // then
+        assertTrue(firstPage.isHasNext());
+        assertEquals(2, firstPage.getContent().size());
+        verify(productRepository).findByFilterAfter(filter, ProductKeyset.builder()
+                .sortProperty("unitPrice").direction(Sort.Direction.ASC).build(), 3);
+        verify(productRepository).findByFilterAfter(filter, ProductKeyset.builder()
+                .sortProperty("unitPrice").direction(Sort.Direction.ASC)
+                .lastValue(new BigDecimal("1.80")).lastId("b").build(), 3);
+        verify(productRepository, never()).findSliceByFilter(any(), any(Pageable.class));
+    }
+
+    @Test
+    public void givenUnpricedLastProduct_whenGetProductsAfterCursor_thenCursorContinuesAfterIt() {
+        // given
+        ProductFilter filter = new ProductFilter();
+        Sort.Order order = Sort.Order.asc("unitPrice");
+        when(productRepository.findByFilterAfter(eq(filter), any(ProductKeyset.class), eq(2))).thenReturn(List.of(
+                Product.builder().id("a").name("Apple").build(),
+                Product.builder().id("b").name("Banana").build()));
+
+        // when
+        ProductCursorPage firstPage = productService.getProductsAfterCursor(filter, order, null, 1);
+        productService.getProductsAfterCursor(filter, order, firstPage.getNextCursor(), 1);
+
+        // then
+        verify(productRepository).findByFilterAfter(filter, ProductKeyset.builder()
+                .sortProperty("unitPrice").direction(Sort.Direction.ASC).lastId("a").build(), 2);
+    }
+
+    @Test
+    public void givenCursorFromAnotherSort_whenGetProductsAfterCursor_thenThrowIllegalArgumentException() {
+        // given
+        ProductFilter filter = new ProductFilter();
+        when(productRepository.findByFilterAfter(eq(filter), any(ProductKeyset.class), eq(2))).thenReturn(List.of(
+                Product.builder().id("a").name("Apple").unitPrice(new BigDecimal("1.50")).build(),
+                Product.builder().id("b").name("Banana").unitPrice(new BigDecimal("1.80")).build()));
+        String cursor = productService.getProductsAfterCursor(filter, Sort.Order.asc("name"), null, 1).getNextCursor();
+
+        // when
+        // then
+        assertThatThrownBy(() -> productService.getProductsAfterCursor(filter, Sort.Order.asc("unitPrice"), cursor, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productService.getProductsAfterCursor(filter, Sort.Order.asc("name"), "not-a-cursor", 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // --- Tests for exportProducts ---
+
+    @Test
+    public void givenNameFilter_whenExportProducts_thenNarrowExportToIndexCandidates() {
+        // given
+        ProductFilter filter = ProductFilter.builder().name("lap").available(true).build();
+        OutputStream output = new ByteArrayOutputStream();
+        when(productNameIndex.findCandidates("lap")).thenReturn(Optional.of(Set.of("1", "2")));
+        when(productExporter.export(any(), eq(ProductFileFormat.CSV), eq(output))).thenReturn(2L);
+
+        // when
+        long exported = productService.exportProducts(filter, ProductFileFormat.CSV, output);
+
+        // then
+        assertEquals(2L, exported);
+        verify(productExporter).export(filter.toBuilder().ids(Set.of("1", "2")).build(), ProductFileFormat.CSV, output);
+    }
+
+    @Test
+    public void givenNullFormat_whenExportProducts_thenThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> productService.exportProducts(new ProductFilter(), null, new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Export filter, format and output cannot be null");
+        verifyNoInteractions(productExporter);
+    }
+
+    // --- Tests for top products ---
+
+    @Test
+    public void givenLargeLimit_whenGetMostValuableProducts_thenCapLimitAndReadFromIndexedQuery() {
+        // given
+        List<ProductSummary> products = List.of(ProductSummary.builder().id("1").name("Laptop Pro").build());
+        when(productRepository.findTopByStockValue(Limit.of(100))).thenReturn(products);
+
+        // when
+        List<ProductSummary> result = productService.getMostValuableProducts(1000);
+
+        // then
+        assertEquals(products, result);
+    }
+
+    @Test
+    public void givenLimit_whenGetSoonestExpiringProducts_thenOnlyLookFromToday() {
+        // when
+        productService.getSoonestExpiringProducts(20);
+
+        // then
+        verify(productRepository).findSoonestExpiring(LocalDate.now(), Limit.of(20));
+    }
+
+    @Test
+    public void givenZeroLimit_whenGetLowestStockProducts_thenThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> productService.getLowestStockProducts(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Top products limit must be greater than zero");
+        verifyNoInteractions(productRepository);
+    }
+
+    // --- Tests for suggestNames ---
+
+    @Test
+    public void givenPrefix_whenSuggestNames_thenReturnSuggestionsFromIndex() {
+        // given
+        List<Suggestion> suggestions = List.of(new Suggestion(Suggestion.Type.PRODUCT, "1", "Laptop Pro"));
+        when(namePrefixIndex.suggest("lap", 50)).thenReturn(suggestions);
+
+        // when
+        List<Suggestion> result = productService.suggestNames(" lap ", 500);
+
+        // then
+        assertEquals(suggestions, result);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    public void givenEmptyPrefix_whenSuggestNames_thenThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> productService.suggestNames(" ", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Suggestion prefix cannot be null or empty");
+        verifyNoInteractions(namePrefixIndex);
+    }
+
+    // --- Tests for adjustStock ---
+
+    @Test
+    public void givenEnoughStock_whenAdjustStock_thenApplyDeltaAndPublishChange() {
+        // given
+        Product adjusted = Product.builder()
+                .id("1")
+                .category(Category.builder().categoryName("Food").build())
+                .unitPrice(new BigDecimal("2.00"))
+                .inStock(7)
+                .build();
+        when(productRepository.adjustStock(eq("1"), eq(-3), any(LocalDate.class))).thenReturn(1);
+        when(productRepository.findFreshById("1")).thenReturn(Optional.of(adjusted));
+
+        // when
+        Product result = productService.adjustStock("1", -3);
+
+        // then
+        assertEquals(7, result.getInStock());
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) ->
+                event.before().getInStock() == 10 && event.after().getInStock() == 7));
+    }
+
+    @Test
+    public void givenNotEnoughStock_whenAdjustStock_thenThrowInsufficientStockException() {
+        // given
+        when(productRepository.adjustStock(eq("1"), eq(-5), any(LocalDate.class))).thenReturn(0);
+        when(productRepository.findFreshById("1")).thenReturn(Optional.of(Product.builder().id("1").inStock(2).build()));
+
+        // when
+        // then
+        assertThatThrownBy(() -> productService.adjustStock("1", -5))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessage("Cannot adjust stock of product 1 by -5, only 2 in stock");
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void givenNonExistingProductId_whenAdjustStock_thenThrowEntityNotFoundException() {
+        // given
+        when(productRepository.adjustStock(eq("missing"), eq(1), any(LocalDate.class))).thenReturn(0);
+        when(productRepository.findFreshById("missing")).thenReturn(Optional.empty());
+
+        // when
+        // then
+        assertThatThrownBy(() -> productService.adjustStock("missing", 1))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Product not found with ID: missing");
+    }
+
+    @Test
+    public void givenZeroDelta_whenAdjustStock_thenThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> productService.adjustStock("1", 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Stock delta cannot be zero");
+        verifyNoInteractions(productRepository);
     }
 
     // --- Tests for setProductInStock ---
@@ -634,12 +1121,155 @@ public class ProductServiceImplTest {
         verify(productRepository).findById(nonExistentId);
     }
 
+    // --- Tests for setProductsInStock and setProductsOutOfStock ---
+
+    @Test
+    public void givenCategoryFilter_whenSetProductsOutOfStock_thenUpdateOnceAndPublishEachChange() {
+        // given
+        ProductFilter filter = filterOf(null, List.of("Beverages"), null);
+        List<ProductSummary> changes = List.of(
+                ProductSummary.builder().id("1").name("Cola").categoryName("Beverages").unitPrice(new BigDecimal("1.50")).inStock(12).build(),
+                ProductSummary.builder().id("2").name("Lemonade").categoryName("Beverages").unitPrice(new BigDecimal("2.00")).inStock(3).build());
+        when(productRepository.lockStockChanges(filter, 0)).thenReturn(changes);
+        when(productRepository.updateStockByFilter(filter, 0, LocalDate.now())).thenReturn(2);
+
+        // when
+        BulkUpdateResult result = productService.setProductsOutOfStock(filter);
+
+        // then
+        assertEquals(2, result.getUpdated());
+        verify(productRepository, never()).save(any());
+        verify(eventPublisher, times(2)).publishEvent(argThat((ProductChangedEvent event) ->
+                event.before().getInStock() > 0 && event.after().getInStock() == 0
+                        && LocalDate.now().equals(event.after().getUpdatedAt())
+                        && "Beverages".equals(event.after().getCategory().getCategoryName())));
+    }
+
+    @Test
+    public void givenProductsAlreadyInStock_whenSetProductsInStock_thenSkipUpdate() {
+        // given
+        ProductFilter filter = ProductFilter.builder().ids(List.of("1", "2")).build();
+        when(productRepository.lockStockChanges(filter, 10)).thenReturn(List.of());
+
+        // when
+        BulkUpdateResult result = productService.setProductsInStock(filter);
+
+        // then
+        assertEquals(0, result.getUpdated());
+        verify(productRepository, never()).updateStockByFilter(any(), anyInt(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void givenNoIdsNorFilters_whenSetProductsOutOfStock_thenThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> productService.setProductsOutOfStock(new ProductFilter()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Bulk stock change needs product IDs or at least one filter");
+        verifyNoInteractions(productRepository);
+    }
+
+    // --- Tests for adjustPrices ---
+
+    @Test
+    public void givenPercentForCategory_whenAdjustPrices_thenRoundToCentsAndPublishEachChange() {
+        // given
+        ProductFilter filter = filterOf(null, List.of("Beverages"), null);
+        when(productRepository.lockPricedProducts(filter)).thenReturn(List.of(
+                ProductSummary.builder().id("1").categoryName("Beverages").unitPrice(new BigDecimal("1.99")).inStock(10).build(),
+                ProductSummary.builder().id("2").categoryName("Beverages").unitPrice(new BigDecimal("0.45")).inStock(4).build()));
+        BigDecimal factor = new BigDecimal("1.04");
+        when(productRepository.adjustPrices(List.of("1", "2"), factor, BigDecimal.ZERO, LocalDate.now())).thenReturn(2);
+
+        // when
+        BulkUpdateResult result = productService.adjustPrices(filter, PriceAdjustment.builder().percent(new BigDecimal("4")).build());
+
+        // then
+        assertEquals(2, result.getUpdated());
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) ->
+                event.after().getId().equals("1") && event.after().getUnitPrice().equals(new BigDecimal("2.07"))));
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) ->
+                event.after().getId().equals("2") && event.after().getUnitPrice().equals(new BigDecimal("0.47"))));
+    }
+
+    @Test
+    public void givenAmountBelowCurrentPrice_whenAdjustPrices_thenThrowWithoutUpdating() {
+        // given
+        ProductFilter filter = filterOf(null, List.of("Snacks"), null);
+        when(productRepository.lockPricedProducts(filter)).thenReturn(List.of(
+                ProductSummary.builder().id("1").unitPrice(new BigDecimal("5.00")).build(),
+                ProductSummary.builder().id("2").unitPrice(new BigDecimal("0.80")).build()));
+
+        // when
+        // then
+        assertThatThrownBy(() -> productService.adjustPrices(filter, PriceAdjustment.builder().amount(new BigDecimal("-1")).build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Price adjustment would set the unit price of product 2 to -0.20");
+        verify(productRepository, never()).adjustPrices(any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void givenPercentAndAmount_whenAdjustPrices_thenThrowIllegalArgumentException() {
+        PriceAdjustment adjustment = PriceAdjustment.builder().percent(BigDecimal.TEN).amount(BigDecimal.ONE).build();
+
+        assertThatThrownBy(() -> productService.adjustPrices(filterOf(null, List.of("Snacks"), null), adjustment))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Price adjustment needs either a percent or an amount");
+        verifyNoInteractions(productRepository);
+    }
+
+    // --- Tests for getStockMovements ---
+
+    @Test
+    public void givenLargeLimit_whenGetStockMovements_thenCapTheLimit() {
+        // given
+        List<InventoryMovement> movements = List.of(InventoryMovement.builder().productId("1").quantityDelta(-2).build());
+        when(inventoryLedger.getMovements("1", Limit.of(1000))).thenReturn(movements);
+
+        // when
+        List<InventoryMovement> result = productService.getStockMovements("1", 5000);
+
+        // then
+        assertEquals(movements, result);
+    }
+
+    @Test
+    public void givenNonPositiveLimit_whenGetStockMovements_thenThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> productService.getStockMovements("1", 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Stock movements limit must be greater than zero");
+        verifyNoInteractions(inventoryLedger);
+    }
+
+    // --- Tests for getChangesSince ---
+
+    @Test
+    public void givenLargeLimit_whenGetChangesSince_thenCapTheLimit() {
+        // given
+        ProductChanges changes = ProductChanges.builder().upserts(List.of()).deletedIds(List.of("1")).nextSince(51).build();
+        when(changeLog.getChangesSince(0, 1000)).thenReturn(changes);
+
+        // when
+        ProductChanges result = productService.getChangesSince(0, 5000);
+
+        // then
+        assertEquals(changes, result);
+    }
+
+    @Test
+    public void givenNegativeSince_whenGetChangesSince_thenThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> productService.getChangesSince(-1, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Change sequence number cannot be negative");
+        verifyNoInteractions(changeLog);
+    }
+
     // --- Tests for getInventoryReport ---
 
     @Test
     public void givenEmptyInventory_whenGetInventoryReport_thenReturnEmptyMetrics() {
         // given
-        when(productRepository.findAll()).thenReturn(Collections.emptyList());
+        givenInventory(Collections.emptyList());
 
         // when
         InventoryMetricsReport report = productService.getInventoryReport();
@@ -655,7 +1285,7 @@ public class ProductServiceImplTest {
         assertEquals(BigDecimal.ZERO, overall.getTotalValueInStock());
         assertEquals(BigDecimal.ZERO, overall.getAveragePriceInStock());
 
-        verify(productRepository).findAll();
+        verifyNoInteractions(productRepository);
     }
 
     @Test
@@ -669,7 +1299,7 @@ public class ProductServiceImplTest {
                 .inStock(5)
                 .build();
 
-        when(productRepository.findAll()).thenReturn(List.of(laptop));
+        givenInventory(List.of(laptop));
 
         // when
         InventoryMetricsReport report = productService.getInventoryReport();
@@ -691,7 +1321,7 @@ public class ProductServiceImplTest {
         assertEquals(new BigDecimal("6000.00"), electronicsMetrics.getTotalValueInStock());
         assertEquals(new BigDecimal("1200.00"), electronicsMetrics.getAveragePriceInStock());
 
-        verify(productRepository).findAll();
+        verifyNoInteractions(productRepository);
     }
 
     @Test
@@ -711,7 +1341,7 @@ public class ProductServiceImplTest {
                         .unitPrice(new BigDecimal("2.00")).inStock(0).build()
         );
 
-        when(productRepository.findAll()).thenReturn(products);
+        givenInventory(products);
 
         InventoryMetricsReport report = productService.getInventoryReport();
 
@@ -737,7 +1367,7 @@ public class ProductServiceImplTest {
         assertEquals(new BigDecimal("15.00"), foodMetrics.getTotalValueInStock());
         assertEquals(new BigDecimal("1.50"), foodMetrics.getAveragePriceInStock());
 
-        verify(productRepository).findAll();
+        verifyNoInteractions(productRepository);
     }
 
     @Test
@@ -752,7 +1382,7 @@ public class ProductServiceImplTest {
                         .unitPrice(new BigDecimal("800.00")).inStock(0).build()
         );
 
-        when(productRepository.findAll()).thenReturn(products);
+        givenInventory(products);
 
         // when
         InventoryMetricsReport report = productService.getInventoryReport();
@@ -766,6 +1396,117 @@ public class ProductServiceImplTest {
         assertEquals(BigDecimal.ZERO, overall.getAveragePriceInStock());
         assertTrue(report.getCategoryMetrics().isEmpty());
 
-        verify(productRepository).findAll();
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    public void givenMetricsNotYetInitialized_whenGetInventoryReport_thenUseDatabaseTotals() {
+        // given
+        CategoryStockTotals foodTotals = CategoryStockTotals.builder()
+                .categoryName("Food")
+                .totalUnitsInStock(10L)
+                .totalValueInStock(new BigDecimal("15.00"))
+                .sumOfUnitPrices(new BigDecimal("1.50"))
+                .productsInStock(1L)
+                .build();
+        when(productRepository.findInStockTotalsByCategory()).thenReturn(List.of(foodTotals));
+
+        // when
+        InventoryMetricsReport report = productService.getInventoryReport();
+
+        // then
+        OverallMetrics overall = report.getOverallMetrics();
+        assertEquals(10, overall.getTotalProductsInStock());
+        assertEquals(new BigDecimal("15.00"), overall.getTotalValueInStock());
+        assertEquals(new BigDecimal("1.50"), overall.getAveragePriceInStock());
+        assertEquals(1, report.getCategoryMetrics().size());
+        assertEquals("Food", report.getCategoryMetrics().getFirst().getCategoryName());
+        verify(productRepository).findInStockTotalsByCategory();
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    public void givenLedgerBalances_whenGetInventoryReportAsOf_thenReportStockAtEndOfThatDay() {
+        // given
+        LocalDate monthEnd = LocalDate.of(2026, 9, 30);
+        when(inventoryLedger.startedAt()).thenReturn(Optional.of(LocalDateTime.of(2026, 9, 1, 8, 0)));
+        when(inventoryLedger.balancesAt(LocalDateTime.of(2026, 10, 1, 0, 0))).thenReturn(Map.of(
+                "1", new StockBalance("1", "Food", 10, new BigDecimal("1.20")),
+                "2", new StockBalance("2", "Food", 2, new BigDecimal("3.00")),
+                "3", new StockBalance("3", "Drinks", 0, new BigDecimal("2.00"))));
+
+        // when
+        InventoryMetricsReport report = productService.getInventoryReport(monthEnd);
+
+        // then
+        OverallMetrics overall = report.getOverallMetrics();
+        assertEquals(12, overall.getTotalProductsInStock());
+        assertEquals(0, new BigDecimal("18.00").compareTo(overall.getTotalValueInStock()));
+        assertEquals(new BigDecimal("2.10"), overall.getAveragePriceInStock());
+        assertEquals(1, report.getCategoryMetrics().size());
+        assertEquals("Food", report.getCategoryMetrics().getFirst().getCategoryName());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    public void givenDateBeforeLedgerStarted_whenGetInventoryReportAsOf_thenThrowIllegalArgumentException() {
+        // given
+        when(inventoryLedger.startedAt()).thenReturn(Optional.of(LocalDateTime.of(2026, 9, 1, 8, 0)));
+
+        // when
+        // then
+        assertThatThrownBy(() -> productService.getInventoryReport(LocalDate.of(2026, 8, 31)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("As-of date cannot be before the inventory ledger started on 2026-09-01");
+        verify(inventoryLedger, never()).balancesAt(any());
+    }
+
+    @Test
+    public void givenFutureDate_whenGetInventoryReportAsOf_thenThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> productService.getInventoryReport(LocalDate.now().plusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("As-of date cannot be in the future");
+        verifyNoInteractions(inventoryLedger);
+    }
+
+    // --- Tests for getInventoryHistory ---
+
+    @Test
+    public void givenRecentDayWithoutResolution_whenGetInventoryHistory_thenReadMinutePoints() {
+        // given
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusHours(6);
+        when(metricsHistory.retentionOf(Resolution.MINUTE)).thenReturn(Duration.ofDays(1));
+
+        // when
+        productService.getInventoryHistory("", null, from, to);
+
+        // then
+        verify(metricsHistory).getHistory(null, Resolution.MINUTE, from, to);
+    }
+
+    @Test
+    public void givenRangeOlderThanMinuteRetention_whenGetInventoryHistory_thenReadHourPoints() {
+        // given
+        LocalDateTime to = LocalDateTime.now().minusDays(3);
+        LocalDateTime from = to.minusDays(2);
+        when(metricsHistory.retentionOf(Resolution.MINUTE)).thenReturn(Duration.ofDays(1));
+        when(metricsHistory.retentionOf(Resolution.HOUR)).thenReturn(Duration.ofDays(35));
+
+        // when
+        productService.getInventoryHistory("Food", null, from, to);
+
+        // then
+        verify(metricsHistory).getHistory("Food", Resolution.HOUR, from, to);
+    }
+
+    @Test
+    public void givenTooManyPointsAtRequestedResolution_whenGetInventoryHistory_thenThrowIllegalArgumentException() {
+        LocalDateTime to = LocalDateTime.now();
+
+        assertThatThrownBy(() -> productService.getInventoryHistory(null, Resolution.MINUTE, to.minusDays(7), to))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Metrics history range needs more than 1500 MINUTE points");
+        verifyNoInteractions(metricsHistory);
     }
-}
\ No newline at end of file
+}
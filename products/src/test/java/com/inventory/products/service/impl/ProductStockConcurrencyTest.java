@@ -0,0 +1,121 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.exception.InsufficientStockException;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import com.inventory.products.repository.CategoryRepository;
+import com.inventory.products.repository.ProductRepository;
+import com.inventory.products.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:stock-concurrency;LOCK_TIMEOUT=10000")
+public class ProductStockConcurrencyTest {
+    private static final int THREADS = 4;
+    private static final int ADJUSTMENTS_PER_THREAD = 25;
+    private static final int WITHDRAWALS_PER_THREAD = 30;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private InventoryMetricsAggregator metricsAggregator;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAllInBatch();
+        categoryRepository.save(Category.builder().categoryName("Hot").build());
+        metricsAggregator.reconcile(List::of);
+    }
+
+    private Product createProduct(int inStock) {
+        return productService.createProduct(new ProductInfo(null, "Hot SKU " + System.nanoTime(), "Hot",
+                new BigDecimal("2.50"), null, inStock));
+    }
+
+    // Runs the task on every thread at once
+    private void runConcurrently(Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void givenConcurrentWritersOnHotSku_whenAdjustStock_thenNoUpdateIsLost() throws Exception {
+        // given
+        Product product = createProduct(0);
+
+        // when
+        runConcurrently(() -> {
+            for (int i = 0; i < ADJUSTMENTS_PER_THREAD; i++) {
+                productService.adjustStock(product.getId(), 2);
+                productService.adjustStock(product.getId(), -1);
+            }
+            return null;
+        });
+
+        // then
+        assertEquals(THREADS * ADJUSTMENTS_PER_THREAD, productRepository.findById(product.getId()).orElseThrow().getInStock());
+        assertTrue(metricsAggregator.reconcile(productRepository::findInStockTotalsByCategory).isEmpty());
+    }
+
+    @Test
+    public void givenConcurrentWithdrawalsBeyondStock_whenAdjustStock_thenStockNeverGoesNegative() throws Exception {
+        // given
+        int initialStock = 100;
+        Product product = createProduct(initialStock);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // when
+        runConcurrently(() -> {
+            for (int i = 0; i < WITHDRAWALS_PER_THREAD; i++) {
+                try {
+                    productService.adjustStock(product.getId(), -1);
+                    succeeded.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        // then
+        assertEquals(initialStock, succeeded.get());
+        assertEquals(THREADS * WITHDRAWALS_PER_THREAD - initialStock, rejected.get());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getInStock());
+        assertTrue(metricsAggregator.reconcile(productRepository::findInStockTotalsByCategory).isEmpty());
+    }
+}
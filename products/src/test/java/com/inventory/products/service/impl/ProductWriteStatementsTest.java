@@ -0,0 +1,77 @@
+package com.inventory.products.service.impl;
+
+import com.inventory.products.dto.ProductInfo;
+import com.inventory.products.model.Category;
+import com.inventory.products.model.Product;
+import com.inventory.products.service.CategoryService;
+import com.inventory.products.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-write-statements",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class ProductWriteStatementsTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (categoryService.getAllCategories().isEmpty()) {
+            categoryService.createCategory(Category.builder().categoryName("Food").build());
+            categoryService.createCategory(Category.builder().categoryName("Drinks").build());
+        }
+        categoryService.getAllCategories();
+        // Allocates the first blocks of ledger and change sequence ids, which later writes then draw from.
+        // The pooled optimizer's first block holds only the sequence's start value, so it takes two writes
+        for (int i = 0; i < 2; i++) {
+            productService.createProduct(new ProductInfo(null, "Warm-up " + System.nanoTime(), "Food",
+                    new BigDecimal("1.00"), null, 1));
+        }
+        statistics.clear();
+    }
+
+    // Before the category cache, createProduct ran 5 statements (category, name check, merge
+    // select, category again, insert) and updateProduct 5 (product, category, merge select,
+    // category again, update); now only the name check and the insert are left, and the update, since
+    // the product itself comes from the second-level cache. Each write also appends its inventory
+    // ledger entry and its entry in the change sequence
+    @Test
+    public void givenCachedCategories_whenWriteProducts_thenOnlyProductLedgerAndChangeStatementsAreRun() {
+        // when
+        Product created = productService.createProduct(new ProductInfo(null, "Statements " + System.nanoTime(), "Food",
+                new BigDecimal("2.00"), null, 5));
+        long createStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+
+        Product updated = productService.updateProduct(new ProductInfo(created.getId(), created.getName(), "Drinks",
+                new BigDecimal("2.50"), null, 3));
+        long updateStatements = statistics.getPrepareStatementCount();
+
+        // then
+        assertEquals(4, createStatements);
+        assertEquals(3, updateStatements);
+        assertEquals("Food", created.getCategory().getCategoryName());
+        assertEquals(Category.builder().categoryName("Drinks").build(), updated.getCategory());
+    }
+}